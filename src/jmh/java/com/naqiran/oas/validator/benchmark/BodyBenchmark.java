@@ -0,0 +1,62 @@
+package com.naqiran.oas.validator.benchmark;
+
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.Request;
+import com.naqiran.oas.validator.Response;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request and response body validation from 1 KB to 50 MB payloads in tree and streaming mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BodyBenchmark {
+
+    @Param({"1", "64", "1024", "51200"})
+    private int kilobytes;
+
+    @Param({"false", "true"})
+    private boolean streaming;
+
+    @Param({"MEDIUM"})
+    private Fixtures.Size size;
+
+    private OASValidator validator;
+    private Request request;
+    private Response response;
+
+    @Setup
+    public void setup() {
+        validator = Fixtures.validator(size, streaming);
+        final var payload = Fixtures.items(size, kilobytes * 1024);
+        request = Fixtures.request("POST", "/resource0/items").withBody(payload);
+        response = Fixtures.response(payload);
+    }
+
+    @Benchmark
+    public Context requestBody() {
+        return validator.validateRequest(request);
+    }
+
+    @Benchmark
+    public Context responseBody() {
+        return validator.validateResponse(request, response);
+    }
+}
@@ -0,0 +1,113 @@
+package com.naqiran.oas.validator.benchmark;
+
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of one validator shared by every benchmark thread against one validator per thread, the shared validator
+ * should scale the same when validation does not contend on shared state. Each thread replays a mix of valid and
+ * invalid requests and checks every result against the one a single threaded validation produced, an iteration with a
+ * different result fails the run. The thread count is changed with {@code -t}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class ConcurrencyBenchmark {
+
+    private static final Fixtures.Size SIZE = Fixtures.Size.MEDIUM;
+
+    @State(Scope.Benchmark)
+    public static class Shared {
+        private OASValidator validator;
+
+        @Setup
+        public void setup() {
+            validator = Fixtures.validator(SIZE, false);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Local {
+        private OASValidator validator;
+        private Request[] requests;
+        private int[] expectedErrors;
+        private int[] expectedMessages;
+        private int next;
+        private long mismatches;
+
+        @Setup
+        public void setup() {
+            validator = Fixtures.validator(SIZE, false);
+            final var invalid = new String(Fixtures.item(SIZE), StandardCharsets.UTF_8)
+                    .replace("\"small\"", "\"huge\"").replace("\"leaf\":1", "\"leaf\":true");
+            requests = new Request[]{
+                    Fixtures.request("POST", "/resource1/items").withBody(Fixtures.itemCount(SIZE, 20)),
+                    Fixtures.request("POST", "/resource2/items").withBody(("[" + invalid + "," + invalid + "]").getBytes(StandardCharsets.UTF_8)),
+                    Fixtures.request("GET", "/resource3/items?limit=10&kind=small&cursor=abc"),
+                    Fixtures.request("GET", "/resource4/items?limit=ten&kind=huge"),
+                    Fixtures.request("GET", "/resource5/items/42"),
+                    Fixtures.request("GET", "/resource6/items/forty-two"),
+                    Fixtures.request("GET", "/missing/items")
+            };
+            expectedErrors = new int[requests.length];
+            expectedMessages = new int[requests.length];
+            for (int index = 0; index < requests.length; index++) {
+                final var context = validator.validateRequest(requests[index]);
+                expectedErrors[index] = context.getErrorCount();
+                expectedMessages[index] = context.getMessages().size();
+            }
+        }
+
+        private Context verify(final Context context, final int index) {
+            if (context.getErrorCount() != expectedErrors[index] || context.getMessages().size() != expectedMessages[index]) {
+                mismatches++;
+            }
+            return context;
+        }
+
+        private int next() {
+            final var index = next;
+            next = index + 1 == requests.length ? 0 : index + 1;
+            return index;
+        }
+
+        @TearDown(Level.Iteration)
+        public void check() {
+            if (mismatches > 0) {
+                throw new IllegalStateException(mismatches + " validations differ from the single threaded result");
+            }
+        }
+    }
+
+    @Benchmark
+    public Context shared(final Shared shared, final Local local) {
+        final var index = local.next();
+        return local.verify(shared.validator.validateRequest(local.requests[index]), index);
+    }
+
+    @Benchmark
+    public Context perThread(final Local local) {
+        final var index = local.next();
+        return local.verify(local.validator.validateRequest(local.requests[index]), index);
+    }
+}
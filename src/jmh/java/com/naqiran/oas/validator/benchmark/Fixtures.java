@@ -0,0 +1,204 @@
+package com.naqiran.oas.validator.benchmark;
+
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.Request;
+import com.naqiran.oas.validator.Response;
+import com.naqiran.oas.validator.load.PayloadGenerator;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.Paths;
+import io.swagger.v3.oas.models.info.Info;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.ComposedSchema;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.IntegerSchema;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.NumberSchema;
+import io.swagger.v3.oas.models.media.ObjectSchema;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.media.StringSchema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import io.swagger.v3.oas.models.responses.ApiResponse;
+import io.swagger.v3.oas.models.responses.ApiResponses;
+import io.swagger.v3.oas.models.servers.Server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Generated contracts and payloads shared by the benchmarks. Every benchmark validates offline so the numbers never
+ * include the network.
+ */
+public final class Fixtures {
+
+    public static final String SERVER = "http://localhost:8080/api";
+
+    /**
+     * Media type the request and response validators look the body schema up with.
+     */
+    private static final String MEDIA_TYPE = "application/json";
+
+    /**
+     * Contract sizes: number of paths, each with a collection and an item resource, and the depth of the allOf chain
+     * every item carries.
+     */
+    public enum Size {
+        SMALL(5, 2), MEDIUM(50, 4), HUGE(300, 8);
+
+        private final int paths;
+        private final int depth;
+
+        Size(final int paths, final int depth) {
+            this.paths = paths;
+            this.depth = depth;
+        }
+
+        public int getPaths() {
+            return paths;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+    }
+
+    private Fixtures() {
+    }
+
+    public static OpenAPI contract(final Size size) {
+        final var components = new Components();
+        components.addSchemas("Item", new ObjectSchema()
+                .addProperties("id", new IntegerSchema().format("int64"))
+                .addProperties("name", new StringSchema().maxLength(64))
+                .addProperties("kind", new StringSchema()._enum(List.of("small", "medium", "large")))
+                .addProperties("price", new NumberSchema())
+                .addProperties("tags", new ArraySchema().items(new StringSchema()))
+                .addProperties("detail", new Schema<>().$ref("#/components/schemas/Level0")));
+        for (int level = 0; level < size.getDepth(); level++) {
+            components.addSchemas("Level" + level, new ComposedSchema()
+                    .addAllOfItem(new Schema<>().$ref("#/components/schemas/Level" + (level + 1)))
+                    .addAllOfItem(new ObjectSchema().addProperties("field" + level, new StringSchema())));
+        }
+        components.addSchemas("Level" + size.getDepth(), new ObjectSchema()
+                .addProperties("leaf", new ComposedSchema().addOneOfItem(new StringSchema()).addOneOfItem(new IntegerSchema())));
+        final var items = new ArraySchema().items(new Schema<>().$ref("#/components/schemas/Item"));
+        final var item = new Schema<>().$ref("#/components/schemas/Item");
+        final var paths = new Paths();
+        for (int index = 0; index < size.getPaths(); index++) {
+            paths.addPathItem("/resource" + index + "/items", new PathItem()
+                    .get(new Operation().operationId("list" + index)
+                            .addParametersItem(new Parameter().in("query").name("limit").schema(new IntegerSchema()))
+                            .addParametersItem(new Parameter().in("query").name("cursor").schema(new StringSchema().maxLength(32)))
+                            .addParametersItem(new Parameter().in("query").name("kind").schema(new StringSchema()._enum(List.of("small", "medium", "large"))))
+                            .responses(responses(items)))
+                    .post(new Operation().operationId("create" + index)
+                            .requestBody(new RequestBody().required(true).content(content(items)))
+                            .responses(responses(items))));
+            paths.addPathItem("/resource" + index + "/items/{itemId}", new PathItem()
+                    .get(new Operation().operationId("get" + index)
+                            .addParametersItem(new Parameter().in("path").name("itemId").required(true).schema(new IntegerSchema().format("int64")))
+                            .responses(responses(item))));
+        }
+        return new OpenAPI().info(new Info().title("Benchmark " + size).version("1"))
+                .servers(List.of(new Server().url(SERVER))).paths(paths).components(components);
+    }
+
+    public static OASValidator validator(final Size size, final boolean streaming) {
+        return validator(size, streaming, OASValidator.builder());
+    }
+
+    public static OASValidator validator(final Size size, final boolean streaming, final OASValidator.Builder builder) {
+        try {
+            final var file = Files.createTempFile("oas-benchmark-" + size.name().toLowerCase(Locale.ROOT), ".json");
+            file.toFile().deleteOnExit();
+            Files.write(file, Json.mapper().writeValueAsBytes(contract(size)));
+            return builder.withSchema(file.toString()).withStreaming(streaming).build();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * @return a JSON array of valid items for the contract of the given size of at least the given number of bytes
+     */
+    public static byte[] items(final Size size, final int bytes) {
+        return items(size, bytes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return a JSON array of the given number of valid items for the contract of the given size
+     */
+    public static byte[] itemCount(final Size size, final int count) {
+        return items(size, Integer.MAX_VALUE, count);
+    }
+
+    private static byte[] items(final Size size, final int bytes, final int count) {
+        final var payload = new StringBuilder(Math.min(bytes, 1 << 20) + 1024).append('[');
+        for (int index = 0; payload.length() < bytes && index < count; index++) {
+            if (index > 0) {
+                payload.append(',');
+            }
+            item(payload, size, index);
+        }
+        return payload.append(']').toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return a JSON array of generated items for the contract of the given size of at least the given number of
+     * bytes, the same seed gives the same payload and every value has the invalid rate chance of breaking its schema
+     */
+    public static byte[] generated(final Size size, final int bytes, final long seed, final double invalidRate) {
+        try {
+            final var payload = new ByteArrayOutputStream(Math.min(bytes, 1 << 20) + 1024);
+            PayloadGenerator.builder(contract(size), "create0").withSize(bytes).withSeed(seed).withInvalidRate(invalidRate).build().write(payload);
+            return payload.toByteArray();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static byte[] item(final Size size) {
+        return item(new StringBuilder(), size, 1).toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static StringBuilder item(final StringBuilder payload, final Size size, final int index) {
+        payload.append("{\"id\":").append(index)
+                .append(",\"name\":\"item-").append(index)
+                .append("\",\"kind\":\"").append(index % 2 == 0 ? "small" : "large")
+                .append("\",\"price\":").append(index).append(".25")
+                .append(",\"tags\":[\"a\",\"b\",\"c\"],\"detail\":{");
+        for (int level = 0; level < size.getDepth(); level++) {
+            payload.append("\"field").append(level).append("\":\"value\",");
+        }
+        return payload.append("\"leaf\":").append(index).append("}}");
+    }
+
+    public static Request request(final String method, final String path) {
+        return Request.builder(URI.create(SERVER + path), method)
+                .withHeader(Map.of("Content-Type", List.of(MEDIA_TYPE)));
+    }
+
+    public static Response response(final byte[] body) {
+        return Response.builder(200).withHeader(Map.of("Content-Type", List.of(MEDIA_TYPE))).withBody(body);
+    }
+
+    private static Content content(final Schema<?> schema) {
+        return new Content().addMediaType(MEDIA_TYPE, new MediaType().schema(schema));
+    }
+
+    private static ApiResponses responses(final Schema<?> schema) {
+        return new ApiResponses().addApiResponse("200", new ApiResponse().description("OK").content(content(schema)));
+    }
+}
@@ -0,0 +1,60 @@
+package com.naqiran.oas.validator.benchmark;
+
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request body validation of payloads generated from the contract, with varied optional properties, string lengths
+ * and numbers instead of the repeated items of {@link BodyBenchmark}. An invalid rate above 0 measures the cost of
+ * reporting errors spread through the payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GeneratedBodyBenchmark {
+
+    private static final long SEED = 42;
+
+    @Param({"64", "1024"})
+    private int kilobytes;
+
+    @Param({"0", "0.001"})
+    private double invalidRate;
+
+    @Param({"false", "true"})
+    private boolean streaming;
+
+    @Param({"MEDIUM"})
+    private Fixtures.Size size;
+
+    private OASValidator validator;
+    private Request request;
+
+    @Setup
+    public void setup() {
+        validator = Fixtures.validator(size, streaming);
+        request = Fixtures.request("POST", "/resource0/items").withBody(Fixtures.generated(size, kilobytes * 1024, SEED, invalidRate));
+    }
+
+    @Benchmark
+    public Context requestBody() {
+        return validator.validateRequest(request);
+    }
+}
@@ -0,0 +1,59 @@
+package com.naqiran.oas.validator.benchmark;
+
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.Request;
+import com.naqiran.oas.validator.Response;
+import com.naqiran.oas.validator.metrics.InMemoryMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the validation listener: a validator without one against the same validator recording every stage into
+ * the in memory histograms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+
+    @Param({"SMALL", "MEDIUM"})
+    private Fixtures.Size size;
+
+    private OASValidator plain;
+    private OASValidator instrumented;
+    private Request request;
+    private Response response;
+
+    @Setup
+    public void setup() {
+        plain = Fixtures.validator(size, false);
+        instrumented = Fixtures.validator(size, false, OASValidator.builder().withListener(new InMemoryMetrics()));
+        request = Fixtures.request("GET", "/resource" + (size.getPaths() - 1) + "/items/1234");
+        response = Fixtures.response(Fixtures.item(size));
+    }
+
+    @Benchmark
+    public Context withoutListener() {
+        return plain.validate(request, response);
+    }
+
+    @Benchmark
+    public Context inMemoryMetrics() {
+        return instrumented.validate(request, response);
+    }
+}
@@ -0,0 +1,90 @@
+package com.naqiran.oas.validator.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.Request;
+import com.naqiran.oas.validator.schema.CompiledSchema;
+import com.naqiran.oas.validator.schema.SchemaCompiler;
+import com.naqiran.oas.validator.utils.JsonUtils;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Speedup of parallel validation of a 100k element array by pool size, a parallelism of 0 is the sequential
+ * baseline. The validation benchmark validates a parsed tree, the request benchmark includes parsing the body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ParallelBenchmark {
+
+    private static final int ITEMS = 100_000;
+    private static final int THRESHOLD = 1_000;
+
+    @Param({"0", "1", "2", "4", "8", "16", "32"})
+    private int parallelism;
+
+    private ForkJoinPool pool;
+    private OASValidator validator;
+    private Request request;
+    private CompiledSchema schema;
+    private JsonNode node;
+
+    @Setup
+    public void setup() throws IOException {
+        final var size = Fixtures.Size.MEDIUM;
+        final var payload = Fixtures.itemCount(size, ITEMS);
+        node = JsonUtils.getMapper().readTree(payload);
+        request = Fixtures.request("POST", "/resource0/items").withBody(payload);
+        final var contract = Fixtures.contract(size);
+        schema = new SchemaCompiler(contract.getComponents()).compile(new ArraySchema().items(new Schema<>().$ref("#/components/schemas/Item")));
+        final var builder = OASValidator.builder();
+        if (parallelism > 0) {
+            pool = new ForkJoinPool(parallelism);
+            builder.withParallel(THRESHOLD, pool);
+        }
+        validator = Fixtures.validator(size, false, builder);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public Context validation() {
+        final var context = Context.getContext(request);
+        if (pool != null) {
+            context.withParallel(pool, THRESHOLD);
+        }
+        schema.validate(context, node, false);
+        return context;
+    }
+
+    @Benchmark
+    public Context requestBody() {
+        return validator.validateRequest(request);
+    }
+}
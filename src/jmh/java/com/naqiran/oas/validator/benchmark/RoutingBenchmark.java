@@ -0,0 +1,112 @@
+package com.naqiran.oas.validator.benchmark;
+
+import com.naqiran.oas.validator.PathRouter;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.Paths;
+import io.swagger.v3.oas.models.servers.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the routing trie against the map plus regex scan previously used by OASValidator.operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingBenchmark {
+
+    private static final Pattern PATH_PATTERN = Pattern.compile("\\{(.*)}");
+
+    @Param({"10", "100", "600"})
+    private int paths;
+
+    private PathRouter router;
+    private Map<Pattern, PathItem> pathRegexMap;
+    private Map<String, PathItem> pathMap;
+    private URI literalUri;
+    private URI templatedUri;
+
+    @Setup
+    public void setup() {
+        final var openAPI = new OpenAPI().servers(List.of(new Server().url("http://localhost:8080/api"), new Server().url("https://example.com/v1")));
+        final var contractPaths = new Paths();
+        for (int index = 0; index < paths; index++) {
+            final var pathItem = new PathItem().get(new Operation().operationId("operation" + index));
+            if (index % 2 == 0) {
+                contractPaths.addPathItem("/resource" + index + "/items", pathItem);
+            } else {
+                contractPaths.addPathItem("/resource" + index + "/{resourceId}/items/{itemId}", pathItem);
+            }
+        }
+        openAPI.setPaths(contractPaths);
+        router = PathRouter.build(openAPI);
+        pathRegexMap = new HashMap<>();
+        pathMap = new HashMap<>();
+        for (final var pathItemEntry : openAPI.getPaths().entrySet()) {
+            var path = pathItemEntry.getKey();
+            if (path.contains("{")) {
+                path = PATH_PATTERN.matcher(path).replaceAll(result -> "(?<" + result.group(1) + ">.*)");
+                for (var server : openAPI.getServers()) {
+                    pathRegexMap.put(Pattern.compile(server.getUrl() + path), pathItemEntry.getValue());
+                }
+            } else {
+                for (var server : openAPI.getServers()) {
+                    pathMap.put(server.getUrl() + path, pathItemEntry.getValue());
+                }
+            }
+        }
+        literalUri = URI.create("https://example.com/v1/resource" + (paths - 2) + "/items");
+        templatedUri = URI.create("https://example.com/v1/resource" + (paths - 1) + "/1234/items/5678");
+    }
+
+    @Benchmark
+    public Object trieLiteral() {
+        return router.match(literalUri);
+    }
+
+    @Benchmark
+    public Object trieTemplated() {
+        return router.match(templatedUri);
+    }
+
+    @Benchmark
+    public Object regexLiteral() {
+        return regexMatch(literalUri.toString());
+    }
+
+    @Benchmark
+    public Object regexTemplated() {
+        return regexMatch(templatedUri.toString());
+    }
+
+    private PathItem regexMatch(final String path) {
+        var pathItem = pathMap.get(path);
+        for (var entry : pathRegexMap.entrySet()) {
+            if (entry.getKey().matcher(path).matches()) {
+                pathItem = entry.getValue();
+            }
+        }
+        return pathItem;
+    }
+}
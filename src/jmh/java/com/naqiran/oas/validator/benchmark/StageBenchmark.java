@@ -0,0 +1,126 @@
+package com.naqiran.oas.validator.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.Request;
+import com.naqiran.oas.validator.Response;
+import com.naqiran.oas.validator.SchemaValidator;
+import com.naqiran.oas.validator.utils.HttpUtils;
+import com.naqiran.oas.validator.utils.JsonUtils;
+import com.naqiran.oas.validator.utils.ParameterParser;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.media.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the validation stages of a single request against contracts of growing size, run with
+ * {@code -prof gc} to get the allocation rate of each stage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StageBenchmark {
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    private Fixtures.Size size;
+
+    private OASValidator validator;
+    private Request itemRequest;
+    private Request listRequest;
+    private String encodedQuery;
+    private List<String> cookieHeader;
+    private Response itemResponse;
+    private OpenAPI contract;
+    private Schema<?> itemSchema;
+    private JsonNode itemNode;
+
+    @Setup
+    public void setup() throws IOException {
+        validator = Fixtures.validator(size, false);
+        final var last = size.getPaths() - 1;
+        itemRequest = Fixtures.request("GET", "/resource" + last + "/items/1234");
+        listRequest = Fixtures.request("GET", "/resource" + last + "/items?limit=20&cursor=abcdef&kind=small");
+        final var query = new StringBuilder();
+        final var cookies = new StringBuilder();
+        for (int index = 0; index < 30; index++) {
+            query.append(index == 0 ? "" : "&").append("filter").append(index).append("=caf%C3%A9+").append(index).append("%2C").append(index + 1);
+            cookies.append(index == 0 ? "" : "; ").append("cookie").append(index).append("=\"value%20").append(index).append('"');
+        }
+        encodedQuery = query.toString();
+        cookieHeader = List.of(cookies.toString());
+        itemResponse = Fixtures.response(Fixtures.item(size));
+        contract = Fixtures.contract(size);
+        itemSchema = contract.getComponents().getSchemas().get("Item");
+        itemNode = JsonUtils.getMapper().readTree(Fixtures.item(size));
+    }
+
+    @Benchmark
+    public Context routing() {
+        return validator.operation(Context.getContext(itemRequest));
+    }
+
+    @Benchmark
+    public Object queryParsing() {
+        return HttpUtils.getQueryParameters(listRequest);
+    }
+
+    /**
+     * Parses 30 percent encoded pairs and decodes every value, the values are decoded lazily so the read is part of
+     * the cost.
+     */
+    @Benchmark
+    public int encodedQueryParsing() {
+        var length = 0;
+        for (final var values : ParameterParser.parseQuery(encodedQuery).values()) {
+            length += values.get(0).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public int cookieParsing() {
+        var length = 0;
+        for (final var values : ParameterParser.parseCookies(cookieHeader).values()) {
+            length += values.get(0).length();
+        }
+        return length;
+    }
+
+    @Benchmark
+    public Context parameters() {
+        return validator.validateRequest(listRequest);
+    }
+
+    @Benchmark
+    public Context responseBody() {
+        return validator.validateResponse(itemRequest, itemResponse);
+    }
+
+    /**
+     * Static schema API, compiles the schema on every call.
+     */
+    @Benchmark
+    public Context validateJsonSchema() {
+        final var context = Context.getContext(itemRequest).withComponents(contract.getComponents());
+        SchemaValidator.validateJsonSchema(context, "", itemSchema, itemNode);
+        return context;
+    }
+}
@@ -0,0 +1,275 @@
+package com.naqiran.oas.validator;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Request or response payload. Byte based bodies are handed to the JSON parser as they are so large payloads are never
+ * decoded into Java strings; {@link #asString()} is only an adapter for callers that need the text.
+ */
+public abstract class Body {
+
+    private static final int PEEK_LIMIT = 8192;
+
+    public static @Nonnull Body of(final @Nonnull String content) {
+        return new StringBody(content);
+    }
+
+    public static @Nonnull Body of(final @Nonnull byte[] content) {
+        return new BufferBody(ByteBuffer.wrap(content));
+    }
+
+    /**
+     * The remaining bytes of the buffer are the body, they are not copied and must not change while the body is used.
+     * A heap buffer is parsed from its backing array.
+     */
+    public static @Nonnull Body of(final @Nonnull ByteBuffer content) {
+        return new BufferBody(content.duplicate());
+    }
+
+    /**
+     * Stream bodies can only be read once, {@link #asString()} buffers the remaining content in memory.
+     */
+    public static @Nonnull Body of(final @Nonnull InputStream content) {
+        return new StreamBody(content);
+    }
+
+    /**
+     * Memory maps the file, files larger than a single mapping are streamed instead.
+     */
+    public static @Nonnull Body of(final @Nonnull Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() <= Integer.MAX_VALUE) {
+                return new BufferBody(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+        return new StreamBody(Files.newInputStream(file));
+    }
+
+    /**
+     * @return true when the body has no content other than whitespace
+     */
+    public abstract boolean isBlank();
+
+    /**
+     * @return the length in bytes or -1 when it is not known up front
+     */
+    public abstract long length();
+
+    public abstract @Nonnull InputStream openStream();
+
+    public abstract @Nonnull HttpRequest.BodyPublisher getPublisher();
+
+    public abstract @Nonnull JsonParser createParser(final @Nonnull ObjectMapper mapper) throws IOException;
+
+    public abstract @Nonnull String asString();
+
+    /**
+     * Makes the body readable more than once, only stream bodies need to load their content for it.
+     */
+    public @Nonnull Body buffer() {
+        return this;
+    }
+
+    /**
+     * @return the content without copying it where possible, or null when it can only be read once
+     */
+    @Nullable ByteBuffer getBytes() {
+        return null;
+    }
+
+    private static boolean isWhitespace(final int value) {
+        return value == ' ' || value == '\t' || value == '\n' || value == '\r' || value == '\f' || value == 0x0B;
+    }
+
+    private static class StringBody extends Body {
+        private final String content;
+
+        private StringBody(final String content) {
+            this.content = content;
+        }
+
+        @Override
+        public boolean isBlank() {
+            return StringUtils.isBlank(content);
+        }
+
+        @Override
+        public long length() {
+            return -1;
+        }
+
+        @Override
+        public @Nonnull InputStream openStream() {
+            return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public @Nonnull HttpRequest.BodyPublisher getPublisher() {
+            return HttpRequest.BodyPublishers.ofString(content);
+        }
+
+        @Override
+        public @Nonnull JsonParser createParser(final @Nonnull ObjectMapper mapper) throws IOException {
+            return mapper.createParser(content);
+        }
+
+        @Override
+        public @Nonnull String asString() {
+            return content;
+        }
+
+        @Override
+        ByteBuffer getBytes() {
+            return ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static class BufferBody extends Body {
+        private final ByteBuffer content;
+
+        private BufferBody(final ByteBuffer content) {
+            this.content = content;
+        }
+
+        @Override
+        public boolean isBlank() {
+            for (int index = content.position(); index < content.limit(); index++) {
+                if (!isWhitespace(content.get(index))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public long length() {
+            return content.remaining();
+        }
+
+        @Override
+        public @Nonnull InputStream openStream() {
+            return new ByteBufferBackedInputStream(content.duplicate());
+        }
+
+        @Override
+        public @Nonnull HttpRequest.BodyPublisher getPublisher() {
+            if (content.hasArray()) {
+                return HttpRequest.BodyPublishers.ofByteArray(content.array(), content.arrayOffset() + content.position(), content.remaining());
+            }
+            return HttpRequest.BodyPublishers.fromPublisher(HttpRequest.BodyPublishers.ofInputStream(this::openStream), content.remaining());
+        }
+
+        @Override
+        public @Nonnull JsonParser createParser(final @Nonnull ObjectMapper mapper) throws IOException {
+            if (content.hasArray()) {
+                return mapper.createParser(content.array(), content.arrayOffset() + content.position(), content.remaining());
+            }
+            return mapper.createParser(openStream());
+        }
+
+        @Override
+        public @Nonnull String asString() {
+            return StandardCharsets.UTF_8.decode(content.duplicate()).toString();
+        }
+
+        @Override
+        ByteBuffer getBytes() {
+            return content.duplicate();
+        }
+    }
+
+    private static class StreamBody extends Body {
+        private final InputStream content;
+        private byte[] buffered;
+
+        private StreamBody(final InputStream content) {
+            this.content = content.markSupported() ? content : new BufferedInputStream(content);
+        }
+
+        @Override
+        public boolean isBlank() {
+            if (buffered != null) {
+                return Body.of(buffered).isBlank();
+            }
+            try {
+                content.mark(PEEK_LIMIT);
+                try {
+                    for (int index = 0; index < PEEK_LIMIT; index++) {
+                        final var value = content.read();
+                        if (value < 0) {
+                            return true;
+                        } else if (!isWhitespace(value)) {
+                            return false;
+                        }
+                    }
+                    return false;
+                } finally {
+                    content.reset();
+                }
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public long length() {
+            return buffered == null ? -1 : buffered.length;
+        }
+
+        @Override
+        public @Nonnull InputStream openStream() {
+            return buffered == null ? content : new ByteArrayInputStream(buffered);
+        }
+
+        @Override
+        public @Nonnull HttpRequest.BodyPublisher getPublisher() {
+            return buffered == null ? HttpRequest.BodyPublishers.ofInputStream(this::openStream) : HttpRequest.BodyPublishers.ofByteArray(buffered);
+        }
+
+        @Override
+        public @Nonnull JsonParser createParser(final @Nonnull ObjectMapper mapper) throws IOException {
+            return buffered == null ? mapper.createParser(content) : mapper.createParser(buffered);
+        }
+
+        @Override
+        public @Nonnull String asString() {
+            buffer();
+            return new String(buffered, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public @Nonnull Body buffer() {
+            if (buffered == null) {
+                try {
+                    buffered = content.readAllBytes();
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        ByteBuffer getBytes() {
+            return buffered == null ? null : ByteBuffer.wrap(buffered);
+        }
+    }
+}
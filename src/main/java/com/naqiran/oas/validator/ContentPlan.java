@@ -0,0 +1,78 @@
+package com.naqiran.oas.validator;
+
+import com.naqiran.oas.validator.schema.CompiledSchema;
+import com.naqiran.oas.validator.utils.MediaType;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled media types of a request body or response. The media type ranges of the contract are ordered from the most
+ * specific to the least specific once, so a body is matched to its schema by its {@code Content-Type} with a single
+ * scan: {@code application/json} is preferred over {@code application/*+json}, {@code application/*} and
+ * {@code *}{@code /*} in that order.
+ */
+@Immutable
+public final class ContentPlan {
+
+    /**
+     * Media type of a body sent without a {@code Content-Type} header.
+     */
+    static final MediaType DEFAULT_MEDIA_TYPE = MediaType.parse("application/json");
+
+    private final Map<String, CompiledSchema> schemas;
+    private final List<Entry> entries;
+
+    ContentPlan(final @Nonnull Map<String, CompiledSchema> schemas) {
+        this.schemas = Collections.unmodifiableMap(schemas);
+        final List<Entry> parsed = new ArrayList<>(schemas.size());
+        schemas.forEach((name, schema) -> {
+            final var range = MediaType.parse(name);
+            if (range != null) {
+                parsed.add(new Entry(range, schema));
+            }
+        });
+        parsed.sort(Comparator.comparingInt((Entry entry) -> entry.range.getSpecificity()).reversed());
+        this.entries = Collections.unmodifiableList(parsed);
+    }
+
+    /**
+     * @return the schema of the most specific media type range including the media type, or null when no range of the
+     * contract includes it
+     */
+    public @Nullable CompiledSchema match(final @Nonnull MediaType mediaType) {
+        for (final var entry : entries) {
+            if (entry.range.includes(mediaType)) {
+                return entry.schema;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the compiled schemas by media type range as written in the contract
+     */
+    public @Nonnull Map<String, CompiledSchema> getSchemas() {
+        return schemas;
+    }
+
+    public boolean isEmpty() {
+        return schemas.isEmpty();
+    }
+
+    private static final class Entry {
+        private final MediaType range;
+        private final CompiledSchema schema;
+
+        private Entry(final MediaType range, final CompiledSchema schema) {
+            this.range = range;
+            this.schema = schema;
+        }
+    }
+}
@@ -1,45 +1,109 @@
 package com.naqiran.oas.validator;
 
+import com.naqiran.oas.validator.decoder.BodyDecoder;
+import com.naqiran.oas.validator.metrics.Stage;
+import com.naqiran.oas.validator.metrics.ValidationListener;
+import com.naqiran.oas.validator.schema.ReferenceGraph;
+import com.naqiran.oas.validator.schema.SchemaCompiler;
 import com.naqiran.oas.validator.utils.HttpUtils;
+import com.naqiran.oas.validator.utils.MediaType;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.media.Schema;
 
 import javax.annotation.Nonnull;
-import java.net.http.HttpResponse;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.regex.Pattern;
 
+/**
+ * State of a single validation: the request and response, the resolved operation and the messages reported so far.
+ * A context is confined to the thread validating it; parallel validation works on {@link #fork() forks} and merges
+ * them back on the calling thread.
+ */
+@NotThreadSafe
 public class Context {
 
+    /**
+     * Default limit of nested values of recursive schemas and of nested objects and arrays of a JSON body. The body is
+     * checked while it is read, so neither reading its tree nor walking it can exhaust the stack.
+     */
+    public static final int DEFAULT_MAX_DEPTH = 256;
+    private static final int TRIAL_FAILED = 1;
+    private static final int TRIAL_HALTED = 2;
+
     private final Request request;
     private final List<Message> messages;
+    private final PointerStack pointer;
     private final String path;
-    private Pattern regexPath;
+    private Map<String, List<String>> pathParameters = Map.of();
+    private String template;
+    private ParameterValues parameterValues;
     private Operation operation;
-    private HttpResponse<String> response;
+    private OperationPlan operationPlan;
+    private Response response;
     private Components components;
+    private ReferenceGraph references;
+    private boolean streaming;
+    private boolean validatingResponse;
+    private int maxErrors;
+    private int errors;
+    private boolean halted;
+    private int trialDepth;
+    private boolean trialFailed;
+    private ForkJoinPool pool;
+    private int parallelThreshold;
+    private int maxDepth = DEFAULT_MAX_DEPTH;
+    private int depth;
+    private ValidationListener listener;
+    private String operationName;
+    private List<BodyDecoder> decoders = BodyDecoder.defaults();
 
     private Context(final @Nonnull Request request) {
         this.request = request;
         this.path = HttpUtils.getUrl(request);
         this.messages = new ArrayList<>();
+        this.pointer = new PointerStack();
+    }
+
+    private Context(final Context parent) {
+        this.request = parent.request;
+        this.path = parent.path;
+        this.messages = new ArrayList<>();
+        this.pointer = parent.pointer.copy();
+        this.components = parent.components;
+        this.references = parent.references;
+        this.maxDepth = parent.maxDepth;
+        this.depth = parent.depth;
+        this.streaming = parent.streaming;
+        this.validatingResponse = parent.validatingResponse;
+        this.maxErrors = parent.maxErrors == 0 ? 0 : parent.maxErrors - parent.errors;
+        this.pool = parent.pool;
+        this.parallelThreshold = parent.parallelThreshold;
     }
 
     public static Context getContext(final @Nonnull Request request) {
         return new Context(request);
     }
 
-    public void setRegexPath(final @Nonnull Pattern regexPath) {
-        this.regexPath = regexPath;
+    void setPathParameters(final @Nonnull Map<String, List<String>> pathParameters) {
+        this.pathParameters = pathParameters;
+    }
+
+    void setTemplate(final String template) {
+        this.template = template;
     }
 
-    public final Context setOperation(final Operation operation) {
+    final Context setOperation(final Operation operation) {
         if (operation == null) {
-            addMessage(MessageLevel.ERROR, "Operation not defined for the path: %s", path);
+            addError(ErrorCode.OPERATION_NOT_FOUND, false, path, null, null);
         } else {
             addMessage(MessageLevel.INFO, "API is validated against the Operation: %s", operation.getOperationId());
             this.operation = operation;
@@ -51,8 +115,79 @@ public class Context {
         return this;
     }
 
+    void setOperationPlan(final OperationPlan operationPlan) {
+        this.operationPlan = operationPlan;
+    }
+
     public Context withComponents(final Components components) {
         this.components = components;
+        this.references = null;
+        return this;
+    }
+
+    /**
+     * Resolves references with the graph already built for the contract instead of building one for the components.
+     */
+    public Context withReferences(final @Nonnull ReferenceGraph references) {
+        this.components = references.getComponents();
+        this.references = references;
+        return this;
+    }
+
+    /**
+     * Limits how deep a payload may nest recursive schemas, zero allows any depth.
+     */
+    public Context withMaxDepth(final int maxDepth) {
+        this.maxDepth = Math.max(maxDepth, 0);
+        return this;
+    }
+
+    /**
+     * Validates JSON bodies straight from the parser tokens instead of building the whole tree first.
+     */
+    public Context withStreaming(final boolean streaming) {
+        this.streaming = streaming;
+        return this;
+    }
+
+    /**
+     * Stops validating the payload at the first error.
+     */
+    public Context withFailFast(final boolean failFast) {
+        this.maxErrors = failFast ? 1 : 0;
+        return this;
+    }
+
+    /**
+     * Stops validating the payload once the given number of errors is reported, zero reports every error.
+     */
+    public Context withMaxErrors(final int maxErrors) {
+        this.maxErrors = Math.max(maxErrors, 0);
+        return this;
+    }
+
+    /**
+     * Validates arrays and objects with at least the threshold number of values in parallel on the pool.
+     */
+    public Context withParallel(final ForkJoinPool pool, final int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = Math.max(parallelThreshold, 1);
+        return this;
+    }
+
+    /**
+     * Reports stage timings and payload sizes to the listener, a null listener turns timing off.
+     */
+    public Context withListener(final @Nullable ValidationListener listener) {
+        this.listener = listener == ValidationListener.NONE ? null : listener;
+        return this;
+    }
+
+    /**
+     * Decoders of the bodies in the order they are asked, the built in decoders by default.
+     */
+    public Context withDecoders(final @Nonnull List<BodyDecoder> decoders) {
+        this.decoders = decoders;
         return this;
     }
 
@@ -60,53 +195,293 @@ public class Context {
         return operationFunction.apply(this);
     }
 
-    public final Context addMessage(final @Nonnull MessageLevel level, final boolean ignoreError, final @Nonnull String message, final String... args) {
-        messages.add(new Message(String.format(message, (Object[]) args), ignoreError ? MessageLevel.IGNORED : level));
+    public final Context addMessage(final @Nonnull MessageLevel level, final boolean ignoreError, final @Nonnull String message, final Object... args) {
+        return addMessage(ignoreError ? MessageLevel.IGNORED : level, message, args);
+    }
+
+    /**
+     * The message is formatted when it is first read, so messages nobody looks at never pay for the formatting.
+     */
+    public final Context addMessage(final @Nonnull MessageLevel level, final @Nonnull String message, final Object... args) {
+        if (trialDepth > 0) {
+            return failTrial(level);
+        }
+        return addMessage(new Message(level, null, null, null, null, message, args));
+    }
+
+    /**
+     * Reports an error at the current {@link #getPointer() pointer} location.
+     */
+    public final Context addError(final @Nonnull ErrorCode code, final boolean ignoreError, final Object expected, final Object actual) {
+        return addError(code, ignoreError, null, expected, actual);
+    }
+
+    /**
+     * Reports an error at the given location, the name of a parameter or header, or at the current pointer location
+     * when it is null.
+     */
+    public final Context addError(final @Nonnull ErrorCode code, final boolean ignoreError, final String location, final Object expected, final Object actual) {
+        if (trialDepth > 0) {
+            return failTrial(MessageLevel.ERROR);
+        }
+        return addMessage(new Message(ignoreError ? MessageLevel.IGNORED : MessageLevel.ERROR, code, location == null ? pointer.toString() : location,
+                expected, actual, null, null));
+    }
+
+    /**
+     * Starts validating a branch of a composed schema only to find out whether it matches. Messages of the branch are
+     * not kept and the first error halts the branch.
+     *
+     * @return the state of the enclosing trial to hand back to {@link #endTrial(int)}
+     */
+    public int startTrial() {
+        final var enclosing = (trialFailed ? TRIAL_FAILED : 0) | (halted ? TRIAL_HALTED : 0);
+        trialDepth++;
+        trialFailed = false;
+        return enclosing;
+    }
+
+    /**
+     * Ends the branch and restores the failed and halted state the enclosing validation had when it started.
+     *
+     * @return true when the branch validated since {@link #startTrial()} reported no error
+     */
+    public boolean endTrial(final int enclosing) {
+        final var matched = !trialFailed;
+        trialDepth--;
+        trialFailed = (enclosing & TRIAL_FAILED) != 0;
+        halted = (enclosing & TRIAL_HALTED) != 0;
+        return matched;
+    }
+
+    private Context failTrial(final MessageLevel level) {
+        if (level == MessageLevel.ERROR || level == MessageLevel.IGNORED) {
+            trialFailed = true;
+            halted = true;
+        }
         return this;
     }
 
-    public final Context addMessage(final @Nonnull MessageLevel level, final @Nonnull String message, final String... args) {
-        messages.add(new Message(String.format(message, (Object[]) args), level));
+    private Context addMessage(final Message message) {
+        messages.add(message);
+        if (message.level == MessageLevel.ERROR && ++errors == maxErrors) {
+            halted = true;
+        }
         return this;
     }
 
+    /**
+     * @return the start time of a stage to hand back to {@link #recordStage(Stage, long)}, the clock is only read when
+     * a listener is set
+     */
+    public long startStage() {
+        return listener == null ? 0 : System.nanoTime();
+    }
+
+    public void recordStage(final @Nonnull Stage stage, final long start) {
+        if (listener != null) {
+            listener.onStage(getOperationName(), stage, System.nanoTime() - start);
+        }
+    }
+
+    public void recordPayload(final @Nonnull ValidationListener.Direction direction, final @Nullable Body body) {
+        if (listener != null && body != null && body.length() >= 0) {
+            listener.onPayload(getOperationName(), direction, body.length());
+        }
+    }
+
+    /**
+     * Reports the errors and the outcome of the finished validation to the listener.
+     */
+    void complete() {
+        if (listener != null) {
+            final var name = getOperationName();
+            for (final var message : messages) {
+                if (message.level == MessageLevel.ERROR) {
+                    listener.onError(name, message.code);
+                }
+            }
+            listener.onComplete(name, errors);
+        }
+    }
+
+    /**
+     * @return true when a value of the given size should be split across the fork join pool
+     */
+    public boolean isParallel(final int size) {
+        return pool != null && trialDepth == 0 && size >= parallelThreshold;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Creates a context for validating part of the payload on another thread. It starts at the current pointer
+     * location with the remaining error budget and collects its own messages until it is {@link #merge(Context) merged}
+     * back. Forks do not stop each other, an error in a later part must not hide an earlier one.
+     */
+    public @Nonnull Context fork() {
+        return new Context(this);
+    }
+
+    /**
+     * Appends the messages of a forked context, merging forks in document order keeps the messages in document order.
+     */
+    public void merge(final @Nonnull Context fork) {
+        for (final var message : fork.messages) {
+            if (halted) {
+                return;
+            }
+            addMessage(message);
+        }
+    }
+
+    /**
+     * Adds messages of an earlier validation, counting the errors against the limit as if they were reported again.
+     */
+    void replay(final @Nonnull List<Message> cached) {
+        for (final var message : cached) {
+            if (halted) {
+                return;
+            }
+            addMessage(message);
+        }
+    }
+
     public final Context validate(Consumer<Context> validateMethod) {
-        if (operation != null) {
+        if (operation != null && !halted) {
             validateMethod.accept(this);
         }
         return this;
     }
 
+    public Context withResponse(final Response response) {
+        this.response = response;
+        return this;
+    }
+
     public Context getResponseForRequest() {
         try {
             response = HttpUtils.getResponse(request);
         } catch (Exception e) {
-            addMessage(MessageLevel.ERROR, "Error Occurred requesting API : %s", e.getMessage());
-        }
-        return this;
-    }
-
-    public Schema getSchema(Schema schema) {
-        if (schema != null) {
-            if (schema.getType() != null) {
-                return schema;
-            } else {
-                schema.getType().equals("object");
-                if (schema.get$ref() != null) {
-                    var referenceSchema = components.getSchemas()
-                        .get(schema.get$ref().replace("#/components/schemas/", ""));
-                    if (referenceSchema == null) {
-                        throw new ValidationException(
-                            "Reference schema is missing: " + schema.get$ref());
-                    }
-                    return referenceSchema;
-                } else {
-                    throw new ValidationException("Reference or type should be present");
-                }
-            }
-        } else {
+            withResponseError(e);
+        }
+        return this;
+    }
+
+    public Context getResponseForRequest(final @Nonnull HttpClient client, final Duration requestTimeout) {
+        try {
+            response = HttpUtils.getResponse(client, request, requestTimeout);
+        } catch (Exception e) {
+            withResponseError(e);
+        }
+        return this;
+    }
+
+    public Context withResponseError(final @Nonnull Throwable error) {
+        if (error instanceof InterruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        addError(ErrorCode.REQUEST_FAILED, false, path, null, error.getMessage() == null ? error.getClass().getSimpleName() : error.getMessage());
+        return this;
+    }
+
+    /**
+     * @return the schema itself, or the component schema at the end of its reference chain
+     */
+    public Schema getSchema(final Schema schema) {
+        if (schema == null) {
             throw new ValidationException("Empty schema");
         }
+        if (schema.get$ref() == null) {
+            return schema;
+        }
+        final var referenceSchema = getReferences().getSchema(schema.get$ref());
+        if (referenceSchema == null) {
+            throw new ValidationException("Reference schema is missing: " + schema.get$ref());
+        }
+        return referenceSchema;
+    }
+
+    /**
+     * @return the reference graph of the contract, built from the components when none was set
+     */
+    public @Nonnull ReferenceGraph getReferences() {
+        if (references == null) {
+            references = new ReferenceGraph(components);
+        }
+        return references;
+    }
+
+    /**
+     * Enters a value of a recursive schema, every call is paired with {@link #exitRecursion()}.
+     *
+     * @return false when the value is nested deeper than the depth limit
+     */
+    public boolean enterRecursion() {
+        return ++depth <= maxDepth || maxDepth == 0;
+    }
+
+    public void exitRecursion() {
+        depth--;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the first decoder supporting the media type or null when none does
+     */
+    public @Nullable BodyDecoder getDecoder(final @Nonnull MediaType mediaType) {
+        for (final var decoder : decoders) {
+            if (decoder.supports(mediaType)) {
+                return decoder;
+            }
+        }
+        return null;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * @return true while a response body is validated, readOnly properties are then allowed and writeOnly ones are not
+     */
+    public boolean isValidatingResponse() {
+        return validatingResponse;
+    }
+
+    void setValidatingResponse(final boolean validatingResponse) {
+        this.validatingResponse = validatingResponse;
+    }
+
+    /**
+     * @return true once the error limit is reached and the payload walk should stop
+     */
+    public boolean isHalted() {
+        return halted;
+    }
+
+    /**
+     * @return location of the payload value being validated, validators push and pop it while walking the payload
+     */
+    public PointerStack getPointer() {
+        return pointer;
+    }
+
+    public int getErrorCount() {
+        return errors;
+    }
+
+    public boolean hasErrors() {
+        return errors > 0;
     }
 
     public List<Message> getMessages() {
@@ -117,16 +492,51 @@ public class Context {
         return operation;
     }
 
+    /**
+     * @return the compiled plan of the operation, compiled on demand when the operation was set without a plan
+     */
+    public OperationPlan getOperationPlan() {
+        if (operationPlan == null && operation != null) {
+            operationPlan = OperationPlan.compile(operation, new SchemaCompiler(getReferences()));
+        }
+        return operationPlan;
+    }
+
+    /**
+     * @return the operation id, the method and path template when the operation has no id, or {@code unmatched} when
+     * no operation was found
+     */
+    public @Nonnull String getOperationName() {
+        if (operationName == null) {
+            if (operation == null) {
+                return "unmatched";
+            }
+            operationName = operation.getOperationId() != null ? operation.getOperationId()
+                    : request.getMethod() + " " + (template != null ? template : request.getUri().getPath());
+        }
+        return operationName;
+    }
+
     public Request getRequest() {
         return request;
     }
 
-    public HttpResponse<String> getResponse() {
+    public Response getResponse() {
         return response;
     }
 
-    public Pattern getRegexPath() {
-        return regexPath;
+    public Map<String, List<String>> getPathParameters() {
+        return pathParameters;
+    }
+
+    /**
+     * @return the parameter values of the request, extracted once per location for the whole validation
+     */
+    public @Nonnull ParameterValues getParameterValues() {
+        if (parameterValues == null) {
+            parameterValues = new ParameterValues(request, pathParameters);
+        }
+        return parameterValues;
     }
 
     public String getPath() {
@@ -141,18 +551,72 @@ public class Context {
         WARN, ERROR, IGNORED, INFO
     }
 
+    /**
+     * Validation message. Errors carry an {@link ErrorCode} with the location and the expected and actual values, other
+     * messages only the text. The text is formatted when it is first read.
+     */
     public static class Message {
-        private final String message;
         private final MessageLevel level;
+        private final ErrorCode code;
+        private final String location;
+        private final Object expected;
+        private final Object actual;
+        private final String format;
+        private final Object[] args;
+        private String message;
 
         public Message(final @Nonnull String message, final @Nonnull MessageLevel level) {
+            this(level, null, null, null, null, message, null);
             this.message = message;
+        }
+
+        private Message(final MessageLevel level, final ErrorCode code, final String location, final Object expected, final Object actual,
+                        final String format, final Object[] args) {
             this.level = level;
+            this.code = code;
+            this.location = location;
+            this.expected = expected;
+            this.actual = actual;
+            this.format = format;
+            this.args = args;
+        }
+
+        public String getMessage() {
+            if (message == null) {
+                message = code != null ? code.format(location, expected, actual) : String.format(format, args);
+            }
+            return message;
+        }
+
+        public MessageLevel getLevel() {
+            return level;
+        }
+
+        /**
+         * @return the kind of error or null for informational and free text messages
+         */
+        public @Nullable ErrorCode getCode() {
+            return code;
+        }
+
+        /**
+         * @return JSON Pointer of the body value, empty for the root, or the name of the parameter or header
+         */
+        public @Nullable String getLocation() {
+            return location;
+        }
+
+        public @Nullable Object getExpected() {
+            return expected;
+        }
+
+        public @Nullable Object getActual() {
+            return actual;
         }
 
         @Override
         public String toString() {
-            return String.format("%s: %s", level, message);
+            return level + ": " + getMessage();
         }
     }
 
@@ -0,0 +1,56 @@
+package com.naqiran.oas.validator;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Kind of a validation error. Each code renders its message from the location, the expected value of the contract and
+ * the actual value found.
+ */
+public enum ErrorCode {
+    OPERATION_NOT_FOUND("Operation not defined for the path: %s"),
+    REQUIRED("%s: %s is required"),
+    BODY_REQUIRED("Request Body is required for %2$s : %1$s"),
+    UNSUPPORTED_MEDIA_TYPE("Content type %3$s is not one of %2$s for %1$s"),
+    INVALID_JSON("Not a valid JSON Object: %3$s"),
+    UNREADABLE_BODY("Unable to read the JSON body: %3$s"),
+    MALFORMED_BODY("Not a valid %2$s body: %3$s"),
+    REQUEST_FAILED("Error Occurred requesting API : %3$s"),
+    TYPE_MISMATCH("Parameter Name: %s expected [%s] but found : %s"),
+    ENUM_MISMATCH("Parameter Name: %s - Allowed Value : %s"),
+    MIN_LENGTH("Parameter Name: %s less than min-length: %s"),
+    MAX_LENGTH("Parameter Name: %s less than max-length: %s"),
+    MIN_ITEMS("Parameter Name: %s less than min-items: %s"),
+    MAX_ITEMS("Parameter Name: %s less than max-items: %s"),
+    UNIQUE_ITEMS("Parameter Name: %s has duplicate items: %3$s"),
+    MINIMUM("Parameter Name: %s less than minimum: %s"),
+    MAXIMUM("Parameter Name: %s greater than maximum: %s"),
+    EXCLUSIVE_MINIMUM("Parameter Name: %s not greater than exclusive minimum: %s"),
+    EXCLUSIVE_MAXIMUM("Parameter Name: %s not less than exclusive maximum: %s"),
+    MULTIPLE_OF("Parameter Name: %s is not a multiple of %s"),
+    PATTERN_MISMATCH("Parameter Name: %s does not match the pattern %s"),
+    FORMAT_MISMATCH("Parameter Name: %s is not a valid %s: %s"),
+    ADDITIONAL_PROPERTY("Parameter Name: %s is not an allowed property"),
+    MIN_PROPERTIES("Parameter Name: %s less than min-properties: %s"),
+    MAX_PROPERTIES("Parameter Name: %s more than max-properties: %s"),
+    READ_ONLY("Parameter Name: %s is read only and not allowed in a request"),
+    WRITE_ONLY("Parameter Name: %s is write only and not allowed in a response"),
+    REFERENCE_MISSING("Reference schema is missing: %2$s"),
+    MAX_DEPTH("Parameter Name: %s nests %3$s deeper than max-depth: %2$s"),
+    NO_MATCH("Parameter Name: %s does not match any of the %s schemas"),
+    MULTIPLE_MATCH("Parameter Name: %s matches more than one of the %s schemas"),
+    DISCRIMINATOR_MISMATCH("Parameter Name: %s discriminator value %3$s is not one of %2$s");
+
+    private final String format;
+
+    ErrorCode(final String format) {
+        this.format = format;
+    }
+
+    /**
+     * @param location JSON Pointer of a body value, the document root is shown as {@code root}, or the name of a
+     *                 parameter or header
+     */
+    public @Nonnull String format(final String location, final Object expected, final Object actual) {
+        return String.format(format, location != null && location.isEmpty() ? "root" : location, expected, actual);
+    }
+}
@@ -1,83 +1,293 @@
 package com.naqiran.oas.validator;
 
-import io.swagger.parser.OpenAPIParser;
+import com.naqiran.oas.validator.decoder.BodyDecoder;
+import com.naqiran.oas.validator.metrics.Stage;
+import com.naqiran.oas.validator.metrics.ValidationListener;
+import com.naqiran.oas.validator.schema.ReferenceGraph;
+import com.naqiran.oas.validator.schema.SchemaCompiler;
+import com.naqiran.oas.validator.utils.HttpUtils;
 import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.PathItem;
-import io.swagger.v3.parser.core.models.ParseOptions;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.util.Objects.requireNonNull;
 
-public class OASValidator {
+/**
+ * Validator of requests and responses against a contract. Routing trie, operation plans and compiled schemas are built
+ * once in {@link Builder#build()} and only read afterwards, so one instance is meant to be shared by every thread of a
+ * server. Each validation works on its own {@link Context}, the only state written while validating.
+ * <p>
+ * The parsed {@link OpenAPI} model may be shared with other validators through the schema cache and must not be
+ * modified after the validator is built.
+ */
+@ThreadSafe
+public final class OASValidator {
 
     private final OpenAPI schema;
-    private final Map<Pattern, PathItem> pathRegexMap;
-    private final Map<String, PathItem> pathMap;
-
-    private final Pattern pathPattern = Pattern.compile("\\{(.*)}");
+    private final PathRouter router;
+    private final Map<Operation, OperationPlan> operationPlans;
+    private final ReferenceGraph references;
+    private final boolean streaming;
+    private final int maxErrors;
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+    private final int maxDepth;
+    private final int resultCacheSize;
+    private final Duration resultCacheTtl;
+    private final ResultCache resultCache;
+    private final ValidationListener listener;
+    private final List<BodyDecoder> decoders;
 
+    private OASValidator(final @Nonnull OpenAPI schema, final @Nonnull Builder builder) {
+        this.schema = schema;
+        this.streaming = builder.streaming;
+        this.maxErrors = builder.maxErrors;
+        this.requestTimeout = builder.requestTimeout;
+        this.pool = builder.pool;
+        this.parallelThreshold = builder.parallelThreshold;
+        this.maxDepth = builder.maxDepth;
+        this.resultCacheSize = builder.resultCacheSize;
+        this.resultCacheTtl = builder.resultCacheTtl;
+        this.resultCache = resultCacheSize > 0 ? new ResultCache(resultCacheSize, resultCacheTtl) : null;
+        this.listener = builder.listener == ValidationListener.NONE ? null : builder.listener;
+        if (builder.decoders.isEmpty()) {
+            this.decoders = BodyDecoder.defaults();
+        } else {
+            final List<BodyDecoder> decoders = new ArrayList<>(builder.decoders);
+            decoders.addAll(BodyDecoder.defaults());
+            this.decoders = List.copyOf(decoders);
+        }
+        if (builder.httpClient != null) {
+            this.httpClient = builder.httpClient;
+        } else {
+            final var executor = builder.executor != null ? builder.executor : HttpUtils.createExecutor(Runtime.getRuntime().availableProcessors());
+            this.httpClient = HttpUtils.createClient(builder.connectTimeout, executor);
+        }
+        this.router = PathRouter.build(schema);
+        final var compiler = new SchemaCompiler(schema.getComponents());
+        this.references = compiler.getReferenceGraph();
+        this.operationPlans = compilePlans(schema, compiler);
+    }
 
-    private OASValidator(final @Nonnull OpenAPI schema) {
+    /**
+     * New validator for a reloaded contract sharing the settings and http client of the previous one. Results cached
+     * for the previous contract are not carried over.
+     */
+    private OASValidator(final @Nonnull OpenAPI schema, final @Nonnull OASValidator previous) {
         this.schema = schema;
-        this.pathRegexMap = new HashMap<>();
-        this.pathMap = new HashMap<>();
-        init();
+        this.streaming = previous.streaming;
+        this.maxErrors = previous.maxErrors;
+        this.requestTimeout = previous.requestTimeout;
+        this.pool = previous.pool;
+        this.parallelThreshold = previous.parallelThreshold;
+        this.maxDepth = previous.maxDepth;
+        this.resultCacheSize = previous.resultCacheSize;
+        this.resultCacheTtl = previous.resultCacheTtl;
+        this.resultCache = resultCacheSize > 0 ? new ResultCache(resultCacheSize, resultCacheTtl) : null;
+        this.listener = previous.listener;
+        this.decoders = previous.decoders;
+        this.httpClient = previous.httpClient;
+        this.router = PathRouter.build(schema);
+        final var compiler = new SchemaCompiler(schema.getComponents());
+        this.references = compiler.getReferenceGraph();
+        this.operationPlans = compilePlans(schema, compiler);
     }
 
-    public void init() {
+    private static Map<Operation, OperationPlan> compilePlans(final OpenAPI schema, final SchemaCompiler compiler) {
+        final Map<Operation, OperationPlan> operationPlans = new IdentityHashMap<>();
         if (schema.getPaths() != null) {
-            for (final var pathItemEntry : schema.getPaths().entrySet()) {
-                var path = pathItemEntry.getKey();
-                if (path.contains("{")) {
-                    path = pathPattern.matcher(path).replaceAll(result -> "(?<" + result.group(1) + ">.*)");
-                    for (var server : schema.getServers()) {
-                        pathRegexMap.put(Pattern.compile(server.getUrl() + path), pathItemEntry.getValue());
-                    }
-                } else {
-                    for (var server : schema.getServers()) {
-                        pathMap.put(server.getUrl() + path, pathItemEntry.getValue());
-                    }
+            for (final var pathItem : schema.getPaths().values()) {
+                for (final var operation : pathItem.readOperations()) {
+                    operationPlans.put(operation, OperationPlan.compile(pathItem, operation, compiler));
                 }
             }
         }
+        return Collections.unmodifiableMap(operationPlans);
     }
 
     public static Builder builder() {
         return new Builder();
     }
 
+    /**
+     * Validates the request, sends it to the API and validates the response received.
+     */
     public @Nonnull Context validate(final @Nonnull Request request) {
         requireNonNull(request, "Http Request should not be null");
-        var context = Context.getContext(request);
-        return context.withOperation(this::operation)
-                .withComponents(schema.getComponents())
-                .validate(RequestValidator::validate)
-                .getResponseForRequest()
-                .validate(ResponseValidator::validate);
+        if (request.getPayload() != null) {
+            request.getPayload().buffer();
+        }
+        final var context = getContext(request).validate(this::validateRequestStage);
+        if (context.isHalted()) {
+            return complete(context);
+        }
+        final var start = context.startStage();
+        context.getResponseForRequest(httpClient, requestTimeout);
+        context.recordStage(Stage.HTTP_CALL, start);
+        return complete(context.validate(this::validateResponseStage));
     }
 
-    public Context operation(final @Nonnull Context context) {
-        var pathItem = pathMap.get(context.getPath());
-        for (var entry: pathRegexMap.entrySet()) {
-            if (entry.getKey().matcher(context.getPath()).matches()) {
-                pathItem = entry.getValue();
-                context.setRegexPath(entry.getKey());
-            }
+    /**
+     * Validates the request and sends it without blocking, the response is validated on the executor of the http
+     * client once it arrives.
+     */
+    public @Nonnull CompletableFuture<Context> validateAsync(final @Nonnull Request request) {
+        requireNonNull(request, "Http Request should not be null");
+        if (request.getPayload() != null) {
+            request.getPayload().buffer();
+        }
+        final var context = getContext(request).validate(this::validateRequestStage);
+        if (context.isHalted()) {
+            return CompletableFuture.completedFuture(complete(context));
+        }
+        final var start = context.startStage();
+        return HttpUtils.getResponseAsync(httpClient, request, requestTimeout)
+                .handle((response, error) -> {
+                    context.recordStage(Stage.HTTP_CALL, start);
+                    return error == null ? context.withResponse(response)
+                            : context.withResponseError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+                })
+                .thenApply(result -> complete(result.validate(this::validateResponseStage)));
+    }
+
+    /**
+     * Validates a request and the response already received for it without calling the API.
+     */
+    public @Nonnull Context validate(final @Nonnull Request request, final @Nonnull Response response) {
+        requireNonNull(request, "Http Request should not be null");
+        requireNonNull(response, "Http Response should not be null");
+        return complete(getContext(request)
+                .validate(this::validateRequestStage)
+                .withResponse(response)
+                .validate(this::validateResponseStage));
+    }
+
+    /**
+     * Validates only the request without calling the API.
+     */
+    public @Nonnull Context validateRequest(final @Nonnull Request request) {
+        requireNonNull(request, "Http Request should not be null");
+        return complete(getContext(request).validate(this::validateRequestStage));
+    }
+
+    /**
+     * Validates only the response, the request is needed to find the operation the response belongs to.
+     */
+    public @Nonnull Context validateResponse(final @Nonnull Request request, final @Nonnull Response response) {
+        requireNonNull(request, "Http Request should not be null");
+        requireNonNull(response, "Http Response should not be null");
+        return complete(getContext(request)
+                .withResponse(response)
+                .validate(this::validateResponseStage));
+    }
+
+    /**
+     * @return the cache of validation results with its hit and miss counts, or null when results are not cached
+     */
+    public @Nullable ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    @Nonnull OpenAPI getSchema() {
+        return schema;
+    }
+
+    @Nonnull OASValidator withSchema(final @Nonnull OpenAPI schema) {
+        return new OASValidator(schema, this);
+    }
+
+    private void validateRequestStage(final Context context) {
+        context.recordPayload(ValidationListener.Direction.REQUEST, context.getRequest().getPayload());
+        if (resultCache == null) {
+            RequestValidator.validate(context);
+        } else {
+            resultCache.validateRequest(context, RequestValidator::validate);
+        }
+    }
+
+    private void validateResponseStage(final Context context) {
+        if (context.getResponse() != null) {
+            context.recordPayload(ValidationListener.Direction.RESPONSE, context.getResponse().getPayload());
+        }
+        if (resultCache == null) {
+            ResponseValidator.validate(context);
+        } else {
+            resultCache.validateResponse(context, ResponseValidator::validate);
         }
-        if (pathItem != null) {
-            context.setOperation(pathItem.readOperationsMap().get(PathItem.HttpMethod.valueOf(context.getRequest().getMethod())));
+    }
+
+    private Context getContext(final Request request) {
+        final var context = Context.getContext(request).withStreaming(streaming).withMaxErrors(maxErrors)
+                .withParallel(pool, parallelThreshold)
+                .withMaxDepth(maxDepth)
+                .withListener(listener)
+                .withDecoders(decoders)
+                .withReferences(references);
+        final var start = context.startStage();
+        operation(context);
+        context.recordStage(Stage.ROUTING, start);
+        return context;
+    }
+
+    private Context complete(final Context context) {
+        context.complete();
+        return context;
+    }
+
+    /**
+     * Routes the request to its operation, a request no contract path and method matches is reported as
+     * {@link ErrorCode#OPERATION_NOT_FOUND}.
+     */
+    public Context operation(final @Nonnull Context context) {
+        final var match = router.match(context.getRequest().getUri());
+        if (match == null) {
+            context.setOperation(null);
+            return context;
         }
+        context.setPathParameters(match.getParameters());
+        context.setTemplate(match.getTemplate());
+        final var operation = match.getOperation(PathItem.HttpMethod.valueOf(context.getRequest().getMethod()));
+        context.setOperationPlan(operation == null ? null : operationPlans.get(operation));
+        context.setOperation(operation);
         return context;
     }
 
     public static class Builder {
 
         private String resource;
+        private boolean streaming;
+        private int maxErrors;
+        private HttpClient httpClient;
+        private Executor executor;
+        private Duration connectTimeout = HttpUtils.DEFAULT_CONNECT_TIMEOUT;
+        private Duration requestTimeout;
+        private Path cacheDirectory;
+        private ForkJoinPool pool;
+        private int parallelThreshold;
+        private int maxDepth = Context.DEFAULT_MAX_DEPTH;
+        private Duration reloadInterval = Duration.ofSeconds(30);
+        private int resultCacheSize;
+        private Duration resultCacheTtl;
+        private ValidationListener listener = ValidationListener.NONE;
+        private final List<BodyDecoder> decoders = new ArrayList<>();
 
         @Nonnull
         public Builder withSchema(final String resource) {
@@ -85,8 +295,150 @@ public class OASValidator {
             return this;
         }
 
+        /**
+         * Validates JSON bodies from the parser tokens, memory stays bounded by the nesting depth of the payload.
+         */
+        @Nonnull
+        public Builder withStreaming(final boolean streaming) {
+            this.streaming = streaming;
+            return this;
+        }
+
+        /**
+         * Stops the validation at the first error instead of reporting every violation.
+         */
+        @Nonnull
+        public Builder withFailFast(final boolean failFast) {
+            this.maxErrors = failFast ? 1 : 0;
+            return this;
+        }
+
+        /**
+         * Stops the validation once the given number of errors is reported, zero reports every violation. A request
+         * that reaches the limit is not sent to the API.
+         */
+        @Nonnull
+        public Builder withMaxErrors(final int maxErrors) {
+            this.maxErrors = maxErrors;
+            return this;
+        }
+
+        /**
+         * Shares an existing client, the timeouts and executor of this builder are not applied to it.
+         */
+        @Nonnull
+        public Builder withHttpClient(final HttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        /**
+         * Executor of the http client, defaults to a fixed pool sized to the available processors.
+         */
+        @Nonnull
+        public Builder withExecutor(final Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        @Nonnull
+        public Builder withConnectTimeout(final @Nonnull Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        @Nonnull
+        public Builder withRequestTimeout(final Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * Validates arrays and objects with at least the threshold number of values in parallel on the common fork join
+         * pool. Only tree validation is parallel, streamed bodies are read in order.
+         */
+        @Nonnull
+        public Builder withParallel(final int parallelThreshold) {
+            return withParallel(parallelThreshold, ForkJoinPool.commonPool());
+        }
+
+        @Nonnull
+        public Builder withParallel(final int parallelThreshold, final @Nonnull ForkJoinPool pool) {
+            this.parallelThreshold = parallelThreshold;
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Limits how deep a payload may nest recursive schemas such as trees, and how deep a JSON body may nest objects
+         * and arrays, a value nested deeper is reported instead of validated. Zero allows any depth and leaves deep
+         * payloads to the stack. Defaults to {@link Context#DEFAULT_MAX_DEPTH}.
+         */
+        @Nonnull
+        public Builder withMaxDepth(final int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        /**
+         * Stores snapshots of the resolved contract so later builds of the same unchanged contract skip parsing.
+         */
+        @Nonnull
+        public Builder withCacheDirectory(final Path cacheDirectory) {
+            this.cacheDirectory = cacheDirectory;
+            return this;
+        }
+
+        /**
+         * Polling interval of a reloadable validator whose contract is a URL, files are watched for changes instead.
+         */
+        @Nonnull
+        public Builder withReloadInterval(final @Nonnull Duration reloadInterval) {
+            this.reloadInterval = reloadInterval;
+            return this;
+        }
+
+        /**
+         * Caches the messages of up to the given number of validated requests and responses, a payload validated
+         * again within the time to live is not parsed again. A null or zero time to live keeps results until they are
+         * evicted by size.
+         */
+        @Nonnull
+        public Builder withResultCache(final int maximumSize, final Duration ttl) {
+            this.resultCacheSize = maximumSize;
+            this.resultCacheTtl = ttl;
+            return this;
+        }
+
+        /**
+         * Reports stage timings, payload sizes and errors of every validation to the listener, see
+         * {@link com.naqiran.oas.validator.metrics.InMemoryMetrics} for a listener that keeps them in memory.
+         */
+        @Nonnull
+        public Builder withListener(final @Nonnull ValidationListener listener) {
+            this.listener = requireNonNull(listener, "Listener should not be null, use ValidationListener.NONE");
+            return this;
+        }
+
+        /**
+         * Adds a decoder for bodies of other media types, or to replace a built in decoder for the media types it
+         * supports. Added decoders are asked in the order they are added and before the built in ones.
+         */
+        @Nonnull
+        public Builder withDecoder(final @Nonnull BodyDecoder decoder) {
+            this.decoders.add(requireNonNull(decoder, "Decoder should not be null"));
+            return this;
+        }
+
         public OASValidator build() {
-            return new OASValidator(new OpenAPIParser().readLocation(resource, List.of(), new ParseOptions()).getOpenAPI());
+            return new OASValidator(SpecCache.load(requireNonNull(resource, "Schema location is required"), cacheDirectory), this);
+        }
+
+        /**
+         * Builds a validator that picks up changes of the contract in the background.
+         */
+        public ReloadableValidator buildReloadable() {
+            return new ReloadableValidator(build(), resource, cacheDirectory, reloadInterval);
         }
     }
 }
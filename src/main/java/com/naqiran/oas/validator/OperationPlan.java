@@ -0,0 +1,324 @@
+package com.naqiran.oas.validator;
+
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.naqiran.oas.validator.schema.CompiledSchema;
+import com.naqiran.oas.validator.schema.SchemaCompiler;
+import com.naqiran.oas.validator.utils.ParameterParser;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.parameters.Parameter;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validation plan of an {@link Operation} compiled when the validator is built. Parameters, request body and responses
+ * are held as {@link CompiledSchema} trees so request time validation never goes back to the swagger model. Referenced
+ * parameters, request bodies, responses and headers are resolved through the reference graph of the compiler.
+ * <p>
+ * Parameters of the path item are merged with the ones of the operation, an operation parameter overrides the path item
+ * parameter with the same name and location, and grouped by location so each location is validated with one lookup.
+ */
+@Immutable
+public class OperationPlan {
+
+    private final Operation operation;
+    private final List<ParameterPlan> parameters;
+    private final Map<String, List<ParameterPlan>> parametersByLocation;
+    private final boolean requestBodyRequired;
+    private final ContentPlan requestBody;
+    private final Map<String, ResponsePlan> responses;
+
+    private OperationPlan(final @Nullable PathItem pathItem, final Operation operation, final SchemaCompiler compiler) {
+        this.operation = operation;
+        final var references = compiler.getReferenceGraph();
+        final Map<String, Parameter> merged = new LinkedHashMap<>();
+        if (pathItem != null && pathItem.getParameters() != null) {
+            for (final var parameter : pathItem.getParameters()) {
+                final var resolved = references.resolve(parameter);
+                merged.put(resolved.getIn() + ':' + resolved.getName(), resolved);
+            }
+        }
+        if (operation.getParameters() != null) {
+            for (final var parameter : operation.getParameters()) {
+                final var resolved = references.resolve(parameter);
+                merged.put(resolved.getIn() + ':' + resolved.getName(), resolved);
+            }
+        }
+        final List<ParameterPlan> parameterPlans = new ArrayList<>(merged.size());
+        final Map<String, List<ParameterPlan>> byLocation = new HashMap<>();
+        for (final var parameter : merged.values()) {
+            final var plan = new ParameterPlan(parameter.getName(), parameter.getIn(), Boolean.TRUE.equals(parameter.getRequired()),
+                    Boolean.TRUE.equals(parameter.getDeprecated()), compiler.compile(parameter.getSchema()),
+                    parameter.getStyle() == null ? null : parameter.getStyle().toString(), parameter.getExplode());
+            parameterPlans.add(plan);
+            byLocation.computeIfAbsent(plan.getIn(), location -> new ArrayList<>()).add(plan);
+        }
+        this.parameters = Collections.unmodifiableList(parameterPlans);
+        byLocation.replaceAll((location, plans) -> Collections.unmodifiableList(plans));
+        this.parametersByLocation = Collections.unmodifiableMap(byLocation);
+        final var requestBody = references.resolve(operation.getRequestBody());
+        this.requestBodyRequired = requestBody != null && Boolean.TRUE.equals(requestBody.getRequired());
+        this.requestBody = requestBody == null ? null : compileContent(requestBody.getContent(), compiler);
+        final Map<String, ResponsePlan> responsePlans = new HashMap<>();
+        if (operation.getResponses() != null) {
+            for (final var entry : operation.getResponses().entrySet()) {
+                final var response = references.resolve(entry.getValue());
+                final Map<String, CompiledSchema> headers = new HashMap<>();
+                if (response.getHeaders() != null) {
+                    response.getHeaders().forEach((name, header) -> headers.put(name, compiler.compile(references.resolve(header).getSchema())));
+                }
+                final var content = response.getContent() == null ? null : compileContent(response.getContent(), compiler);
+                responsePlans.put(entry.getKey(), new ResponsePlan(Collections.unmodifiableMap(headers), content));
+            }
+        }
+        this.responses = Collections.unmodifiableMap(responsePlans);
+    }
+
+    public static @Nonnull OperationPlan compile(final @Nonnull Operation operation, final @Nonnull SchemaCompiler compiler) {
+        return new OperationPlan(null, operation, compiler);
+    }
+
+    /**
+     * Compiles the operation with the parameters its path item declares for all of its operations.
+     */
+    public static @Nonnull OperationPlan compile(final @Nonnull PathItem pathItem, final @Nonnull Operation operation, final @Nonnull SchemaCompiler compiler) {
+        return new OperationPlan(pathItem, operation, compiler);
+    }
+
+    private static ContentPlan compileContent(final Content content, final SchemaCompiler compiler) {
+        final Map<String, CompiledSchema> mediaTypes = new LinkedHashMap<>();
+        if (content != null) {
+            content.forEach((name, mediaType) -> mediaTypes.put(name, compiler.compile(mediaType.getSchema())));
+        }
+        return new ContentPlan(mediaTypes);
+    }
+
+    public Operation getOperation() {
+        return operation;
+    }
+
+    public List<ParameterPlan> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return the parameters of the location, path, query, header or cookie, in declaration order
+     */
+    public @Nonnull List<ParameterPlan> getParameters(final @Nonnull String in) {
+        return parametersByLocation.getOrDefault(in, List.of());
+    }
+
+    public boolean isRequestBodyRequired() {
+        return requestBodyRequired;
+    }
+
+    /**
+     * @return the compiled media types of the request body or null when the operation has no request body
+     */
+    public @Nullable ContentPlan getRequestBody() {
+        return requestBody;
+    }
+
+    public @Nullable ResponsePlan getResponse(final @Nonnull String statusCode) {
+        return responses.get(statusCode);
+    }
+
+    /**
+     * Compiled parameter with its serialization. Arrays and objects are deserialized from the raw values by the style
+     * of the parameter, the defaults are form for query and cookie parameters and simple for path and header ones.
+     */
+    public static class ParameterPlan {
+        private final String name;
+        private final String in;
+        private final boolean required;
+        private final boolean deprecated;
+        private final CompiledSchema schema;
+        private final String style;
+        private final boolean explode;
+        private final JsonNodeType type;
+
+        private ParameterPlan(final String name, final String in, final boolean required, final boolean deprecated, final CompiledSchema schema,
+                              final @Nullable String style, final @Nullable Boolean explode) {
+            this.name = name;
+            this.in = in;
+            this.required = required;
+            this.deprecated = deprecated;
+            this.schema = schema;
+            this.style = style != null ? style : "query".equals(in) || "cookie".equals(in) ? "form" : "simple";
+            this.explode = explode != null ? explode : "form".equals(this.style);
+            this.type = schema.getType();
+        }
+
+        /**
+         * @return the values of an array or primitive parameter split by its style, null when the parameter is absent
+         */
+        public @Nullable List<String> getValues(final @Nonnull ParameterValues values) {
+            var raw = values.get(in).get(name);
+            if (raw == null || raw.isEmpty()) {
+                return raw;
+            }
+            if ("label".equals(style)) {
+                raw = strip(raw, ".");
+            } else if ("matrix".equals(style)) {
+                raw = explode && type == JsonNodeType.ARRAY ? strip(split(strip(raw, ";"), ';'), name + "=") : strip(raw, ";" + name + "=");
+            }
+            if (type != JsonNodeType.ARRAY) {
+                return raw;
+            }
+            switch (style) {
+                case "form":
+                    return explode ? raw : split(raw, ',');
+                case "spaceDelimited":
+                    return split(raw, ' ');
+                case "pipeDelimited":
+                    return split(raw, '|');
+                case "label":
+                    return split(raw, explode ? '.' : ',');
+                case "matrix":
+                    return explode ? raw : split(raw, ',');
+                default:
+                    return split(raw, ',');
+            }
+        }
+
+        /**
+         * @return the properties of an object parameter by name, empty when the parameter is absent
+         */
+        public @Nonnull Map<String, List<String>> getFields(final @Nonnull ParameterValues values) {
+            final var location = values.get(in);
+            if ("form".equals(style) && explode) {
+                return location;
+            }
+            final Map<String, List<String>> fields = new LinkedHashMap<>();
+            if ("deepObject".equals(style)) {
+                final var prefix = name + '[';
+                location.forEach((key, value) -> {
+                    if (key.startsWith(prefix) && key.endsWith("]")) {
+                        fields.put(key.substring(prefix.length(), key.length() - 1), value);
+                    }
+                });
+                return fields;
+            }
+            var raw = location.get(name);
+            if (raw == null || raw.isEmpty()) {
+                return fields;
+            }
+            if ("label".equals(style)) {
+                raw = strip(raw, ".");
+            } else if ("matrix".equals(style)) {
+                raw = strip(raw, ";" + name + "=");
+            }
+            final var parts = split(raw, "label".equals(style) && explode ? '.' : ',');
+            if (explode) {
+                for (final var part : parts) {
+                    final var separator = part.indexOf('=');
+                    if (separator > 0) {
+                        fields.put(part.substring(0, separator), List.of(part.substring(separator + 1)));
+                    }
+                }
+            } else {
+                for (int index = 0; index + 1 < parts.size(); index += 2) {
+                    fields.put(parts.get(index), List.of(parts.get(index + 1)));
+                }
+            }
+            return fields;
+        }
+
+        /**
+         * Query and cookie values are split in their raw text before decoding, so an encoded delimiter stays part of
+         * its value. Spaces and pipes are usually encoded themselves, those values are split after decoding. Header
+         * values are not encoded.
+         */
+        private static List<String> split(final List<String> values, final char delimiter) {
+            if (values instanceof ParameterParser.Values && delimiter != ' ' && delimiter != '|') {
+                return ((ParameterParser.Values) values).split(delimiter);
+            }
+            final List<String> split = new ArrayList<>();
+            for (final var value : values) {
+                var start = 0;
+                for (int index = value.indexOf(delimiter); index >= 0; index = value.indexOf(delimiter, start)) {
+                    split.add(value.substring(start, index));
+                    start = index + 1;
+                }
+                split.add(value.substring(start));
+            }
+            return split;
+        }
+
+        private static List<String> strip(final List<String> values, final String prefix) {
+            if (values instanceof ParameterParser.Values) {
+                return ((ParameterParser.Values) values).strip(prefix);
+            }
+            final List<String> stripped = new ArrayList<>(values.size());
+            for (final var value : values) {
+                stripped.add(value.startsWith(prefix) ? value.substring(prefix.length()) : value);
+            }
+            return stripped;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getIn() {
+            return in;
+        }
+
+        public boolean isRequired() {
+            return required;
+        }
+
+        public boolean isDeprecated() {
+            return deprecated;
+        }
+
+        public CompiledSchema getSchema() {
+            return schema;
+        }
+
+        public String getStyle() {
+            return style;
+        }
+
+        public boolean isExplode() {
+            return explode;
+        }
+
+        /**
+         * @return true when the parameter is an object serialized into one or more values
+         */
+        public boolean isObject() {
+            return type == JsonNodeType.OBJECT;
+        }
+    }
+
+    public static class ResponsePlan {
+        private final Map<String, CompiledSchema> headers;
+        private final ContentPlan content;
+
+        private ResponsePlan(final Map<String, CompiledSchema> headers, final ContentPlan content) {
+            this.headers = headers;
+            this.content = content;
+        }
+
+        public Map<String, CompiledSchema> getHeaders() {
+            return headers;
+        }
+
+        /**
+         * @return the compiled media types of the response or null when the response has no content
+         */
+        public @Nullable ContentPlan getContent() {
+            return content;
+        }
+    }
+}
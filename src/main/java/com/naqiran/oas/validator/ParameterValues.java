@@ -0,0 +1,100 @@
+package com.naqiran.oas.validator;
+
+import com.naqiran.oas.validator.utils.ParameterParser;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Parameter values of one request by location. Each location is extracted the first time it is asked for and kept, so
+ * the query string is parsed once however many query parameters the operation declares. Path, query and cookie values
+ * are percent decoded when they are read, header names are matched ignoring case.
+ */
+@NotThreadSafe
+public class ParameterValues {
+
+    private final Request request;
+    private final Map<String, List<String>> rawPath;
+    private Map<String, List<String>> path;
+    private Map<String, List<String>> query;
+    private Map<String, List<String>> headers;
+    private Map<String, List<String>> cookies;
+
+    ParameterValues(final @Nonnull Request request, final @Nonnull Map<String, List<String>> path) {
+        this.request = request;
+        this.rawPath = path;
+    }
+
+    /**
+     * @return the values of the location, path, query, header or cookie, by parameter name
+     */
+    public @Nonnull Map<String, List<String>> get(final @Nonnull String in) {
+        switch (in) {
+            case "path":
+                return getPath();
+            case "query":
+                return getQuery();
+            case "header":
+                return getHeaders();
+            case "cookie":
+                return getCookies();
+            default:
+                return Map.of();
+        }
+    }
+
+    public @Nonnull Map<String, List<String>> getPath() {
+        if (path == null) {
+            if (rawPath.isEmpty()) {
+                path = Map.of();
+            } else {
+                path = new HashMap<>(rawPath.size());
+                rawPath.forEach((name, values) -> path.put(name, values.size() == 1 ? ParameterParser.of(values.get(0)) : values));
+            }
+        }
+        return path;
+    }
+
+    public @Nonnull Map<String, List<String>> getQuery() {
+        if (query == null) {
+            query = ParameterParser.parseQuery(request.getUri().getRawQuery());
+        }
+        return query;
+    }
+
+    public @Nonnull Map<String, List<String>> getHeaders() {
+        if (headers == null) {
+            final var source = request.getHeaders();
+            if (source == null || source.isEmpty()) {
+                headers = Map.of();
+            } else {
+                headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                headers.putAll(source);
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * @return the cookies of the {@code Cookie} header together with the cookies set on the request
+     */
+    public @Nonnull Map<String, List<String>> getCookies() {
+        if (cookies == null) {
+            final var parsed = ParameterParser.parseCookies(getHeaders().get("Cookie"));
+            final var explicit = request.getCookies();
+            if (explicit == null || explicit.isEmpty()) {
+                cookies = parsed;
+            } else if (parsed.isEmpty()) {
+                cookies = explicit;
+            } else {
+                cookies = new HashMap<>(parsed);
+                cookies.putAll(explicit);
+            }
+        }
+        return cookies;
+    }
+}
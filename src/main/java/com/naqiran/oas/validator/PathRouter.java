@@ -0,0 +1,248 @@
+package com.naqiran.oas.validator;
+
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.servers.Server;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Segment level routing trie built once from the contract paths. Every server of the contract contributes its base
+ * path to the trie of its origin (relative servers match any origin), so a lookup costs one walk over the request
+ * path segments. Literal segments are always preferred over templated ones.
+ * <p>
+ * Host matching is lenient: a request whose origin has no server of its own, sent to a staging host, through a proxy
+ * or without a host at all, falls back to one trie holding the base paths of every absolute server, so a miss costs
+ * at most three walks whatever the number of servers.
+ * <p>
+ * The trie is only written by {@link #build(OpenAPI)} and published through final fields, lookups never modify it.
+ */
+@Immutable
+public class PathRouter {
+
+    private static final Pattern TEMPLATE_PATTERN = Pattern.compile("\\{([^}]+)}");
+    private static final String ANY_ORIGIN = "";
+
+    private final Map<String, Node> roots;
+    private final Node anyServer;
+    private final int maxParameters;
+
+    private PathRouter(final Map<String, Node> roots, final Node anyServer, final int maxParameters) {
+        this.roots = roots;
+        this.anyServer = anyServer;
+        this.maxParameters = maxParameters;
+    }
+
+    public static @Nonnull PathRouter build(final @Nonnull OpenAPI schema) {
+        final Map<String, Node> roots = new HashMap<>();
+        final var anyServer = new Node();
+        int maxParameters = 0;
+        if (schema.getPaths() != null) {
+            final var servers = schema.getServers() == null || schema.getServers().isEmpty() ? List.of(new Server().url("/")) : schema.getServers();
+            for (final var server : servers) {
+                final var url = getUrl(server);
+                final var serverUri = URI.create(url);
+                final var origin = getOrigin(serverUri);
+                final var root = roots.computeIfAbsent(origin, key -> new Node());
+                final var basePath = serverUri.getRawPath() == null ? "" : removeTrailingSlash(serverUri.getRawPath());
+                for (final var pathItemEntry : schema.getPaths().entrySet()) {
+                    maxParameters = Math.max(maxParameters, root.insert(basePath, pathItemEntry.getKey(), pathItemEntry.getValue()));
+                    if (!ANY_ORIGIN.equals(origin)) {
+                        anyServer.insert(basePath, pathItemEntry.getKey(), pathItemEntry.getValue());
+                    }
+                }
+            }
+        }
+        return new PathRouter(roots, anyServer, maxParameters);
+    }
+
+    /**
+     * Finds the path item for the request uri along with the path parameters extracted from it. The servers of the
+     * request origin are tried first, then the relative servers and then the base paths of every absolute server.
+     * @return the match or null if no contract path matches the uri
+     */
+    public @Nullable Match match(final @Nonnull URI uri) {
+        final var path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        Match match = null;
+        if (uri.getHost() != null) {
+            final var root = roots.get(getOrigin(uri));
+            if (root != null) {
+                match = root.find(path, 1, new String[maxParameters], 0);
+            }
+        }
+        if (match == null) {
+            final var root = roots.get(ANY_ORIGIN);
+            if (root != null) {
+                match = root.find(path, 1, new String[maxParameters], 0);
+            }
+        }
+        if (match == null) {
+            match = anyServer.find(path, 1, new String[maxParameters], 0);
+        }
+        return match;
+    }
+
+    private static String getUrl(final Server server) {
+        var url = server.getUrl() == null ? "/" : server.getUrl();
+        if (server.getVariables() != null) {
+            for (final var variable : server.getVariables().entrySet()) {
+                if (variable.getValue().getDefault() != null) {
+                    url = url.replace("{" + variable.getKey() + "}", variable.getValue().getDefault());
+                }
+            }
+        }
+        return url;
+    }
+
+    private static String getOrigin(final URI uri) {
+        if (uri.getScheme() == null || uri.getHost() == null) {
+            return ANY_ORIGIN;
+        }
+        final var scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        final var port = uri.getPort();
+        final var defaultPort = port == -1 || ("http".equals(scheme) && port == 80) || ("https".equals(scheme) && port == 443);
+        return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + (defaultPort ? "" : ":" + port);
+    }
+
+    private static String removeTrailingSlash(final String path) {
+        return path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    private static class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private final Map<String, TemplateEdge> patterns = new LinkedHashMap<>();
+        private Node parameter;
+        private String template;
+        private PathItem pathItem;
+        private String[] parameterNames;
+        private Map<PathItem.HttpMethod, Operation> operations;
+
+        private int insert(final String basePath, final String template, final PathItem pathItem) {
+            final var fullPath = basePath + template;
+            final List<String> names = new ArrayList<>();
+            var node = this;
+            for (final var segment : fullPath.substring(fullPath.startsWith("/") ? 1 : 0).split("/", -1)) {
+                final var matcher = TEMPLATE_PATTERN.matcher(segment);
+                if (!matcher.find()) {
+                    node = node.literals.computeIfAbsent(segment, key -> new Node());
+                } else if (matcher.start() == 0 && matcher.end() == segment.length()) {
+                    names.add(matcher.group(1));
+                    if (node.parameter == null) {
+                        node.parameter = new Node();
+                    }
+                    node = node.parameter;
+                } else {
+                    final var regex = new StringBuilder();
+                    var last = 0;
+                    do {
+                        regex.append(Pattern.quote(segment.substring(last, matcher.start()))).append("(.+?)");
+                        names.add(matcher.group(1));
+                        last = matcher.end();
+                    } while (matcher.find());
+                    regex.append(Pattern.quote(segment.substring(last)));
+                    node = node.patterns.computeIfAbsent(regex.toString(), key -> new TemplateEdge(Pattern.compile(key))).node;
+                }
+            }
+            node.template = template;
+            node.pathItem = pathItem;
+            node.parameterNames = names.toArray(new String[0]);
+            node.operations = new EnumMap<>(PathItem.HttpMethod.class);
+            node.operations.putAll(pathItem.readOperationsMap());
+            return names.size();
+        }
+
+        private Match find(final String path, final int start, final String[] values, final int count) {
+            if (start > path.length()) {
+                return pathItem == null ? null : new Match(this, values, count);
+            }
+            final var slash = path.indexOf('/', start);
+            final var end = slash < 0 ? path.length() : slash;
+            final var segment = path.substring(start, end);
+            final var literal = literals.get(segment);
+            if (literal != null) {
+                final var match = literal.find(path, end + 1, values, count);
+                if (match != null) {
+                    return match;
+                }
+            }
+            for (final var edge : patterns.values()) {
+                final Matcher matcher = edge.pattern.matcher(segment);
+                if (matcher.matches()) {
+                    for (int group = 1; group <= matcher.groupCount(); group++) {
+                        values[count + group - 1] = matcher.group(group);
+                    }
+                    final var match = edge.node.find(path, end + 1, values, count + matcher.groupCount());
+                    if (match != null) {
+                        return match;
+                    }
+                }
+            }
+            if (parameter != null && !segment.isEmpty()) {
+                values[count] = segment;
+                return parameter.find(path, end + 1, values, count + 1);
+            }
+            return null;
+        }
+    }
+
+    private static class TemplateEdge {
+        private final Pattern pattern;
+        private final Node node = new Node();
+
+        private TemplateEdge(final Pattern pattern) {
+            this.pattern = pattern;
+        }
+    }
+
+    public static class Match {
+        private final PathItem pathItem;
+        private final String template;
+        private final Map<PathItem.HttpMethod, Operation> operations;
+        private final Map<String, List<String>> parameters;
+
+        private Match(final Node node, final String[] values, final int count) {
+            this.pathItem = node.pathItem;
+            this.template = node.template;
+            this.operations = node.operations;
+            if (count == 0) {
+                this.parameters = Map.of();
+            } else {
+                final Map<String, List<String>> parameterMap = new HashMap<>();
+                for (int index = 0; index < count; index++) {
+                    parameterMap.put(node.parameterNames[index], List.of(values[index]));
+                }
+                this.parameters = Collections.unmodifiableMap(parameterMap);
+            }
+        }
+
+        public PathItem getPathItem() {
+            return pathItem;
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+
+        public @Nullable Operation getOperation(final @Nonnull PathItem.HttpMethod method) {
+            return operations.get(method);
+        }
+
+        public Map<String, List<String>> getParameters() {
+            return parameters;
+        }
+    }
+}
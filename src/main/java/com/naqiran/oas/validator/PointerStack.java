@@ -0,0 +1,96 @@
+package com.naqiran.oas.validator;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+/**
+ * Location of the value being validated, kept as a stack of property names and array indexes that validators push
+ * and pop while walking a payload. Walking a valid payload never allocates, the JSON Pointer string is only built
+ * when a message needs it.
+ */
+public final class PointerStack {
+
+    private String[] names = new String[16];
+    private int[] indexes = new int[16];
+    private int depth;
+
+    public void push(final @Nonnull String name) {
+        ensureCapacity();
+        names[depth] = name;
+        indexes[depth++] = -1;
+    }
+
+    public void push(final int index) {
+        ensureCapacity();
+        names[depth] = null;
+        indexes[depth++] = index;
+    }
+
+    public void pop() {
+        names[--depth] = null;
+    }
+
+    /**
+     * Pops the locations above the depth, restoring the pointer of a walk that was abandoned midway.
+     */
+    public void truncate(final int depth) {
+        if (depth < this.depth) {
+            Arrays.fill(names, depth, this.depth, null);
+            this.depth = depth;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(names, 0, depth, null);
+        depth = 0;
+    }
+
+    public @Nonnull PointerStack copy() {
+        final var copy = new PointerStack();
+        copy.names = Arrays.copyOf(names, names.length);
+        copy.indexes = Arrays.copyOf(indexes, indexes.length);
+        copy.depth = depth;
+        return copy;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return the RFC 6901 JSON Pointer of the current location, empty for the document root
+     */
+    @Override
+    public String toString() {
+        if (depth == 0) {
+            return "";
+        }
+        final var pointer = new StringBuilder(depth * 8);
+        for (int index = 0; index < depth; index++) {
+            pointer.append('/');
+            if (names[index] == null) {
+                pointer.append(indexes[index]);
+            } else {
+                final var name = names[index];
+                for (int position = 0; position < name.length(); position++) {
+                    final var character = name.charAt(position);
+                    if (character == '~') {
+                        pointer.append("~0");
+                    } else if (character == '/') {
+                        pointer.append("~1");
+                    } else {
+                        pointer.append(character);
+                    }
+                }
+            }
+        }
+        return pointer.toString();
+    }
+
+    private void ensureCapacity() {
+        if (depth == names.length) {
+            names = Arrays.copyOf(names, depth * 2);
+            indexes = Arrays.copyOf(indexes, depth * 2);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.naqiran.oas.validator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Validator that follows changes of its contract. Files are watched with a {@link WatchService}, the contract file and
+ * every file its references pull in, URLs are polled. A changed contract is parsed and compiled on the reload thread
+ * and published with a single reference swap, every validation reads the reference once so in-flight calls finish
+ * against the contract they started with.
+ */
+@ThreadSafe
+public class ReloadableValidator implements Closeable {
+
+    private static final long SETTLE_MILLIS = 100;
+
+    private final AtomicReference<OASValidator> current;
+    private final String location;
+    private final Path cacheDirectory;
+    private final Metrics metrics = new Metrics();
+    private final ScheduledExecutorService scheduler;
+    private final WatchService watchService;
+    private final Set<Path> directories = ConcurrentHashMap.newKeySet();
+    private volatile Set<Path> files = Set.of();
+
+    ReloadableValidator(final @Nonnull OASValidator validator, final @Nonnull String location, final @Nullable Path cacheDirectory,
+                        final @Nonnull Duration reloadInterval) {
+        this.current = new AtomicReference<>(validator);
+        this.location = location;
+        this.cacheDirectory = cacheDirectory;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final var thread = new Thread(runnable, "oas-validator-reload");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final var file = SpecCache.getFile(location);
+        WatchService watcher = null;
+        if (file != null) {
+            try {
+                watcher = file.getFileSystem().newWatchService();
+                register(watcher);
+                final var service = watcher;
+                scheduler.execute(() -> watch(service));
+            } catch (final IOException ex) {
+                watcher = null;
+                metrics.failed(0, ex);
+            }
+        }
+        this.watchService = watcher;
+        if (watcher == null) {
+            scheduler.scheduleWithFixedDelay(this::reload, reloadInterval.toMillis(), reloadInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return the validator of the contract currently published
+     */
+    public @Nonnull OASValidator getValidator() {
+        return current.get();
+    }
+
+    public @Nonnull Context validate(final @Nonnull Request request) {
+        return current.get().validate(request);
+    }
+
+    public @Nonnull CompletableFuture<Context> validateAsync(final @Nonnull Request request) {
+        return current.get().validateAsync(request);
+    }
+
+    public @Nonnull Context validate(final @Nonnull Request request, final @Nonnull Response response) {
+        return current.get().validate(request, response);
+    }
+
+    public @Nonnull Context validateRequest(final @Nonnull Request request) {
+        return current.get().validateRequest(request);
+    }
+
+    public @Nonnull Context validateResponse(final @Nonnull Request request, final @Nonnull Response response) {
+        return current.get().validateResponse(request, response);
+    }
+
+    public @Nonnull Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Loads the contract again and publishes it when it changed. A contract that fails to load is counted as a failure
+     * and the previous one stays published.
+     *
+     * @return true when a new contract was published
+     */
+    public synchronized boolean reload() {
+        final var start = System.nanoTime();
+        try {
+            final var previous = current.get();
+            final var schema = SpecCache.load(location, cacheDirectory);
+            if (watchService != null) {
+                register(watchService);
+            }
+            if (schema == previous.getSchema()) {
+                return false;
+            }
+            current.set(previous.withSchema(schema));
+            metrics.reloaded(System.nanoTime() - start);
+            return true;
+        } catch (final IOException | RuntimeException ex) {
+            metrics.failed(System.nanoTime() - start, ex);
+            return false;
+        }
+    }
+
+    /**
+     * Watches the files of the contract as of its last load, a reference to a new file is watched from the reload
+     * that finds it. A contract whose files are not tracked by the cache is watched by its own file only.
+     */
+    private void register(final WatchService watcher) throws IOException {
+        var resolved = SpecCache.getFiles(location);
+        if (resolved.isEmpty()) {
+            final var file = SpecCache.getFile(location);
+            if (file == null) {
+                return;
+            }
+            resolved = List.of(file.toAbsolutePath().normalize());
+        }
+        for (final var file : resolved) {
+            final var directory = file.getParent();
+            if (directories.add(directory)) {
+                directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            }
+        }
+        files = Set.copyOf(resolved);
+    }
+
+    private void watch(final WatchService watcher) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                var key = watcher.take();
+                var changed = false;
+                while (key != null) {
+                    final var directory = (Path) key.watchable();
+                    for (final var event : key.pollEvents()) {
+                        changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || files.contains(directory.resolve((Path) event.context()));
+                    }
+                    key.reset();
+                    // Editors write in several steps, wait until the events settle before parsing.
+                    key = watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (final ClosedWatchServiceException ex) {
+            // closed, stop watching
+        }
+    }
+
+    /**
+     * Stops watching the contract, the validator published last stays usable.
+     */
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    public static class Metrics {
+        private final AtomicLong reloads = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private volatile Duration lastDuration = Duration.ZERO;
+        private volatile Instant lastReload;
+        private volatile Instant lastFailure;
+        private volatile String lastError;
+
+        private void reloaded(final long nanos) {
+            lastDuration = Duration.ofNanos(nanos);
+            lastReload = Instant.now();
+            reloads.incrementAndGet();
+        }
+
+        private void failed(final long nanos, final Exception ex) {
+            lastDuration = Duration.ofNanos(nanos);
+            lastFailure = Instant.now();
+            lastError = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+            failures.incrementAndGet();
+        }
+
+        /**
+         * @return number of contracts published after the initial one
+         */
+        public long getReloads() {
+            return reloads.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        /**
+         * @return time spent by the last reload that published a contract or failed
+         */
+        public @Nonnull Duration getLastDuration() {
+            return lastDuration;
+        }
+
+        public @Nullable Instant getLastReload() {
+            return lastReload;
+        }
+
+        public @Nullable Instant getLastFailure() {
+            return lastFailure;
+        }
+
+        public @Nullable String getLastError() {
+            return lastError;
+        }
+    }
+}
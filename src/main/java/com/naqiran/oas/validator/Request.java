@@ -1,13 +1,17 @@
 package com.naqiran.oas.validator;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
 
 public class Request {
     private final URI uri;
     private final String method;
-    private String body;
+    private Body body;
     private Map<String, List<String>> headers;
     private Map<String, List<String>> cookies;
 
@@ -22,6 +26,31 @@ public class Request {
     }
 
     public Request withBody(final String body) {
+        this.body = body == null ? null : Body.of(body);
+        return this;
+    }
+
+    public Request withBody(final byte[] body) {
+        this.body = body == null ? null : Body.of(body);
+        return this;
+    }
+
+    public Request withBody(final ByteBuffer body) {
+        this.body = body == null ? null : Body.of(body);
+        return this;
+    }
+
+    public Request withBody(final InputStream body) {
+        this.body = body == null ? null : Body.of(body);
+        return this;
+    }
+
+    public Request withBody(final Path body) throws IOException {
+        this.body = body == null ? null : Body.of(body);
+        return this;
+    }
+
+    public Request withBody(final Body body) {
         this.body = body;
         return this;
     }
@@ -44,6 +73,10 @@ public class Request {
     }
 
     public String getBody() {
+        return body == null ? null : body.asString();
+    }
+
+    public Body getPayload() {
         return body;
     }
 
@@ -1,56 +1,83 @@
 package com.naqiran.oas.validator;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.naqiran.oas.validator.utils.HttpUtils;
+import com.naqiran.oas.validator.metrics.Stage;
 import io.swagger.v3.oas.models.parameters.Parameter;
-import io.swagger.v3.oas.models.parameters.RequestBody;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.http.entity.ContentType;
+import org.apache.http.HttpHeaders;
 
 import javax.annotation.Nonnull;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 public class RequestValidator {
 
+    private static final List<String> LOCATIONS = List.of("header", "query", "path", "cookie");
+
     public static void validate(final @Nonnull Context context) {
-        validateParameter(context, "header");
-        validateParameter(context, "query");
-        validateParameter(context, "path");
-        validateParameter(context, "cookie");
+        final var start = context.startStage();
+        for (final var location : LOCATIONS) {
+            validateParameter(context, location);
+        }
+        context.recordStage(Stage.PARAMETERS, start);
         validateRequestBody(context);
     }
 
     public static void validateRequestBody(final @Nonnull Context context) {
-        if (context.getOperation().getRequestBody() != null) {
-            final RequestBody body = context.getOperation().getRequestBody();
-            if (body.getRequired() && StringUtils.isBlank(context.getRequest().getBody())) {
-                context.addMessage(Context.MessageLevel.ERROR,"Request Body is required for %s : %s", context.getRequest().getMethod(), context.getPath());
-            }
-            try {
-                final var type = body.getContent().get(ContentType.APPLICATION_JSON.toString());
-                if (type != null) {
-                    SchemaValidator.validateJsonSchema(context, "root", type.getSchema(), new ObjectMapper().readTree(context.getRequest().getBody()));
+        final var requestBody = context.getOperationPlan().getRequestBody();
+        if (requestBody != null && !context.isHalted()) {
+            final var body = context.getRequest().getPayload();
+            if (body == null || body.isBlank()) {
+                if (context.getOperationPlan().isRequestBodyRequired()) {
+                    context.addError(ErrorCode.BODY_REQUIRED, false, context.getPath(), context.getRequest().getMethod(), null);
                 }
-            } catch (final JsonProcessingException ex) {
-                context.addMessage(Context.MessageLevel.ERROR,"Not a valid JSON Object: %s", ex.getMessage());
+                return;
             }
+            final var contentType = context.getParameterValues().getHeaders().get(HttpHeaders.CONTENT_TYPE);
+            context.setValidatingResponse(false);
+            SchemaValidator.validateBody(context, requestBody, body, contentType == null || contentType.isEmpty() ? null : contentType.get(0));
         }
     }
 
     public static void validateParameter(final @Nonnull Context context, final @Nonnull String type) {
-        if (context.getOperation().getParameters() != null) {
-            final var parameters = context.getOperation().getParameters().stream().filter(parameter -> type.equals(parameter.getIn()))
-                    .collect(Collectors.toList());
-            parameters.forEach(parameter -> validateParameterSchema(context, parameter, getValues(context, type).get(parameter.getName())));
+        final var parameters = context.getOperationPlan().getParameters(type);
+        if (parameters.isEmpty()) {
+            return;
+        }
+        final var values = context.getParameterValues();
+        for (final var parameter : parameters) {
+            if (context.isHalted()) {
+                return;
+            }
+            if (parameter.isObject()) {
+                validateObjectParameter(context, parameter, parameter.getFields(values));
+            } else {
+                validateParameterSchema(context, parameter, parameter.getValues(values));
+            }
         }
     }
 
+    public static void validateParameterSchema(final Context context, final OperationPlan.ParameterPlan parameter, final List<String> values) {
+        if (parameter.isRequired() && values == null) {
+            context.addError(ErrorCode.REQUIRED, false, parameter.getName(), parameter.getIn(), null);
+        }
+        if (parameter.isDeprecated()) {
+            context.addMessage(Context.MessageLevel.WARN, "%s: %s is deprecated", parameter.getName(), parameter.getIn());
+        }
+        parameter.getSchema().validateValues(context, parameter.getName(), values, false);
+    }
+
+    public static void validateObjectParameter(final Context context, final OperationPlan.ParameterPlan parameter, final Map<String, List<String>> fields) {
+        if (parameter.isRequired() && fields.isEmpty()) {
+            context.addError(ErrorCode.REQUIRED, false, parameter.getName(), parameter.getIn(), null);
+        }
+        if (parameter.isDeprecated()) {
+            context.addMessage(Context.MessageLevel.WARN, "%s: %s is deprecated", parameter.getName(), parameter.getIn());
+        }
+        parameter.getSchema().validateFields(context, parameter.getName(), fields, false);
+    }
+
     public static void validateParameterSchema(final Context context, final Parameter parameter, final List<String> values) {
         if (Boolean.TRUE.equals(parameter.getRequired()) && values == null) {
-            context.addMessage(Context.MessageLevel.ERROR, "%s: %s is required", parameter.getName(), parameter.getIn());
+            context.addError(ErrorCode.REQUIRED, false, parameter.getName(), parameter.getIn(), null);
         }
         if (Boolean.TRUE.equals(parameter.getDeprecated())) {
             context.addMessage(Context.MessageLevel.WARN, "%s: %s is deprecated", parameter.getName(), parameter.getIn());
@@ -59,16 +86,6 @@ public class RequestValidator {
     }
 
     public static Map<String, List<String>> getValues(final Context context, @Nonnull String type) {
-        var request = context.getRequest();
-        switch (type) {
-            case "header":
-                return request.getHeaders();
-            case "query":
-                return HttpUtils.getQueryParameters(request);
-            case "path":
-                return HttpUtils.getPathParameters(context);
-            default:
-                return Map.of();
-        }
+        return context.getParameterValues().get(type);
     }
 }
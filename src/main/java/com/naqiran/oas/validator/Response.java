@@ -0,0 +1,78 @@
+package com.naqiran.oas.validator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+public class Response {
+    private final int statusCode;
+    private Body body;
+    private Map<String, List<String>> headers = Map.of();
+
+    private Response(final int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public Response withBody(final String body) {
+        this.body = body == null ? null : Body.of(body);
+        return this;
+    }
+
+    public Response withBody(final byte[] body) {
+        this.body = body == null ? null : Body.of(body);
+        return this;
+    }
+
+    public Response withBody(final ByteBuffer body) {
+        this.body = body == null ? null : Body.of(body);
+        return this;
+    }
+
+    public Response withBody(final InputStream body) {
+        this.body = body == null ? null : Body.of(body);
+        return this;
+    }
+
+    public Response withBody(final Path body) throws IOException {
+        this.body = body == null ? null : Body.of(body);
+        return this;
+    }
+
+    public Response withBody(final Body body) {
+        this.body = body;
+        return this;
+    }
+
+    public Response withHeader(final Map<String, List<String>> headers) {
+        this.headers = headers == null ? Map.of() : headers;
+        return this;
+    }
+
+    public static Response builder(final int statusCode) {
+        return new Response(statusCode);
+    }
+
+    public static Response of(final HttpResponse<byte[]> response) {
+        return new Response(response.statusCode()).withHeader(response.headers().map()).withBody(response.body());
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public String getBody() {
+        return body == null ? null : body.asString();
+    }
+
+    public Body getPayload() {
+        return body;
+    }
+
+    public Map<String, List<String>> getHeaders() {
+        return headers;
+    }
+}
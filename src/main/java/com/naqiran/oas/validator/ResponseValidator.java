@@ -1,9 +1,8 @@
 package com.naqiran.oas.validator;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.http.entity.ContentType;
+import com.naqiran.oas.validator.metrics.Stage;
+import com.naqiran.oas.validator.utils.HttpUtils;
+import org.apache.http.HttpHeaders;
 
 import javax.annotation.Nonnull;
 
@@ -11,35 +10,31 @@ public class ResponseValidator {
 
     public static void validate(final @Nonnull Context context) {
         if (context.getResponse() != null) {
+            final var start = context.startStage();
             ResponseValidator.validateHeader(context);
+            context.recordStage(Stage.PARAMETERS, start);
             ResponseValidator.validateResponseBody(context);
         }
     }
 
     public static void validateHeader(final @Nonnull Context context) {
-        if (context.getOperation().getResponses() != null) {
-            var apiResponse = context.getOperation().getResponses().get(String.valueOf(context.getResponse().statusCode()));
-            if (apiResponse != null && apiResponse.getHeaders() != null) {
-                var responseHeaders = context.getResponse().headers().map();
-                apiResponse.getHeaders().forEach((name, header) -> SchemaValidator.validateParameterSchema(context, name, header.getSchema(), responseHeaders.get(name)));
-            }
+        final var apiResponse = context.getOperationPlan().getResponse(String.valueOf(context.getResponse().getStatusCode()));
+        if (apiResponse != null) {
+            final var responseHeaders = context.getResponse().getHeaders();
+            apiResponse.getHeaders().forEach((name, schema) -> schema.validateValues(context, name, HttpUtils.getHeaderValues(responseHeaders, name), false));
         }
     }
 
     public static void validateResponseBody(final @Nonnull Context context) {
-        if (StringUtils.isNotBlank(context.getResponse().body())) {
-            try {
-                final var apiResponse = context.getOperation().getResponses().get(String.valueOf(context.getResponse().statusCode()));
-                if (apiResponse != null && apiResponse.getContent() != null) {
-                    var mediaType = apiResponse.getContent().get(ContentType.APPLICATION_JSON.toString());
-                    if (mediaType != null) {
-                        SchemaValidator.validateJsonSchema(context, "root", mediaType.getSchema(), new ObjectMapper().readTree(context.getResponse().body()));
-                    }
-                } else {
-                    context.addMessage(Context.MessageLevel.WARN, "No Response schema defined for status code : %s", String.valueOf(context.getResponse().statusCode()));
-                }
-            } catch (final JsonProcessingException ex) {
-                context.addMessage(Context.MessageLevel.ERROR,"Not a valid JSON Object: %s", ex.getMessage());
+        final var body = context.getResponse().getPayload();
+        if (body != null && !body.isBlank() && !context.isHalted()) {
+            final var apiResponse = context.getOperationPlan().getResponse(String.valueOf(context.getResponse().getStatusCode()));
+            if (apiResponse != null && apiResponse.getContent() != null && !apiResponse.getContent().isEmpty()) {
+                context.setValidatingResponse(true);
+                SchemaValidator.validateBody(context, apiResponse.getContent(), body,
+                        HttpUtils.getHeader(context.getResponse().getHeaders(), HttpHeaders.CONTENT_TYPE));
+            } else {
+                context.addMessage(Context.MessageLevel.WARN, "No Response schema defined for status code : %s", context.getResponse().getStatusCode());
             }
         }
     }
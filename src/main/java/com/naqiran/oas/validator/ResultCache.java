@@ -0,0 +1,233 @@
+package com.naqiran.oas.validator;
+
+import com.naqiran.oas.validator.utils.HashUtils;
+import com.naqiran.oas.validator.utils.HttpUtils;
+import io.swagger.v3.oas.models.Operation;
+import org.apache.http.HttpHeaders;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Bounded cache of validation results for payloads seen before, such as health checks and synthetic probes. A stage of
+ * the validation is keyed by the operation, the request target or response status, the content type, the headers and
+ * cookies the stage reads, the error count it starts with and the xxHash of the body; a hit replays the messages of the
+ * first validation instead of parsing the payload again.
+ * <p>
+ * Entries are held in segments of access ordered maps so concurrent lookups only contend within a segment. The least
+ * recently used entry of a full segment is evicted, and entries older than the time to live are evicted when they are
+ * looked up. Every validator has its own cache, so a reloaded contract starts with an empty one.
+ */
+@ThreadSafe
+public final class ResultCache {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment[] segments;
+    private final long ttlNanos;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    ResultCache(final int maximumSize, final @Nullable Duration ttl) {
+        this.segments = new Segment[Integer.highestOneBit(Math.max(1, Math.min(SEGMENTS, maximumSize)))];
+        final var segmentSize = Math.max(1, (maximumSize + segments.length - 1) / segments.length);
+        for (int index = 0; index < segments.length; index++) {
+            segments[index] = new Segment(segmentSize);
+        }
+        this.ttlNanos = ttl == null || ttl.isZero() ? 0 : ttl.toNanos();
+    }
+
+    /**
+     * Runs the request validation stage or replays its cached messages.
+     */
+    void validateRequest(final @Nonnull Context context, final @Nonnull Consumer<Context> stage) {
+        final var request = context.getRequest();
+        final var body = request.getPayload();
+        final var bytes = body == null ? null : body.getBytes();
+        if (body != null && bytes == null) {
+            stage.accept(context);
+            return;
+        }
+        final List<List<String>> headers = new ArrayList<>();
+        final var values = context.getParameterValues();
+        headers.add(values.getHeaders().get(HttpHeaders.CONTENT_TYPE));
+        for (final var location : List.of("header", "cookie")) {
+            for (final var parameter : context.getOperationPlan().getParameters(location)) {
+                headers.add(values.get(location).get(parameter.getName()));
+            }
+        }
+        final var uri = request.getUri();
+        validate(context, new Key(context.getOperation(), -1, uri.getRawPath(), uri.getRawQuery(), headers, context.getErrorCount(), bytes), stage);
+    }
+
+    /**
+     * Runs the response validation stage or replays its cached messages.
+     */
+    void validateResponse(final @Nonnull Context context, final @Nonnull Consumer<Context> stage) {
+        final var response = context.getResponse();
+        final var body = response == null ? null : response.getPayload();
+        final var bytes = body == null ? null : body.getBytes();
+        if (response == null || (body != null && bytes == null)) {
+            stage.accept(context);
+            return;
+        }
+        final List<List<String>> headers = new ArrayList<>();
+        headers.add(Collections.singletonList(HttpUtils.getHeader(response.getHeaders(), HttpHeaders.CONTENT_TYPE)));
+        final var plan = context.getOperationPlan().getResponse(String.valueOf(response.getStatusCode()));
+        if (plan != null) {
+            for (final var name : plan.getHeaders().keySet()) {
+                headers.add(HttpUtils.getHeaderValues(response.getHeaders(), name));
+            }
+        }
+        validate(context, new Key(context.getOperation(), response.getStatusCode(), null, null, headers, context.getErrorCount(), bytes), stage);
+    }
+
+    private void validate(final Context context, final Key key, final Consumer<Context> stage) {
+        final var segment = segments[key.hashCode() & (segments.length - 1)];
+        final Entry entry;
+        synchronized (segment) {
+            entry = segment.get(key);
+            if (entry != null && ttlNanos > 0 && System.nanoTime() - entry.created > ttlNanos) {
+                segment.remove(key);
+                evictions.increment();
+            }
+        }
+        if (entry != null && (ttlNanos == 0 || System.nanoTime() - entry.created <= ttlNanos)) {
+            hits.increment();
+            context.replay(entry.messages);
+            return;
+        }
+        misses.increment();
+        final var messages = context.getMessages();
+        final var start = messages.size();
+        stage.accept(context);
+        final var created = new Entry(List.copyOf(messages.subList(start, messages.size())), System.nanoTime());
+        synchronized (segment) {
+            segment.put(key, created);
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return entries evicted because their segment was full or their time to live expired
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int getSize() {
+        var size = 0;
+        for (final var segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (final var segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private final class Segment extends LinkedHashMap<Key, Entry> {
+        private final int maximumSize;
+
+        private Segment(final int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Key, ResultCache.Entry> eldest) {
+            if (size() > maximumSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Entry {
+        private final List<Context.Message> messages;
+        private final long created;
+
+        private Entry(final List<Context.Message> messages, final long created) {
+            this.messages = messages;
+            this.created = created;
+        }
+    }
+
+    /**
+     * Operations are compared by identity, the body by its length and 64 bit hash.
+     */
+    private static final class Key {
+        private final Operation operation;
+        private final int status;
+        private final String path;
+        private final String query;
+        private final List<List<String>> headers;
+        private final int errors;
+        private final long length;
+        private final long hash;
+
+        private Key(final Operation operation, final int status, final String path, final String query, final List<List<String>> headers,
+                    final int errors, final @Nullable ByteBuffer body) {
+            this.operation = operation;
+            this.status = status;
+            this.path = path;
+            this.query = query;
+            this.headers = headers;
+            this.errors = errors;
+            this.length = body == null ? -1 : body.remaining();
+            this.hash = body == null ? 0 : HashUtils.xxHash64(body, 0);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            final var key = (Key) other;
+            return operation == key.operation && status == key.status && errors == key.errors && length == key.length && hash == key.hash
+                    && Objects.equals(path, key.path) && Objects.equals(query, key.query) && headers.equals(key.headers);
+        }
+
+        @Override
+        public int hashCode() {
+            var result = System.identityHashCode(operation);
+            result = 31 * result + status;
+            result = 31 * result + Objects.hashCode(path);
+            result = 31 * result + Objects.hashCode(query);
+            result = 31 * result + headers.hashCode();
+            result = 31 * result + errors;
+            result = 31 * result + Long.hashCode(hash);
+            return result ^ (result >>> 16);
+        }
+    }
+}
@@ -1,96 +1,108 @@
 package com.naqiran.oas.validator;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.models.media.ArraySchema;
-import io.swagger.v3.oas.models.media.ComposedSchema;
 import io.swagger.v3.oas.models.media.ObjectSchema;
 import io.swagger.v3.oas.models.media.Schema;
-import com.naqiran.oas.validator.Context.MessageLevel;
+import com.naqiran.oas.validator.metrics.Stage;
+import com.naqiran.oas.validator.utils.MediaType;
+import com.naqiran.oas.validator.schema.CompiledSchema;
+import com.naqiran.oas.validator.schema.SchemaCompiler;
+import com.naqiran.oas.validator.utils.DepthLimitedParser;
+import com.naqiran.oas.validator.utils.JsonUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
 import java.util.List;
 
+/**
+ * Validates payloads against swagger {@link Schema} models. The schema is compiled on every call, validators built by
+ * {@link OASValidator} use the {@link OperationPlan} compiled once per operation instead.
+ */
 public class SchemaValidator {
 
-    public static void validateJsonSchema(final @Nonnull Context context, final @Nonnull String path, final Schema<?> originalSchema, final JsonNode node) {
-        validateJsonSchema(context, path, originalSchema, node, false);
+    /**
+     * Validates a body against the schema of the most specific media type range of the contract including its content
+     * type, with the decoder of the context for the content type. A body without a content type is read as JSON.
+     */
+    public static void validateBody(final @Nonnull Context context, final @Nonnull ContentPlan content, final @Nonnull Body body,
+                                    final @Nullable String contentType) {
+        final var mediaType = contentType == null ? ContentPlan.DEFAULT_MEDIA_TYPE : MediaType.parse(contentType);
+        final var schema = mediaType == null ? null : content.match(mediaType);
+        if (schema == null) {
+            if (contentType == null) {
+                context.addMessage(Context.MessageLevel.WARN, "Content-Type is missing, body is not validated for %s", context.getPath());
+            } else {
+                context.addError(ErrorCode.UNSUPPORTED_MEDIA_TYPE, false, context.getPath(), content.getSchemas().keySet(), contentType);
+            }
+            return;
+        }
+        final var decoder = context.getDecoder(mediaType);
+        if (decoder == null) {
+            context.addMessage(Context.MessageLevel.WARN, "No decoder for the content type %s, body is not validated", mediaType);
+            return;
+        }
+        decoder.validate(context, schema, body, mediaType);
     }
 
-    public static void validateJsonSchema(final @Nonnull Context context, final @Nonnull String path, final Schema<?> originalSchema, final JsonNode node, final boolean ignoreMessage) {
-            if (originalSchema instanceof ComposedSchema) {
-                var composedSchema = (ComposedSchema) originalSchema;
-                if (composedSchema.getAllOf() != null) {
-                    composedSchema.getAllOf().forEach(schema -> validateJsonSchema(context, path, schema, node));
-                } else if (composedSchema.getAnyOf() != null) {
-                    composedSchema.getAnyOf().forEach(schema -> validateJsonSchema(context, path, schema, node));
-                } else if (composedSchema.getOneOf() != null) {
-                    composedSchema.getOneOf().forEach(schema -> validateJsonSchema(context, path, schema, node, true));
+    /**
+     * Validates a JSON body against the compiled schema, streaming the tokens when the context asks for it. A streamed
+     * body is parsed while it is walked, so its whole validation is timed as the schema stage. In both modes a body
+     * nesting objects and arrays deeper than the depth limit of the context is reported instead of validated.
+     */
+    public static void validateJsonBody(final @Nonnull Context context, final @Nonnull CompiledSchema schema, final @Nonnull Body body) {
+        context.getPointer().clear();
+        var start = context.startStage();
+        try (var parser = DepthLimitedParser.of(body.createParser(JsonUtils.getMapper()), context.getMaxDepth())) {
+            if (context.isStreaming()) {
+                if (parser.nextToken() != null) {
+                    schema.validate(context, parser, false);
                 }
             } else {
-                var schema = context.getSchema(originalSchema);
-                if (node != null) {
-                    switch (schema.getType()) {
-                        case "array":
-                            validateJsonArray(context, path, (ArraySchema) schema, node, ignoreMessage);
-                            break;
-                        case "object":
-                            validateJsonObject(context, path, (ObjectSchema) schema, node, ignoreMessage);
-                            break;
-                        case "integer":
-                            if ("int64".equals(schema.getFormat()) && !node.canConvertToLong()) {
-                                context.addMessage(MessageLevel.ERROR, ignoreMessage,"Parameter Name: %s expected [long] but found : %s", path, node.getNodeType().toString());
-                            } else if (
-                                (schema.getFormat() == null || "int32".equals(schema.getFormat())) && !node.canConvertToInt()) {
-                                context.addMessage(MessageLevel.ERROR, ignoreMessage,"Parameter Name: %s expected [integer] but found : %s", path, node.getNodeType().toString());
-                            }
-                            break;
-                        case "number":
-                            if (!node.isNumber()) {
-                                context.addMessage(MessageLevel.ERROR, ignoreMessage,"Parameter Name: %s expected [number] but found : %s", path, node.getNodeType().toString());
-                            }
-                            break;
-                        case "boolean":
-                            if (!node.isBoolean()) {
-                                context.addMessage(MessageLevel.ERROR, ignoreMessage,"Parameter Name: %s expected [boolean] but found : %s", path, node.getNodeType().toString());
-                            }
-                            break;
-                        case "string":
-                            if (!node.isTextual()) {
-                                context.addMessage(MessageLevel.ERROR, ignoreMessage,"Parameter Name: %s expected [string] but found : %s", path, node.getNodeType().toString());
-                            } else {
-                                checkEnumValues(context, path, schema, node.asText(), ignoreMessage);
-                                checkMinLength(context, path, schema.getMinLength(), node.asText(), ignoreMessage);
-                                checkMaxLength(context, path, schema.getMaxLength(), node.asText(), ignoreMessage);
-                            }
-                            break;
-                        default:
-                            System.out.println("Its default" + schema.getType());
-                    }
-                }
+                final JsonNode node = JsonUtils.getMapper().readTree(parser);
+                context.recordStage(Stage.BODY_PARSE, start);
+                start = context.startStage();
+                schema.validate(context, node, false);
             }
+            context.recordStage(Stage.SCHEMA, start);
+        } catch (final DepthLimitedParser.DepthException ex) {
+            context.getPointer().clear();
+            context.addError(ErrorCode.MAX_DEPTH, false, null, ex.getMaxDepth(), "JSON");
+        } catch (final JsonProcessingException ex) {
+            context.addError(ErrorCode.INVALID_JSON, false, null, ex.getMessage());
+        } catch (final IOException ex) {
+            context.addError(ErrorCode.UNREADABLE_BODY, false, null, ex.getMessage());
+        }
+    }
+
+    public static void validateJsonSchema(final @Nonnull Context context, final @Nonnull String path, final Schema<?> originalSchema, final JsonNode node) {
+        validateJsonSchema(context, path, originalSchema, node, false);
+    }
+
+    public static void validateJsonSchema(final @Nonnull Context context, final @Nonnull String path, final Schema<?> originalSchema, final JsonNode node, final boolean ignoreMessage) {
+        validateNode(context, path, compile(context, originalSchema), node, ignoreMessage);
     }
 
     public static void validateJsonArray(final @Nonnull Context context, final @Nonnull String path, final ArraySchema schema, final JsonNode node, final boolean ignoreMessage) {
-        if (node.isArray()) {
-            if (schema.getMinLength() != null && !node.has(schema.getMinLength())) {
-                context.addMessage(MessageLevel.ERROR, ignoreMessage,"Parameter Name: %s less than min-items: %s", path, schema.getMinLength().toString());
-            }
-            if (schema.getMaxLength() != null && node.has(schema.getMaxLength() + 1)) {
-                context.addMessage(MessageLevel.ERROR, ignoreMessage,"Parameter Name: %s less than max-items: %s", path, schema.getMaxLength().toString());
-            }
-            node.forEach(val -> validateJsonSchema(context, path + "[x]", (ArraySchema) schema.getItems(), val));
-        } else {
-            context.addMessage(MessageLevel.ERROR, ignoreMessage,"Parameter Name: %s expected [array] but found : %s", path, node.getNodeType().toString());
-        }
+        validateNode(context, path, compile(context, schema), node, ignoreMessage);
     }
 
     public static void validateJsonObject(final @Nonnull Context context, final @Nonnull String path, final ObjectSchema schema, final JsonNode node, final boolean ignoreMessage) {
-        if (node.isObject()) {
-            for (var entry : schema.getProperties().entrySet()) {
-                validateJsonSchema(context, entry.getKey(), entry.getValue(), node.get(entry.getKey()), ignoreMessage);
-            }
+        validateNode(context, path, compile(context, schema), node, ignoreMessage);
+    }
+
+    /**
+     * Validates the node with the path as the property name of the node, an empty path validates it as the root.
+     */
+    private static void validateNode(final Context context, final String path, final CompiledSchema schema, final JsonNode node, final boolean ignoreMessage) {
+        if (path.isEmpty()) {
+            schema.validate(context, node, ignoreMessage);
         } else {
-            context.addMessage(MessageLevel.ERROR, ignoreMessage, "Parameter Name: %s expected [object] but found : %s", path, node.getNodeType().toString());
+            context.getPointer().push(path);
+            schema.validate(context, node, ignoreMessage);
+            context.getPointer().pop();
         }
     }
 
@@ -99,86 +111,51 @@ public class SchemaValidator {
     }
 
     public static void validateParameterSchema(final Context context, final String attributeName, final Schema<?> schema, final List<String> values, final boolean ignoreMessage) {
-        if (schema != null && values != null) {
-            if (schema.getType() != null && !values.isEmpty()) {
-                if ("array".equals(schema.getType())) {
-                    checkMinItems(context, attributeName, schema.getMinLength(), values, ignoreMessage);
-                    checkMaxItems(context, attributeName, schema.getMaxLength(), values, ignoreMessage);
-                    values.forEach(val -> validateParameterSchema(context, attributeName, ((ArraySchema) schema).getItems(), val, ignoreMessage));
-                } else {
-                    validateParameterSchema(context, attributeName, schema, values.get(0), ignoreMessage);
-                }
-            }
+        if (schema != null) {
+            compile(context, schema).validateValues(context, attributeName, values, ignoreMessage);
         }
     }
 
     public static void validateParameterSchema(final Context context, final String attributeName, final Schema<?> schema, final String value, final boolean ignoreMessage) {
         if (schema != null) {
-            var format = schema.getFormat();
-            if (schema.getType() != null) {
-                Object obj = null;
-                try {
-                    switch (schema.getType()) {
-                        case "integer":
-                            if ("int64".equals(format)) {
-                                obj = Long.parseLong(value);
-                            } else {
-                                obj = Integer.parseInt(value);
-                            }
-                            break;
-                        case "number":
-                            if ("double".equals(format)) {
-                                obj = Float.parseFloat(value);
-                            } else {
-                                obj = Double.parseDouble(value);
-                            }
-                            break;
-                        case "string":
-                            obj = value;
-                            checkMinLength(context, attributeName, schema.getMinLength(), value, ignoreMessage);
-                            checkMaxLength(context, attributeName, schema.getMaxLength(), value, ignoreMessage);
-                            break;
-                        case "boolean":
-                            obj = Boolean.valueOf(value);
-                            break;
-                        default:
-                            System.out.println("Default");
-                    }
-                } catch (Exception e) {
-                    context.addMessage(MessageLevel.ERROR,"Parameter Name: %s | Expected Type: %s", attributeName, schema.getType());
-                }
-                checkEnumValues(context, attributeName, schema, obj, ignoreMessage);
-            }
+            compile(context, schema).validateValue(context, attributeName, value, ignoreMessage);
         }
     }
 
     public static void checkEnumValues(final Context context, final String attributeName, final Schema<?> schema, final Object obj, final boolean ignoreMessage) {
         if (schema.getEnum() != null && obj != null && !schema.getEnum().contains(obj)) {
-            context.addMessage(MessageLevel.ERROR, ignoreMessage, "Parameter Name: %s - Allowed Value : %s", attributeName, schema.getEnum().toString());
+            context.addError(ErrorCode.ENUM_MISMATCH, ignoreMessage, attributeName, schema.getEnum(), obj);
         }
     }
 
     public static void checkMinLength(final Context context, final String attributeName, final Integer length, final String value, final boolean ignoreMessage) {
         if (length != null && value != null && value.length() < length) {
-            context.addMessage(MessageLevel.ERROR, ignoreMessage,"Parameter Name: %s less than min-length: %s", attributeName, length.toString());
+            context.addError(ErrorCode.MIN_LENGTH, ignoreMessage, attributeName, length, value.length());
         }
     }
 
     public static void checkMaxLength(final Context context, final String attributeName, final Integer length, final String value, final boolean ignoreMessage) {
         if (length != null && value != null && value.length() > length) {
-            context.addMessage(MessageLevel.ERROR, ignoreMessage,"Parameter Name: %s less than max-length: %s", attributeName, length.toString());
+            context.addError(ErrorCode.MAX_LENGTH, ignoreMessage, attributeName, length, value.length());
         }
     }
 
     public static void checkMinItems(final Context context, final String attributeName, final Integer length, final List<String> value, final boolean ignoreMessage) {
         if (length != null && value != null && value.size() < length) {
-            context.addMessage(MessageLevel.ERROR, ignoreMessage,"Parameter Name: %s less than min-items: %s", attributeName, length.toString());
+            context.addError(ErrorCode.MIN_ITEMS, ignoreMessage, attributeName, length, value.size());
         }
     }
 
     public static void checkMaxItems(final Context context, final String parameterName, final Integer length, final List<String> value, final boolean ignoreMessage) {
         if (length != null && value != null && value.size() > length) {
-            context.addMessage(MessageLevel.ERROR, ignoreMessage,"Parameter Name: %s less than max-items: %s", parameterName, length.toString());
+            context.addError(ErrorCode.MAX_ITEMS, ignoreMessage, parameterName, length, value.size());
+        }
+    }
+
+    private static CompiledSchema compile(final Context context, final Schema<?> schema) {
+        if (schema == null) {
+            throw new ValidationException("Empty schema");
         }
+        return new SchemaCompiler(context.getReferences()).compile(schema);
     }
 }
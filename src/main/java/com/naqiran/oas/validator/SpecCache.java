@@ -0,0 +1,360 @@
+package com.naqiran.oas.validator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.parser.OpenAPIParser;
+import io.swagger.v3.core.util.Json;
+import io.swagger.v3.core.util.Yaml;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.parser.core.models.ParseOptions;
+import io.swagger.v3.parser.core.models.SwaggerParseResult;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches parsed contracts by location and content hash. A contract file is only read again when the modification time
+ * or size of the file, or of one of the files its references pull in, changes. A URL is downloaded once per load and
+ * its bytes are both hashed and parsed. With a cache directory the resolved model is also written as a JSON snapshot
+ * so the next process can skip parsing and reference resolution; the snapshot is looked up by the hash of every file of
+ * the contract so an edited contract never matches a stale snapshot. A URL contract referencing other documents, and a
+ * file contract referencing a URL, is parsed on every load as those documents are not tracked.
+ */
+public class SpecCache {
+
+    private static final String SNAPSHOT_VERSION = "3";
+    private static final Map<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    private SpecCache() {
+    }
+
+    public static @Nonnull OpenAPI load(final @Nonnull String location, final @Nullable Path cacheDirectory) {
+        final var file = getFile(location);
+        try {
+            final var cached = ENTRIES.get(location);
+            if (cached != null && cached.isUnchanged()) {
+                return cached.openAPI;
+            }
+            final Sources sources;
+            if (file != null) {
+                sources = Sources.ofFile(file);
+            } else {
+                final var content = download(location);
+                if (content == null) {
+                    return parse(location);
+                }
+                sources = Sources.ofUrl(content);
+            }
+            if (sources == null) {
+                ENTRIES.remove(location);
+                return parse(location);
+            }
+            if (cached != null && cached.hash.equals(sources.hash)) {
+                ENTRIES.put(location, new Entry(sources, cached.openAPI));
+                return cached.openAPI;
+            }
+            final var openAPI = cacheDirectory == null ? sources.parse(location) : loadSnapshot(location, sources, cacheDirectory);
+            ENTRIES.put(location, new Entry(sources, openAPI));
+            return openAPI;
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public static void clear() {
+        ENTRIES.clear();
+    }
+
+    /**
+     * @return the files of the contract as of its last load, the file itself and every file its references pull in,
+     * or an empty list when the contract is not a cached file
+     */
+    static @Nonnull List<Path> getFiles(final @Nonnull String location) {
+        final var cached = ENTRIES.get(location);
+        if (cached == null) {
+            return List.of();
+        }
+        final List<Path> files = new ArrayList<>(cached.stamps.size());
+        for (final var stamp : cached.stamps) {
+            files.add(stamp.file);
+        }
+        return files;
+    }
+
+    /**
+     * Parses the contract with references to other files resolved into its components, local references are left to
+     * the reference graph of the validator.
+     */
+    static @Nonnull OpenAPI parse(final @Nonnull String location) {
+        return getOpenAPI(location, new OpenAPIParser().readLocation(location, List.of(), getOptions()));
+    }
+
+    /**
+     * Parses a downloaded contract without references to other documents.
+     */
+    private static OpenAPI parse(final String location, final byte[] content) {
+        return getOpenAPI(location, new OpenAPIParser().readContents(new String(content, StandardCharsets.UTF_8), List.of(), getOptions()));
+    }
+
+    private static ParseOptions getOptions() {
+        final var options = new ParseOptions();
+        options.setResolve(true);
+        return options;
+    }
+
+    private static OpenAPI getOpenAPI(final String location, final SwaggerParseResult result) {
+        if (result.getOpenAPI() == null) {
+            throw new ValidationException("Unable to parse the Open API schema " + location + ": " + result.getMessages());
+        }
+        return result.getOpenAPI();
+    }
+
+    private static OpenAPI loadSnapshot(final String location, final Sources sources, final Path cacheDirectory) throws IOException {
+        final var snapshot = cacheDirectory.resolve(toHex(digest((SNAPSHOT_VERSION + "\n" + location + "\n" + sources.hash).getBytes(StandardCharsets.UTF_8))) + ".json");
+        if (Files.isRegularFile(snapshot)) {
+            try (var input = Files.newInputStream(snapshot)) {
+                return Json.mapper().readValue(input, OpenAPI.class);
+            } catch (final IOException ex) {
+                Files.deleteIfExists(snapshot);
+            }
+        }
+        final var openAPI = sources.parse(location);
+        Files.createDirectories(cacheDirectory);
+        final var temporary = Files.createTempFile(cacheDirectory, "snapshot", ".tmp");
+        try {
+            Files.write(temporary, Json.mapper().writeValueAsBytes(openAPI));
+            Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return openAPI;
+    }
+
+    /**
+     * @return the content at the location or null when the location is neither a file nor a URL
+     */
+    private static byte[] download(final String location) throws IOException {
+        final URI uri;
+        try {
+            uri = URI.create(location);
+        } catch (final IllegalArgumentException ex) {
+            return null;
+        }
+        if (uri.getScheme() == null || !uri.isAbsolute()) {
+            return null;
+        }
+        try (var input = uri.toURL().openStream()) {
+            return input.readAllBytes();
+        }
+    }
+
+    /**
+     * Collects the document parts of the {@code $ref}s of a contract document, the part before the {@code #}.
+     *
+     * @return the referenced documents, or null when the content can not be read as YAML or JSON
+     */
+    private static Set<String> getReferences(final byte[] content) {
+        final JsonNode root;
+        try {
+            root = Yaml.mapper().readTree(content);
+        } catch (final IOException ex) {
+            return null;
+        }
+        final Set<String> references = new LinkedHashSet<>();
+        final Deque<JsonNode> pending = new ArrayDeque<>();
+        if (root != null) {
+            pending.push(root);
+        }
+        while (!pending.isEmpty()) {
+            final var node = pending.pop();
+            final var reference = node.get("$ref");
+            if (node.isObject() && reference != null && reference.isTextual()) {
+                final var text = reference.asText();
+                final var fragment = text.indexOf('#');
+                final var document = fragment < 0 ? text : text.substring(0, fragment);
+                if (!document.isEmpty()) {
+                    references.add(document);
+                }
+            }
+            for (final var child : node) {
+                if (child.isContainerNode()) {
+                    pending.push(child);
+                }
+            }
+        }
+        return references;
+    }
+
+    static @Nullable Path getFile(final @Nonnull String location) {
+        try {
+            final var path = location.startsWith("file:") ? Path.of(URI.create(location)) : Path.of(location);
+            return Files.isRegularFile(path) ? path : null;
+        } catch (final IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static byte[] digest(final byte[] content) {
+        return getDigest().digest(content);
+    }
+
+    private static MessageDigest getDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final var hex = new StringBuilder(bytes.length * 2);
+        for (final var value : bytes) {
+            hex.append(Character.forDigit((value >> 4) & 0xF, 16)).append(Character.forDigit(value & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Files of a contract with the hash of their content, only a contract made of files has stamps to check.
+     */
+    private static class Sources {
+        private final String hash;
+        private final List<Stamp> stamps;
+        private final byte[] content;
+
+        private Sources(final String hash, final List<Stamp> stamps, final byte[] content) {
+            this.hash = hash;
+            this.stamps = stamps;
+            this.content = content;
+        }
+
+        /**
+         * Reads the file and the files its references pull in, each is stamped before it is read so a concurrent edit
+         * is picked up by the next load.
+         *
+         * @return the sources, or null when a reference leaves the file system or can not be followed
+         */
+        private static Sources ofFile(final Path root) throws IOException {
+            final var digest = getDigest();
+            final List<Stamp> stamps = new ArrayList<>();
+            final Deque<Path> pending = new ArrayDeque<>();
+            final Set<Path> seen = new HashSet<>();
+            final var start = root.toAbsolutePath().normalize();
+            pending.add(start);
+            seen.add(start);
+            while (!pending.isEmpty()) {
+                final var file = pending.poll();
+                stamps.add(new Stamp(file));
+                final var content = Files.readAllBytes(file);
+                digest.update(file.toString().getBytes(StandardCharsets.UTF_8));
+                digest.update(content);
+                final var references = getReferences(content);
+                if (references == null) {
+                    return null;
+                }
+                for (final var reference : references) {
+                    final var referenced = resolve(file, reference);
+                    if (referenced == null) {
+                        return null;
+                    }
+                    if (seen.add(referenced)) {
+                        pending.add(referenced);
+                    }
+                }
+            }
+            return new Sources(toHex(digest.digest()), stamps, null);
+        }
+
+        /**
+         * @return the sources of a downloaded contract, or null when it references other documents
+         */
+        private static Sources ofUrl(final byte[] content) {
+            final var references = getReferences(content);
+            if (references == null || !references.isEmpty()) {
+                return null;
+            }
+            return new Sources(toHex(digest(content)), List.of(), content);
+        }
+
+        private static Path resolve(final Path file, final String reference) {
+            try {
+                final var uri = URI.create(reference);
+                if (uri.getScheme() != null) {
+                    return "file".equals(uri.getScheme()) ? Path.of(uri).normalize() : null;
+                }
+                final var referenced = file.resolveSibling(uri.getPath()).normalize();
+                return Files.isRegularFile(referenced) ? referenced : null;
+            } catch (final IllegalArgumentException ex) {
+                return null;
+            }
+        }
+
+        private OpenAPI parse(final String location) {
+            return content == null ? SpecCache.parse(location) : SpecCache.parse(location, content);
+        }
+    }
+
+    private static class Stamp {
+        private final Path file;
+        private final long modified;
+        private final long size;
+
+        private Stamp(final Path file) throws IOException {
+            this.file = file;
+            this.modified = Files.getLastModifiedTime(file).toMillis();
+            this.size = Files.size(file);
+        }
+
+        private boolean isUnchanged() {
+            try {
+                return Files.getLastModifiedTime(file).toMillis() == modified && Files.size(file) == size;
+            } catch (final IOException ex) {
+                return false;
+            }
+        }
+    }
+
+    private static class Entry {
+        private final String hash;
+        private final List<Stamp> stamps;
+        private final OpenAPI openAPI;
+
+        private Entry(final Sources sources, final OpenAPI openAPI) {
+            this.hash = sources.hash;
+            this.stamps = sources.stamps;
+            this.openAPI = openAPI;
+        }
+
+        /**
+         * @return true when the contract is made of files and none of them changed, a URL is always hashed again
+         */
+        private boolean isUnchanged() {
+            if (stamps.isEmpty()) {
+                return false;
+            }
+            for (final var stamp : stamps) {
+                if (!stamp.isUnchanged()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
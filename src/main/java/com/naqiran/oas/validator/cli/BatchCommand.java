@@ -0,0 +1,100 @@
+package com.naqiran.oas.validator.cli;
+
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.ValidationException;
+import com.naqiran.oas.validator.metrics.InMemoryMetrics;
+import com.naqiran.oas.validator.traffic.TrafficReader;
+import com.naqiran.oas.validator.traffic.TrafficRecord;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static picocli.CommandLine.Command;
+import static picocli.CommandLine.Option;
+import static picocli.CommandLine.Parameters;
+import static picocli.CommandLine.ParentCommand;
+
+@Command(name = "batch", description = "Validate captured traffic from HAR or newline delimited JSON files")
+public class BatchCommand implements Callable<Integer> {
+
+    @ParentCommand
+    private OASValidatorCommand parent;
+
+    @Parameters(description = "HAR (.har) or newline delimited JSON traffic files", arity = "1..*")
+    private List<Path> files;
+
+    @Option(names = {"-w", "--workers"}, description = "Number of validation workers, defaults to the number of processors")
+    private Integer workers;
+
+    @Option(names = {"--live"}, description = "Send records without a recorded response to the API")
+    private boolean live;
+
+    @Option(names = {"--top"}, description = "Number of distinct errors in the report", defaultValue = "20")
+    private int top;
+
+    @Option(names = {"--metrics"}, description = "Print stage timings, payload sizes and error counts per operation")
+    private boolean metrics;
+
+    @Override
+    public Integer call() throws IOException, InterruptedException {
+        final var builder = parent.getValidatorBuilder();
+        final var listener = metrics ? new InMemoryMetrics() : null;
+        if (listener != null) {
+            builder.withListener(listener);
+        }
+        final var validator = builder.build();
+        final var report = new BatchReport();
+        final var threads = workers == null ? Runtime.getRuntime().availableProcessors() : workers;
+        final var executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            for (final var file : files) {
+                try (var reader = TrafficReader.open(file)) {
+                    while (true) {
+                        final TrafficRecord record;
+                        try {
+                            record = reader.next();
+                        } catch (final ValidationException ex) {
+                            report.addUnreadable(ex.getMessage());
+                            continue;
+                        }
+                        if (record == null) {
+                            break;
+                        }
+                        executor.execute(() -> validate(validator, record, report));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        report.print(System.out, top);
+        if (listener != null) {
+            listener.print(System.out);
+        }
+        return report.getFailed() == 0 ? 0 : 1;
+    }
+
+    private void validate(final OASValidator validator, final TrafficRecord record, final BatchReport report) {
+        try {
+            final Context context;
+            if (record.getResponse() != null) {
+                context = validator.validate(record.getRequest(), record.getResponse());
+            } else if (live) {
+                context = validator.validate(record.getRequest());
+            } else {
+                context = validator.validateRequest(record.getRequest());
+            }
+            report.add(context);
+        } catch (final RuntimeException ex) {
+            report.addFailure(record.getRequest().getMethod() + " " + record.getRequest().getUri().getPath(), ex.getMessage() == null ? ex.toString() : ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.naqiran.oas.validator.cli;
+
+import com.naqiran.oas.validator.Context;
+
+import javax.annotation.Nonnull;
+import java.io.PrintStream;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Aggregates batch validation results, safe to update from every worker at once.
+ */
+class BatchReport {
+
+    private static final Pattern ARRAY_INDEX = Pattern.compile("/\\d+(?=/|$)");
+
+    private final LongAdder records = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder unreadable = new LongAdder();
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void add(final @Nonnull Context context) {
+        records.increment();
+        var valid = true;
+        for (final var message : context.getMessages()) {
+            if (message.getLevel() == Context.MessageLevel.ERROR) {
+                valid = false;
+                errors.computeIfAbsent(getError(message), key -> new LongAdder()).increment();
+            }
+        }
+        final var stats = operations.computeIfAbsent(getOperation(context), key -> new OperationStats());
+        stats.total.increment();
+        if (!valid) {
+            stats.failed.increment();
+            failed.increment();
+        }
+    }
+
+    void addFailure(final @Nonnull String operation, final @Nonnull String error) {
+        records.increment();
+        failed.increment();
+        final var stats = operations.computeIfAbsent(operation, key -> new OperationStats());
+        stats.total.increment();
+        stats.failed.increment();
+        errors.computeIfAbsent(error, key -> new LongAdder()).increment();
+    }
+
+    void addUnreadable(final @Nonnull String error) {
+        unreadable.increment();
+        errors.computeIfAbsent(error, key -> new LongAdder()).increment();
+    }
+
+    long getFailed() {
+        return failed.sum();
+    }
+
+    void print(final @Nonnull PrintStream out, final int top) {
+        out.printf("Records: %d, Passed: %d, Failed: %d, Unreadable: %d%n", records.sum(), records.sum() - failed.sum(), failed.sum(), unreadable.sum());
+        out.println("Operations:");
+        new TreeMap<>(operations).forEach((operation, stats) -> out.printf("  %-40s total: %8d  failed: %8d%n", operation, stats.total.sum(), stats.failed.sum()));
+        if (!errors.isEmpty()) {
+            out.println("Errors:");
+            errors.entrySet().stream()
+                    .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                    .limit(top)
+                    .forEach(entry -> out.printf("  %8d  %s%n", entry.getValue().sum(), entry.getKey()));
+        }
+    }
+
+    /**
+     * Array indexes are left out of the locations so an error repeated for every element of an array is counted once.
+     */
+    static String getError(final Context.Message message) {
+        if (message.getCode() == null || message.getLocation() == null || !message.getLocation().startsWith("/")) {
+            return message.getMessage();
+        }
+        return message.getCode().format(ARRAY_INDEX.matcher(message.getLocation()).replaceAll("/*"), message.getExpected(), message.getActual());
+    }
+
+    static String getOperation(final Context context) {
+        return context.getOperationName();
+    }
+
+    private static class OperationStats {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+    }
+}
@@ -0,0 +1,76 @@
+package com.naqiran.oas.validator.cli;
+
+import com.naqiran.oas.validator.load.PayloadGenerator;
+import picocli.CommandLine;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+import static picocli.CommandLine.Command;
+import static picocli.CommandLine.Model.CommandSpec;
+import static picocli.CommandLine.Option;
+import static picocli.CommandLine.Parameters;
+import static picocli.CommandLine.ParentCommand;
+import static picocli.CommandLine.Spec;
+
+@Command(name = "generate", description = "Write a JSON payload generated from the body schema of an operation")
+public class GenerateCommand implements Callable<Integer> {
+
+    @ParentCommand
+    private OASValidatorCommand parent;
+
+    @Spec
+    private CommandSpec spec;
+
+    @Parameters(description = "File the payload is written to, standard output by default", arity = "0..1")
+    private Path output;
+
+    @Option(names = {"-o", "--operation"}, description = "Operation id or 'METHOD /path' of the body", required = true)
+    private String operation;
+
+    @Option(names = {"--response"}, description = "Status of the response body to generate instead of the request body")
+    private String status;
+
+    @Option(names = {"--size"}, description = "Minimum payload size in bytes, with an optional k, m or g suffix", defaultValue = "0")
+    private String size;
+
+    @Option(names = {"--seed"}, description = "Seed of the random values, the same seed writes the same payload", defaultValue = "0")
+    private long seed;
+
+    @Option(names = {"--invalid"}, description = "Chance from 0 to 1 of every value to break its schema", defaultValue = "0")
+    private double invalidRate;
+
+    @Override
+    public Integer call() throws IOException {
+        final var generator = PayloadGenerator.builder(parent.getSchema(), operation)
+                .withResponse(status)
+                .withSeed(seed)
+                .withSize(parseSize())
+                .withInvalidRate(invalidRate)
+                .build();
+        final long violations;
+        if (output == null) {
+            final var out = new BufferedOutputStream(System.out);
+            violations = generator.write(out);
+            out.flush();
+        } else {
+            violations = generator.write(output);
+        }
+        System.err.printf("Invalid values: %d%n", violations);
+        return 0;
+    }
+
+    private long parseSize() {
+        final var value = size.trim().toLowerCase(Locale.ROOT);
+        final var unit = value.isEmpty() ? ' ' : value.charAt(value.length() - 1);
+        final var shift = unit == 'k' ? 10 : unit == 'm' ? 20 : unit == 'g' ? 30 : 0;
+        try {
+            return Long.parseLong(shift == 0 ? value : value.substring(0, value.length() - 1)) << shift;
+        } catch (final NumberFormatException ex) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Invalid size: " + size);
+        }
+    }
+}
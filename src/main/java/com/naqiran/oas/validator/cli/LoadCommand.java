@@ -0,0 +1,166 @@
+package com.naqiran.oas.validator.cli;
+
+import com.naqiran.oas.validator.load.LoadReport;
+import com.naqiran.oas.validator.load.LoadRunner;
+import com.naqiran.oas.validator.load.RequestGenerator;
+import io.swagger.v3.oas.models.OpenAPI;
+import picocli.CommandLine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import static picocli.CommandLine.Command;
+import static picocli.CommandLine.Model.CommandSpec;
+import static picocli.CommandLine.Option;
+import static picocli.CommandLine.Parameters;
+import static picocli.CommandLine.ParentCommand;
+import static picocli.CommandLine.Spec;
+
+@Command(name = "load", description = "Send generated requests at a target rate or concurrency and validate every response")
+public class LoadCommand implements Callable<Integer> {
+
+    private static final String REPORT_PREFIX = "load-report: ";
+
+    @ParentCommand
+    private OASValidatorCommand parent;
+
+    @Spec
+    private CommandSpec spec;
+
+    @Parameters(description = "Base URL of the API, defaults to the first server of the schema", arity = "0..1")
+    private URI target;
+
+    @Option(names = {"-o", "--operation"}, description = "Operation id or 'METHOD /path' to load, every operation by default")
+    private List<String> operations;
+
+    @Option(names = {"--data"}, description = "Newline delimited JSON file of parameter values and bodies, schema examples are used otherwise")
+    private Path data;
+
+    @Option(names = {"-r", "--rate"}, description = "Requests per second, 0 sends as fast as the concurrency allows", defaultValue = "0")
+    private double rate;
+
+    @Option(names = {"-c", "--concurrency"}, description = "Maximum number of requests in flight", defaultValue = "64")
+    private int concurrency;
+
+    @Option(names = {"-n", "--requests"}, description = "Number of requests to send, 1000 when no duration is given")
+    private Long requests;
+
+    @Option(names = {"--duration"}, description = "Duration of the load in seconds")
+    private Long duration;
+
+    @Option(names = {"--processes"}, description = "Number of local worker processes sharing the load", defaultValue = "1")
+    private int processes;
+
+    @Option(names = {"--worker"}, description = "Partition taken by a worker process, as index/count", hidden = true)
+    private String worker;
+
+    @Override
+    public Integer call() throws IOException, InterruptedException {
+        final LoadReport report;
+        if (worker != null) {
+            final var partition = worker.split("/");
+            report = run(Integer.parseInt(partition[0]), Integer.parseInt(partition[1]));
+            System.out.println(REPORT_PREFIX + report.encode());
+            return 0;
+        }
+        report = processes > 1 ? runWorkers() : run(0, 1);
+        report.print(System.out);
+        return report.getInvalid() == 0 && report.getFailed() == 0 ? 0 : 1;
+    }
+
+    /**
+     * Runs the share of the load of one partition, the rate and concurrency are divided between the partitions.
+     */
+    private LoadReport run(final int partition, final int partitions) throws InterruptedException {
+        final var contract = parent.getSchema();
+        final var generator = RequestGenerator.builder(contract, target != null ? target : getServer(contract)).withData(data);
+        if (operations != null) {
+            operations.forEach(generator::withOperation);
+        }
+        final var runner = LoadRunner.builder(parent.getValidatorBuilder().build(), generator.build())
+                .withRate(rate / partitions)
+                .withConcurrency(Math.max(1, (concurrency + partitions - 1) / partitions))
+                .withPartition(partition, partitions);
+        final var total = requests != null ? requests : duration == null ? 1000L : null;
+        if (total != null) {
+            runner.withRequests((total - partition + partitions - 1) / partitions);
+        }
+        if (duration != null) {
+            runner.withDuration(Duration.ofSeconds(duration));
+        }
+        return runner.build().run();
+    }
+
+    /**
+     * Starts a JVM per partition with the same command line and merges the reports they print.
+     */
+    private LoadReport runWorkers() throws IOException, InterruptedException {
+        final var java = ProcessHandle.current().info().command().orElse("java");
+        final var args = spec.root().commandLine().getParseResult().originalArgs();
+        final List<Process> workers = new ArrayList<>();
+        for (int index = 0; index < processes; index++) {
+            final List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"), OASValidatorCommand.class.getName()));
+            command.addAll(args);
+            command.add("--worker");
+            command.add(index + "/" + processes);
+            workers.add(new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start());
+        }
+        final var report = new LoadReport();
+        final List<Thread> readers = new ArrayList<>();
+        for (final var process : workers) {
+            final var reader = new Thread(() -> readReport(process, report), "load-worker-" + process.pid());
+            reader.start();
+            readers.add(reader);
+        }
+        for (int index = 0; index < workers.size(); index++) {
+            readers.get(index).join();
+            if (workers.get(index).waitFor() != 0) {
+                throw new CommandLine.ExecutionException(spec.commandLine(), "Load worker " + index + " exited with " + workers.get(index).exitValue());
+            }
+        }
+        return report;
+    }
+
+    private static void readReport(final Process process, final LoadReport report) {
+        try (var reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(REPORT_PREFIX)) {
+                    report.merge(LoadReport.decode(line.substring(REPORT_PREFIX.length())));
+                } else {
+                    System.out.println(line);
+                }
+            }
+        } catch (final IOException ex) {
+            System.err.println("Could not read the load worker report: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * @return the first server of the contract with an absolute URL, variables replaced by their defaults
+     */
+    private URI getServer(final OpenAPI contract) {
+        if (contract.getServers() != null) {
+            for (final var server : contract.getServers()) {
+                var url = server.getUrl();
+                if (server.getVariables() != null) {
+                    for (final var variable : server.getVariables().entrySet()) {
+                        url = url.replace('{' + variable.getKey() + '}', variable.getValue().getDefault());
+                    }
+                }
+                if (url.startsWith("http://") || url.startsWith("https://")) {
+                    return URI.create(url);
+                }
+            }
+        }
+        throw new CommandLine.ParameterException(spec.commandLine(), "Missing required parameter: '<target>', the schema has no absolute server URL");
+    }
+}
@@ -2,38 +2,49 @@ package com.naqiran.oas.validator.cli;
 
 import com.naqiran.oas.validator.OASValidator;
 import com.naqiran.oas.validator.Request;
+import com.naqiran.oas.validator.SpecCache;
+import com.naqiran.oas.validator.utils.ParameterParser;
+import io.swagger.v3.oas.models.OpenAPI;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpHeaders;
 import org.apache.http.entity.ContentType;
 import picocli.CommandLine;
 
 import javax.annotation.Nonnull;
+import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 
 import static picocli.CommandLine.Command;
+import static picocli.CommandLine.Model.CommandSpec;
 import static picocli.CommandLine.Option;
 import static picocli.CommandLine.Parameters;
+import static picocli.CommandLine.Spec;
 
-@Command(name = "oas-validator")
+@Command(name = "oas-validator", subcommands = {BatchCommand.class, ProxyCommand.class, LoadCommand.class, GenerateCommand.class})
 public class OASValidatorCommand implements Callable<String> {
 
-    @Parameters(description = "API Endpoint URL")
+    @Spec
+    private CommandSpec spec;
+
+    @Parameters(description = "API Endpoint URL", arity = "0..1")
     private URI uri;
 
     @Option(names = {"-X", "--method"}, description = "HTTP Method", defaultValue = "GET")
     private String method;
 
-    @Option(names = {"-d", "--data"}, description = "HTTP Request Body", defaultValue = "")
+    @Option(names = {"-d", "--data"}, description = "HTTP Request Body, prefix with @ to read it from a file", defaultValue = "")
     private String requestBody;
 
     @Option(names = {"-H", "--headers", "Pass custom header(s) to server"})
     private List<String> headers;
 
-    @Option(names = {"-b", "--cookie"}, description = "Send cookies from string/file")
+    @Option(names = {"-b", "--cookie"}, description = "Send cookies, name=value pairs separated by ;")
     private List<String> cookies;
 
     @Option(names = {"-s", "--schema"}, description = "Open API Schema URL or File", required = true)
@@ -42,6 +53,21 @@ public class OASValidatorCommand implements Callable<String> {
     @Option(names = {"--connect-timeout"}, description = "Connection timeout in seconds", defaultValue = "60")
     private Integer connectionTimeout;
 
+    @Option(names = {"-m", "--max-time"}, description = "Maximum time in seconds for the request")
+    private Integer maxTime;
+
+    @Option(names = {"--streaming"}, description = "Validate JSON bodies without building the whole document in memory")
+    private boolean streaming;
+
+    @Option(names = {"--fail-fast"}, description = "Stop the validation at the first error")
+    private boolean failFast;
+
+    @Option(names = {"--max-errors"}, description = "Stop the validation after this many errors, 0 reports every error", defaultValue = "0")
+    private int maxErrors;
+
+    @Option(names = {"--cache-dir"}, description = "Directory for snapshots of the parsed schema, reused while the schema is unchanged")
+    private Path cacheDirectory;
+
     @Option(names = {"-h", "--help"}, usageHelp = true)
     private boolean help;
 
@@ -49,13 +75,40 @@ public class OASValidatorCommand implements Callable<String> {
     private boolean versionHelp;
 
     @Override
-    public String call() {
-        var request = Request.builder(uri, method).withHeader(getHeaders()).withBody(requestBody);
-        var messages = OASValidator.builder().withSchema(schema).build().validate(request);
+    public String call() throws IOException {
+        if (uri == null) {
+            throw new CommandLine.ParameterException(spec.commandLine(), "Missing required parameter: '<uri>'");
+        }
+        var request = Request.builder(uri, method).withHeader(getHeaders())
+                .withCookie(ParameterParser.parseCookies(cookies));
+        if (requestBody.startsWith("@")) {
+            request.withBody(Path.of(requestBody.substring(1)));
+        } else {
+            request.withBody(requestBody);
+        }
+        var messages = getValidatorBuilder().build().validate(request);
         messages.getMessages().forEach(System.out::println);
         return "success";
     }
 
+    @Nonnull
+    OASValidator.Builder getValidatorBuilder() {
+        return OASValidator.builder().withSchema(schema)
+                .withStreaming(streaming)
+                .withMaxErrors(failFast ? 1 : maxErrors)
+                .withConnectTimeout(Duration.ofSeconds(connectionTimeout))
+                .withRequestTimeout(maxTime == null ? null : Duration.ofSeconds(maxTime))
+                .withCacheDirectory(cacheDirectory);
+    }
+
+    /**
+     * @return the parsed schema, shared with the validators built from {@link #getValidatorBuilder()}
+     */
+    @Nonnull
+    OpenAPI getSchema() {
+        return SpecCache.load(schema, cacheDirectory);
+    }
+
     @Nonnull
     private Map<String, List<String>> getHeaders() {
         final Map<String, List<String>> headerMap = new HashMap<>();
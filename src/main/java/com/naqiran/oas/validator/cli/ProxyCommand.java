@@ -0,0 +1,79 @@
+package com.naqiran.oas.validator.cli;
+
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.proxy.ValidatingProxy;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+
+import static picocli.CommandLine.Command;
+import static picocli.CommandLine.Option;
+import static picocli.CommandLine.Parameters;
+import static picocli.CommandLine.ParentCommand;
+
+@Command(name = "proxy", description = "Forward live traffic to an upstream and validate it against the schema")
+public class ProxyCommand implements Callable<Integer> {
+
+    @ParentCommand
+    private OASValidatorCommand parent;
+
+    @Parameters(description = "Upstream base URL the traffic is forwarded to", arity = "1")
+    private URI upstream;
+
+    @Option(names = {"-p", "--port"}, description = "Port to listen on", defaultValue = "8080")
+    private int port;
+
+    @Option(names = {"--sample"}, description = "Fraction of the exchanges validated, from 0 to 1", defaultValue = "1")
+    private double sampling;
+
+    @Option(names = {"--route"}, description = "Sampling of the paths starting with a prefix, e.g. --route /orders=0.1")
+    private Map<String, Double> routes;
+
+    @Option(names = {"--blocking"}, description = "Reject invalid requests with a 400 instead of forwarding them")
+    private boolean blocking;
+
+    @Option(names = {"-w", "--workers"}, description = "Number of validation workers")
+    private Integer workers;
+
+    @Option(names = {"--queue"}, description = "Exchanges waiting for validation before new ones are dropped", defaultValue = "1024")
+    private int queueSize;
+
+    @Override
+    public Integer call() throws IOException, InterruptedException {
+        final var builder = ValidatingProxy.builder(parent.getValidatorBuilder().build(), upstream)
+                .withPort(port)
+                .withSampling(sampling)
+                .withBlocking(blocking)
+                .withQueueSize(queueSize)
+                .withListener(ProxyCommand::print);
+        if (routes != null) {
+            routes.forEach(builder::withSampling);
+        }
+        if (workers != null) {
+            builder.withValidationThreads(workers);
+        }
+        final var stopped = new CountDownLatch(1);
+        try (var proxy = builder.start()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(stopped::countDown));
+            System.out.println("Validating proxy listening on " + proxy.getAddress() + " forwarding to " + upstream);
+            stopped.await();
+        }
+        return 0;
+    }
+
+    private static void print(final Context context) {
+        if (context.hasErrors()) {
+            final var request = context.getRequest();
+            final var lines = new StringBuilder(request.getMethod()).append(' ').append(request.getUri());
+            for (final var message : context.getMessages()) {
+                if (message.getLevel() == Context.MessageLevel.ERROR) {
+                    lines.append(System.lineSeparator()).append("  ").append(message);
+                }
+            }
+            System.out.println(lines);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.naqiran.oas.validator.decoder;
+
+import com.naqiran.oas.validator.Body;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.schema.CompiledSchema;
+import com.naqiran.oas.validator.utils.MediaType;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Validates bodies of the media types it supports against the schema the contract gives for the media type. A decoder
+ * is shared by every validation of a validator, so it must keep no state between bodies.
+ * <p>
+ * The built in decoders cover JSON and any {@code +json} media type, newline delimited JSON, URL encoded forms and
+ * multipart forms. Decoders added to the validator builder are asked before the built in ones.
+ */
+public abstract class BodyDecoder {
+
+    private static final List<BodyDecoder> DEFAULTS = List.of(new JsonDecoder(), new JsonLinesDecoder(), new FormDecoder(), new MultipartDecoder());
+
+    /**
+     * @return the built in decoders in the order they are asked
+     */
+    public static @Nonnull List<BodyDecoder> defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @return true when the decoder reads bodies of the media type
+     */
+    public abstract boolean supports(final @Nonnull MediaType mediaType);
+
+    /**
+     * Reads the body and reports its violations of the schema to the context. A body that cannot be read is reported
+     * as an error, never thrown.
+     */
+    public abstract void validate(final @Nonnull Context context, final @Nonnull CompiledSchema schema, final @Nonnull Body body,
+                                  final @Nonnull MediaType mediaType);
+
+    /**
+     * @return the charset parameter of the media type, UTF-8 when it is missing or unknown
+     */
+    static Charset getCharset(final MediaType mediaType) {
+        final var charset = mediaType.getParameter("charset");
+        try {
+            return charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset);
+        } catch (final IllegalArgumentException ex) {
+            return StandardCharsets.UTF_8;
+        }
+    }
+}
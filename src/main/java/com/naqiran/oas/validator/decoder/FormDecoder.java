@@ -0,0 +1,42 @@
+package com.naqiran.oas.validator.decoder;
+
+import com.naqiran.oas.validator.Body;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import com.naqiran.oas.validator.metrics.Stage;
+import com.naqiran.oas.validator.schema.CompiledSchema;
+import com.naqiran.oas.validator.utils.MediaType;
+import com.naqiran.oas.validator.utils.ParameterParser;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decoder of {@code application/x-www-form-urlencoded} bodies. The body is parsed like a query string and each field
+ * is validated against the property of the object schema with its name, a repeated field is an array.
+ */
+class FormDecoder extends BodyDecoder {
+
+    @Override
+    public boolean supports(final @Nonnull MediaType mediaType) {
+        return "application".equals(mediaType.getType()) && "x-www-form-urlencoded".equals(mediaType.getSubtype());
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull CompiledSchema schema, final @Nonnull Body body, final @Nonnull MediaType mediaType) {
+        var start = context.startStage();
+        final String content;
+        try (InputStream input = body.openStream()) {
+            content = new String(input.readAllBytes(), getCharset(mediaType));
+        } catch (final IOException ex) {
+            context.addError(ErrorCode.UNREADABLE_BODY, false, context.getPath(), null, ex.getMessage());
+            return;
+        }
+        final var fields = ParameterParser.parseQuery(content.strip());
+        context.recordStage(Stage.BODY_PARSE, start);
+        start = context.startStage();
+        schema.validateFields(context, "", fields, false);
+        context.recordStage(Stage.SCHEMA, start);
+    }
+}
@@ -0,0 +1,26 @@
+package com.naqiran.oas.validator.decoder;
+
+import com.naqiran.oas.validator.Body;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.SchemaValidator;
+import com.naqiran.oas.validator.schema.CompiledSchema;
+import com.naqiran.oas.validator.utils.MediaType;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Decoder of {@code application/json} and of any media type with the {@code +json} suffix, such as
+ * {@code application/problem+json}.
+ */
+class JsonDecoder extends BodyDecoder {
+
+    @Override
+    public boolean supports(final @Nonnull MediaType mediaType) {
+        return "json".equals(mediaType.getSubtype()) || "json".equals(mediaType.getSuffix());
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull CompiledSchema schema, final @Nonnull Body body, final @Nonnull MediaType mediaType) {
+        SchemaValidator.validateJsonBody(context, schema, body);
+    }
+}
@@ -0,0 +1,73 @@
+package com.naqiran.oas.validator.decoder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Body;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import com.naqiran.oas.validator.metrics.Stage;
+import com.naqiran.oas.validator.schema.CompiledSchema;
+import com.naqiran.oas.validator.utils.DepthLimitedParser;
+import com.naqiran.oas.validator.utils.JsonUtils;
+import com.naqiran.oas.validator.utils.MediaType;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Set;
+
+/**
+ * Decoder of newline delimited JSON. The schema of the media type describes one record, records are read and validated
+ * one line at a time so memory stays bounded by the longest line however long the stream is. Errors are located by
+ * the index of the record, blank lines are skipped and a line that is not valid JSON does not stop the records after
+ * it from being validated.
+ */
+class JsonLinesDecoder extends BodyDecoder {
+
+    private static final Set<String> SUBTYPES = Set.of("x-ndjson", "ndjson", "jsonl", "x-jsonlines", "jsonlines");
+
+    @Override
+    public boolean supports(final @Nonnull MediaType mediaType) {
+        return "application".equals(mediaType.getType()) && SUBTYPES.contains(mediaType.getSubtype());
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull CompiledSchema schema, final @Nonnull Body body, final @Nonnull MediaType mediaType) {
+        context.getPointer().clear();
+        final var start = context.startStage();
+        try (var reader = new BufferedReader(new InputStreamReader(body.openStream(), getCharset(mediaType)))) {
+            var index = 0;
+            for (var line = reader.readLine(); line != null && !context.isHalted(); line = reader.readLine()) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                context.getPointer().push(index++);
+                try {
+                    if (context.isStreaming()) {
+                        try (var parser = DepthLimitedParser.of(JsonUtils.getMapper().createParser(line), context.getMaxDepth())) {
+                            if (parser.nextToken() != null) {
+                                schema.validate(context, parser, false);
+                            }
+                        }
+                    } else {
+                        try (var parser = DepthLimitedParser.of(JsonUtils.getMapper().createParser(line), context.getMaxDepth())) {
+                            final JsonNode node = JsonUtils.getMapper().readTree(parser);
+                            schema.validate(context, node, false);
+                        }
+                    }
+                } catch (final DepthLimitedParser.DepthException ex) {
+                    context.getPointer().truncate(1);
+                    context.addError(ErrorCode.MAX_DEPTH, false, null, ex.getMaxDepth(), "JSON");
+                } catch (final JsonProcessingException ex) {
+                    context.addError(ErrorCode.INVALID_JSON, false, null, ex.getOriginalMessage());
+                } finally {
+                    context.getPointer().pop();
+                }
+            }
+        } catch (final IOException ex) {
+            context.addError(ErrorCode.UNREADABLE_BODY, false, null, ex.getMessage());
+        }
+        context.recordStage(Stage.SCHEMA, start);
+    }
+}
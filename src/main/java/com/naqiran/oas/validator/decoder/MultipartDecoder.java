@@ -0,0 +1,121 @@
+package com.naqiran.oas.validator.decoder;
+
+import com.naqiran.oas.validator.Body;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import com.naqiran.oas.validator.metrics.Stage;
+import com.naqiran.oas.validator.schema.CompiledSchema;
+import com.naqiran.oas.validator.utils.MediaType;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Decoder of {@code multipart/form-data} bodies. Each part is a field named by its {@code Content-Disposition} and is
+ * validated against the property of the object schema with that name, parts of the same name form an array. Files,
+ * parts with a file name, are binary content and are not validated.
+ */
+class MultipartDecoder extends BodyDecoder {
+
+    private static final String CRLF = "\r\n";
+
+    @Override
+    public boolean supports(final @Nonnull MediaType mediaType) {
+        return "multipart".equals(mediaType.getType()) && "form-data".equals(mediaType.getSubtype());
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull CompiledSchema schema, final @Nonnull Body body, final @Nonnull MediaType mediaType) {
+        var start = context.startStage();
+        final var boundary = mediaType.getParameter("boundary");
+        if (boundary == null || boundary.isEmpty()) {
+            context.addError(ErrorCode.MALFORMED_BODY, false, context.getPath(), mediaType, "boundary is missing");
+            return;
+        }
+        final byte[] content;
+        try (InputStream input = body.openStream()) {
+            content = input.readAllBytes();
+        } catch (final IOException ex) {
+            context.addError(ErrorCode.UNREADABLE_BODY, false, context.getPath(), null, ex.getMessage());
+            return;
+        }
+        final Map<String, List<String>> fields = new LinkedHashMap<>();
+        final var error = parse(content, "--" + boundary, getCharset(mediaType), fields);
+        if (error != null) {
+            context.addError(ErrorCode.MALFORMED_BODY, false, context.getPath(), mediaType, error);
+            return;
+        }
+        context.recordStage(Stage.BODY_PARSE, start);
+        start = context.startStage();
+        schema.validateFields(context, "", fields, false);
+        context.recordStage(Stage.SCHEMA, start);
+    }
+
+    /**
+     * Bytes are mapped one to one to characters to find the delimiters, the content of a part is decoded from the bytes
+     * with the charset.
+     *
+     * @return the reason the body is malformed or null once the fields are read
+     */
+    private static String parse(final byte[] content, final String delimiter, final Charset charset, final Map<String, List<String>> fields) {
+        final var text = new String(content, StandardCharsets.ISO_8859_1);
+        var index = text.indexOf(delimiter);
+        if (index < 0) {
+            return "boundary not found";
+        }
+        while (true) {
+            var position = index + delimiter.length();
+            if (text.startsWith("--", position)) {
+                return null;
+            }
+            position = text.indexOf(CRLF, position);
+            if (position < 0) {
+                return "part is not terminated";
+            }
+            position += CRLF.length();
+            final var headersEnd = text.startsWith(CRLF, position) ? position : text.indexOf(CRLF + CRLF, position);
+            if (headersEnd < 0) {
+                return "part headers are not terminated";
+            }
+            final var contentStart = headersEnd + (headersEnd == position ? CRLF.length() : 2 * CRLF.length());
+            final var next = text.indexOf(CRLF + delimiter, contentStart);
+            if (next < 0) {
+                return "part is not terminated";
+            }
+            String name = null;
+            var file = false;
+            for (final var header : text.substring(position, headersEnd).split(CRLF)) {
+                final var separator = header.indexOf(':');
+                if (separator > 0 && "content-disposition".equals(header.substring(0, separator).trim().toLowerCase(Locale.ROOT))) {
+                    for (final var parameter : header.substring(separator + 1).split(";")) {
+                        final var equals = parameter.indexOf('=');
+                        if (equals > 0) {
+                            final var key = parameter.substring(0, equals).trim().toLowerCase(Locale.ROOT);
+                            if ("name".equals(key)) {
+                                name = unquote(parameter.substring(equals + 1).trim());
+                            } else if ("filename".equals(key) || "filename*".equals(key)) {
+                                file = true;
+                            }
+                        }
+                    }
+                }
+            }
+            if (name != null && !file) {
+                fields.computeIfAbsent(name, key -> new ArrayList<>()).add(new String(content, contentStart, next - contentStart, charset));
+            }
+            index = next + CRLF.length();
+        }
+    }
+
+    private static String unquote(final String value) {
+        return value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"") ? value.substring(1, value.length() - 1) : value;
+    }
+}
@@ -0,0 +1,89 @@
+package com.naqiran.oas.validator.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.naqiran.oas.validator.schema.ReferenceGraph;
+import com.naqiran.oas.validator.utils.JsonUtils;
+import io.swagger.v3.oas.models.media.MediaType;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+
+import javax.annotation.Nullable;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Example values of parameters and bodies written in the contract: the example of the parameter or media type, then
+ * the example, default or first enum value of its schema. Values that are not written in the contract are left to
+ * the {@link PayloadGenerator}.
+ */
+final class Examples {
+
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private Examples() {
+    }
+
+    /**
+     * @return the example of the parameter or null when the contract has none
+     */
+    static @Nullable JsonNode of(final Parameter parameter, final ReferenceGraph references) {
+        if (parameter.getExample() != null) {
+            return toNode(parameter.getExample(), parameter.getSchema());
+        }
+        if (parameter.getExamples() != null && !parameter.getExamples().isEmpty()) {
+            final var example = parameter.getExamples().values().iterator().next();
+            if (example.getValue() != null) {
+                return toNode(example.getValue(), parameter.getSchema());
+            }
+        }
+        return of(parameter.getSchema(), references);
+    }
+
+    /**
+     * @return the example of the body or null when the contract has none
+     */
+    static @Nullable JsonNode of(final MediaType mediaType, final ReferenceGraph references) {
+        if (mediaType.getExample() != null) {
+            return toNode(mediaType.getExample(), mediaType.getSchema());
+        }
+        if (mediaType.getExamples() != null && !mediaType.getExamples().isEmpty()) {
+            final var example = mediaType.getExamples().values().iterator().next();
+            if (example.getValue() != null) {
+                return toNode(example.getValue(), mediaType.getSchema());
+            }
+        }
+        return of(mediaType.getSchema(), references);
+    }
+
+    private static JsonNode of(final Schema<?> reference, final ReferenceGraph references) {
+        final var schema = reference == null || reference.get$ref() == null ? reference : references.getSchema(reference.get$ref());
+        if (schema == null) {
+            return null;
+        }
+        if (schema.getExample() != null) {
+            return toNode(schema.getExample(), schema);
+        }
+        if (schema.getDefault() != null) {
+            return toNode(schema.getDefault(), schema);
+        }
+        if (schema.getEnum() != null && !schema.getEnum().isEmpty()) {
+            return toNode(schema.getEnum().get(0), schema);
+        }
+        return null;
+    }
+
+    /**
+     * Dates of {@code date} and {@code date-time} examples are parsed into {@link Date} by the parser and written
+     * back in their format.
+     */
+    static JsonNode toNode(final Object value, final Schema<?> schema) {
+        if (value instanceof Date) {
+            final var format = new SimpleDateFormat(schema != null && "date".equals(schema.getFormat()) ? "yyyy-MM-dd" : "yyyy-MM-dd'T'HH:mm:ss'Z'");
+            format.setTimeZone(TimeZone.getTimeZone("UTC"));
+            return NODES.textNode(format.format((Date) value));
+        }
+        return JsonUtils.getMapper().valueToTree(value);
+    }
+}
@@ -0,0 +1,198 @@
+package com.naqiran.oas.validator.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import com.naqiran.oas.validator.ValidationException;
+import com.naqiran.oas.validator.utils.JsonUtils;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+
+/**
+ * Results of a load run: a latency histogram over all requests and one per operation, the number of requests, of
+ * requests the API did not answer and of answered requests that broke the contract, and the errors by code.
+ * <p>
+ * Reports of the worker processes of a distributed run are sent to the parent as one line of JSON with the histograms
+ * in their compressed encoding and merged there, so the percentiles are those of every request and not an average of
+ * the percentiles of each worker.
+ */
+@ThreadSafe
+public class LoadReport {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Histogram latency = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private final Map<String, Histogram> operations = new ConcurrentHashMap<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+    private final AtomicLong elapsed = new AtomicLong();
+
+    /**
+     * Records a validated exchange, the latency is counted from the time the request was due to be sent.
+     */
+    public void record(final @Nonnull Context context, final long latencyNanos) {
+        final var nanos = Math.max(latencyNanos, 0);
+        latency.recordValue(nanos);
+        operations.computeIfAbsent(context.getOperationName(), key -> new ConcurrentHistogram(SIGNIFICANT_DIGITS)).recordValue(nanos);
+        requests.increment();
+        var requestFailed = false;
+        for (final var message : context.getMessages()) {
+            if (message.getLevel() == Context.MessageLevel.ERROR) {
+                requestFailed |= message.getCode() == ErrorCode.REQUEST_FAILED;
+                errors.computeIfAbsent(message.getCode() == null ? "OTHER" : message.getCode().name(), key -> new LongAdder()).increment();
+            }
+        }
+        if (requestFailed) {
+            failed.increment();
+        } else if (context.hasErrors()) {
+            invalid.increment();
+        }
+    }
+
+    /**
+     * Records a request that could not be validated at all, counted as a failed request.
+     */
+    void recordFailure(final @Nonnull String operation, final @Nonnull Throwable error, final long latencyNanos) {
+        final var nanos = Math.max(latencyNanos, 0);
+        latency.recordValue(nanos);
+        operations.computeIfAbsent(operation, key -> new ConcurrentHistogram(SIGNIFICANT_DIGITS)).recordValue(nanos);
+        requests.increment();
+        failed.increment();
+        errors.computeIfAbsent(error.getClass().getSimpleName(), key -> new LongAdder()).increment();
+    }
+
+    void setElapsed(final @Nonnull Duration duration) {
+        elapsed.set(duration.toNanos());
+    }
+
+    /**
+     * Adds the results of another report, the elapsed time is the longest of both as workers run side by side.
+     */
+    public void merge(final @Nonnull LoadReport other) {
+        latency.add(other.latency);
+        other.operations.forEach((operation, histogram) ->
+                operations.computeIfAbsent(operation, key -> new ConcurrentHistogram(SIGNIFICANT_DIGITS)).add(histogram));
+        requests.add(other.requests.sum());
+        failed.add(other.failed.sum());
+        invalid.add(other.invalid.sum());
+        other.errors.forEach((code, count) -> errors.computeIfAbsent(code, key -> new LongAdder()).add(count.sum()));
+        elapsed.accumulateAndGet(other.elapsed.get(), Math::max);
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * @return the number of requests without a response
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    /**
+     * @return the number of exchanges with contract violations
+     */
+    public long getInvalid() {
+        return invalid.sum();
+    }
+
+    /**
+     * @return a copy of the latencies in nanoseconds
+     */
+    public @Nonnull Histogram getLatency() {
+        return latency.copy();
+    }
+
+    public void print(final @Nonnull PrintStream out) {
+        final var total = requests.sum();
+        final var seconds = elapsed.get() / 1e9;
+        out.printf("Requests: %d, Failed: %d, Invalid: %d, Violation rate: %.2f%%, Throughput: %.1f/s%n", total, failed.sum(), invalid.sum(),
+                total == 0 ? 0.0 : invalid.sum() * 100.0 / total, seconds == 0 ? 0.0 : total / seconds);
+        out.printf("  %-40s %10s %10s %10s %10s %10s %10s%n", "latency (ms)", "count", "p50", "p90", "p99", "p99.9", "max");
+        print(out, "all", latency);
+        new TreeMap<>(operations).forEach((operation, histogram) -> print(out, operation, histogram));
+        if (!errors.isEmpty()) {
+            out.println("Errors:");
+            new TreeMap<>(errors).forEach((code, count) -> out.printf("  %8d  %s%n", count.sum(), code));
+        }
+    }
+
+    private static void print(final PrintStream out, final String name, final Histogram histogram) {
+        out.printf("  %-40s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n", name, histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50) / MILLIS, histogram.getValueAtPercentile(90) / MILLIS,
+                histogram.getValueAtPercentile(99) / MILLIS, histogram.getValueAtPercentile(99.9) / MILLIS, histogram.getMaxValue() / MILLIS);
+    }
+
+    /**
+     * @return the report as a single line of JSON, read back with {@link #decode(String)}
+     */
+    public @Nonnull String encode() {
+        final var node = JsonUtils.getMapper().createObjectNode();
+        node.put("requests", requests.sum());
+        node.put("failed", failed.sum());
+        node.put("invalid", invalid.sum());
+        node.put("elapsed", elapsed.get());
+        node.put("latency", encode(latency));
+        final var operationNodes = node.putObject("operations");
+        operations.forEach((operation, histogram) -> operationNodes.put(operation, encode(histogram)));
+        final var errorNodes = node.putObject("errors");
+        errors.forEach((code, count) -> errorNodes.put(code, count.sum()));
+        return node.toString();
+    }
+
+    public static @Nonnull LoadReport decode(final @Nonnull String encoded) {
+        final JsonNode node;
+        try {
+            node = JsonUtils.getMapper().readTree(encoded);
+        } catch (final IOException ex) {
+            throw new ValidationException("Invalid load report: " + ex.getMessage());
+        }
+        final var report = new LoadReport();
+        report.requests.add(node.path("requests").asLong());
+        report.failed.add(node.path("failed").asLong());
+        report.invalid.add(node.path("invalid").asLong());
+        report.elapsed.set(node.path("elapsed").asLong());
+        report.latency.add(decodeHistogram(node.path("latency").asText()));
+        node.path("operations").fields().forEachRemaining(field -> {
+            final var histogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+            histogram.add(decodeHistogram(field.getValue().asText()));
+            report.operations.put(field.getKey(), histogram);
+        });
+        node.path("errors").fields().forEachRemaining(field -> report.errors.computeIfAbsent(field.getKey(), key -> new LongAdder()).add(field.getValue().asLong()));
+        return report;
+    }
+
+    private static String encode(final Histogram histogram) {
+        final var buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        final var length = histogram.copy().encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private static Histogram decodeHistogram(final String encoded) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(encoded)), 0);
+        } catch (final DataFormatException | IllegalArgumentException ex) {
+            throw new ValidationException("Invalid latency histogram in load report: " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.naqiran.oas.validator.load;
+
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.ValidationException;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Sends generated requests at a fixed rate or as fast as the concurrency allows, validating every exchange as its
+ * response arrives on the executor of the http client. Requests are scheduled at {@code start + n / rate}; when the
+ * API slows down and the in-flight limit holds a request back, its latency still counts from the time it was due, so
+ * a stall shows in the percentiles instead of only lowering the throughput.
+ * <p>
+ * A runner can take one partition of a run split across processes: it then sends every {@code count}-th request of
+ * the generator starting at {@code index}, so the workers together send the same requests a single runner would.
+ */
+public class LoadRunner {
+
+    private final OASValidator validator;
+    private final RequestGenerator generator;
+    private final double rate;
+    private final int concurrency;
+    private final long requests;
+    private final Duration duration;
+    private final int partition;
+    private final int partitions;
+
+    private LoadRunner(final Builder builder) {
+        this.validator = builder.validator;
+        this.generator = builder.generator;
+        this.rate = builder.rate;
+        this.concurrency = builder.concurrency;
+        this.requests = builder.requests;
+        this.duration = builder.duration;
+        this.partition = builder.partition;
+        this.partitions = builder.partitions;
+    }
+
+    public static @Nonnull Builder builder(final @Nonnull OASValidator validator, final @Nonnull RequestGenerator generator) {
+        return new Builder(validator, generator);
+    }
+
+    /**
+     * Runs the load and waits for the last response.
+     */
+    public @Nonnull LoadReport run() throws InterruptedException {
+        final var report = new LoadReport();
+        final var permits = new Semaphore(concurrency);
+        final var interval = rate > 0 ? (long) (1_000_000_000L / rate) : 0L;
+        final var start = System.nanoTime();
+        final var deadline = duration == null ? Long.MAX_VALUE : start + duration.toNanos();
+        for (long sent = 0; sent < requests; sent++) {
+            final var due = interval > 0 ? start + sent * interval : System.nanoTime();
+            if (due - deadline >= 0) {
+                break;
+            }
+            long remaining;
+            while ((remaining = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+            permits.acquire();
+            final var request = generator.next(partition + sent * partitions);
+            try {
+                validator.validateAsync(request).whenComplete((context, error) -> {
+                    if (context != null) {
+                        report.record(context, System.nanoTime() - due);
+                    } else {
+                        report.recordFailure(request.getMethod() + ' ' + request.getUri().getPath(), error, System.nanoTime() - due);
+                    }
+                    permits.release();
+                });
+            } catch (final RuntimeException ex) {
+                report.recordFailure(request.getMethod() + ' ' + request.getUri().getPath(), ex, System.nanoTime() - due);
+                permits.release();
+            }
+        }
+        permits.acquire(concurrency);
+        report.setElapsed(Duration.ofNanos(System.nanoTime() - start));
+        return report;
+    }
+
+    public static class Builder {
+        private final OASValidator validator;
+        private final RequestGenerator generator;
+        private double rate;
+        private int concurrency = 64;
+        private long requests = Long.MAX_VALUE;
+        private Duration duration;
+        private int partition;
+        private int partitions = 1;
+
+        private Builder(final OASValidator validator, final RequestGenerator generator) {
+            this.validator = requireNonNull(validator, "Validator should not be null");
+            this.generator = requireNonNull(generator, "Request generator should not be null");
+        }
+
+        /**
+         * Requests sent per second, 0 sends the next request as soon as one of the in-flight requests completes.
+         */
+        @Nonnull
+        public Builder withRate(final double rate) {
+            this.rate = rate;
+            return this;
+        }
+
+        /**
+         * Maximum number of requests in flight, 64 by default.
+         */
+        @Nonnull
+        public Builder withConcurrency(final int concurrency) {
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        @Nonnull
+        public Builder withRequests(final long requests) {
+            this.requests = requests;
+            return this;
+        }
+
+        /**
+         * Stops sending requests once the duration has passed, the requests in flight are still awaited.
+         */
+        @Nonnull
+        public Builder withDuration(final Duration duration) {
+            this.duration = duration;
+            return this;
+        }
+
+        /**
+         * Takes the partition {@code index} of {@code count} partitions of the generated requests.
+         */
+        @Nonnull
+        public Builder withPartition(final int index, final int count) {
+            if (count < 1 || index < 0 || index >= count) {
+                throw new ValidationException("Invalid partition " + index + " of " + count);
+            }
+            this.partition = index;
+            this.partitions = count;
+            return this;
+        }
+
+        public @Nonnull LoadRunner build() {
+            if (concurrency < 1) {
+                throw new ValidationException("Concurrency should be at least 1");
+            }
+            if (rate < 0) {
+                throw new ValidationException("Rate should not be negative");
+            }
+            if (requests == Long.MAX_VALUE && duration == null) {
+                throw new ValidationException("Either the number of requests or the duration of the load is required");
+            }
+            return new LoadRunner(this);
+        }
+    }
+}
@@ -0,0 +1,626 @@
+package com.naqiran.oas.validator.load;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.naqiran.oas.validator.ValidationException;
+import com.naqiran.oas.validator.schema.ReferenceGraph;
+import com.naqiran.oas.validator.utils.JsonUtils;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.ComposedSchema;
+import io.swagger.v3.oas.models.media.Content;
+import io.swagger.v3.oas.models.media.Schema;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writes JSON payloads generated from a schema, for benchmark fixtures and fuzzing. Values are drawn from a random
+ * generator seeded by the caller, so a seed always gives the same bytes. The payload is written as it is generated,
+ * a payload of several gigabytes never sits in memory.
+ * <p>
+ * Values honour the type, format, enum, bounds, multipleOf, length, item count and required keywords, optional
+ * properties are left out half of the time and readOnly properties are left out of requests and writeOnly ones out of
+ * responses. Strings with a pattern use the example of their schema, as a matching value cannot be derived from every
+ * regex. Of composed schemas allOf branches are merged into one object and one branch of oneOf and anyOf is picked.
+ * <p>
+ * With a size optional properties are kept until the first array without maxItems met in the document, which keeps
+ * growing until the payload reaches that many bytes. With an invalid rate every value has that chance of breaking
+ * one keyword of its schema instead: a bound, a length, an enum, a format, a required property, additional properties
+ * or else its type. A value broken inside a oneOf or anyOf branch can still match another branch.
+ */
+@Immutable
+public final class PayloadGenerator {
+
+    /**
+     * Depth from which optional properties are left out and arrays get their minimum number of items, so recursive
+     * schemas come to an end.
+     */
+    private static final int SHALLOW_DEPTH = 16;
+    private static final int MAX_DEPTH = 64;
+    private static final String JSON = "application/json";
+    private static final char[] LETTERS = "abcdefghijklmnopqrstuvwxyz".toCharArray();
+
+    private final ReferenceGraph references;
+    private final Schema<?> schema;
+    private final boolean response;
+    private final long seed;
+    private final long size;
+    private final double invalidRate;
+
+    private PayloadGenerator(final ReferenceGraph references, final Schema<?> schema, final Builder builder) {
+        this.references = references;
+        this.schema = schema;
+        this.response = builder.status != null;
+        this.seed = builder.seed;
+        this.size = builder.size;
+        this.invalidRate = builder.invalidRate;
+    }
+
+    /**
+     * Generates payloads of the request body of the operation, an operation id or {@code METHOD /path}, or of one of
+     * its responses with {@link Builder#withResponse(String)}. A JSON media type is preferred when the body has
+     * several.
+     */
+    public static @Nonnull Builder builder(final @Nonnull OpenAPI contract, final @Nonnull String operation) {
+        return new Builder(requireNonNull(contract, "Contract should not be null"), requireNonNull(operation, "Operation should not be null"), null, null);
+    }
+
+    public static @Nonnull Builder builder(final @Nonnull ReferenceGraph references, final @Nonnull Schema<?> schema) {
+        return new Builder(null, null, requireNonNull(references, "References should not be null"), requireNonNull(schema, "Schema should not be null"));
+    }
+
+    /**
+     * Writes a payload to the stream, which is flushed but left open.
+     *
+     * @return the number of values that were made invalid
+     */
+    public long write(final @Nonnull OutputStream output) throws IOException {
+        final var counter = new CountingOutputStream(output);
+        try (var generator = JsonUtils.getMapper().getFactory().createGenerator(counter, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            final var writer = new Writer(generator, counter, seed);
+            writer.value(schema, 0);
+            return writer.violations;
+        }
+    }
+
+    /**
+     * Generates a payload as a tree with the seed in place of the seed of the builder, for values sent as text such as
+     * parameters or generated per request.
+     */
+    @Nonnull JsonNode generate(final long seed) {
+        final var buffer = new TokenBuffer(JsonUtils.getMapper(), false);
+        try {
+            new Writer(buffer, new CountingOutputStream(OutputStream.nullOutputStream()), seed).value(schema, 0);
+            return JsonUtils.getMapper().readTree(buffer.asParser());
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Writes a payload to the file, replacing its content.
+     *
+     * @return the number of values that were made invalid
+     */
+    public long write(final @Nonnull Path file) throws IOException {
+        try (var output = Files.newOutputStream(file)) {
+            return write(output);
+        }
+    }
+
+    /**
+     * State of one payload: the random values, the bytes written so far, whether the growing array is taken and the
+     * merged object schemas and enum values, so an allOf chain is walked once per payload and not once per item.
+     */
+    private final class Writer {
+        private final SplittableRandom random;
+        private final Map<Schema<?>, Merged> objects = new IdentityHashMap<>();
+        private final Map<Schema<?>, List<JsonNode>> enums = new IdentityHashMap<>();
+        private final CountingOutputStream counter;
+        private JsonGenerator generator;
+        private boolean growing = size > 0;
+        private long violations;
+
+        private Writer(final JsonGenerator generator, final CountingOutputStream counter, final long seed) {
+            this.generator = generator;
+            this.counter = counter;
+            this.random = new SplittableRandom(seed);
+        }
+
+        private void value(final Schema<?> reference, final int depth) throws IOException {
+            final var schema = resolve(reference);
+            if (schema == null || depth > MAX_DEPTH) {
+                generator.writeNull();
+                return;
+            }
+            if (schema instanceof ComposedSchema && ((ComposedSchema) schema).getAllOf() == null) {
+                final var composed = (ComposedSchema) schema;
+                final var branches = composed.getOneOf() != null ? composed.getOneOf() : composed.getAnyOf();
+                if (branches != null && !branches.isEmpty()) {
+                    value(branches.get(random.nextInt(branches.size())), depth + 1);
+                    return;
+                }
+            }
+            final var invalid = invalidRate > 0 && random.nextDouble() < invalidRate;
+            if (invalid) {
+                violations++;
+            }
+            if (schema.getEnum() != null && !schema.getEnum().isEmpty()) {
+                if (invalid) {
+                    generator.writeString("not-in-enum-" + random.nextInt(1000));
+                } else {
+                    final var values = enums.computeIfAbsent(schema, key -> toNodes(key));
+                    generator.writeTree(values.get(random.nextInt(values.size())));
+                }
+                return;
+            }
+            switch (getType(schema)) {
+                case "object":
+                    object(objects.computeIfAbsent(schema, key -> merge(key, new Merged())), depth, invalid);
+                    break;
+                case "array":
+                    array(schema, depth, invalid);
+                    break;
+                case "integer":
+                    integer(schema, invalid);
+                    break;
+                case "number":
+                    number(schema, invalid);
+                    break;
+                case "boolean":
+                    if (invalid) {
+                        generator.writeString("true");
+                    } else {
+                        generator.writeBoolean(random.nextBoolean());
+                    }
+                    break;
+                default:
+                    string(schema, invalid);
+                    break;
+            }
+        }
+
+        private void object(final Merged object, final int depth, final boolean invalid) throws IOException {
+            final var omitted = invalid && !object.required.isEmpty() ? object.required.iterator().next() : null;
+            if (invalid && omitted == null && !Boolean.FALSE.equals(object.additionalProperties)) {
+                generator.writeStartArray();
+                generator.writeEndArray();
+                return;
+            }
+            final var includeOptional = object.minProperties != null || depth < SHALLOW_DEPTH;
+            generator.writeStartObject();
+            for (final var property : object.properties.entrySet()) {
+                final var name = property.getKey();
+                if (name.equals(omitted) || object.excluded.contains(name)) {
+                    continue;
+                }
+                if (object.required.contains(name) || includeOptional && (object.minProperties != null || growing || random.nextBoolean())) {
+                    generator.writeFieldName(name);
+                    value(property.getValue(), depth + 1);
+                }
+            }
+            if (object.additionalProperties instanceof Schema && depth < SHALLOW_DEPTH) {
+                final var extra = random.nextInt(3);
+                for (int index = 0; index < extra; index++) {
+                    generator.writeFieldName("extra" + index);
+                    value((Schema<?>) object.additionalProperties, depth + 1);
+                }
+            }
+            if (invalid && omitted == null) {
+                generator.writeStringField("unexpected" + random.nextInt(1000), "value");
+            }
+            generator.writeEndObject();
+        }
+
+        private void array(final Schema<?> schema, final int depth, final boolean invalid) throws IOException {
+            final var items = schema instanceof ArraySchema ? ((ArraySchema) schema).getItems() : null;
+            final var minItems = schema.getMinItems() == null ? 0 : schema.getMinItems();
+            final var maxItems = schema.getMaxItems() == null ? Integer.MAX_VALUE : schema.getMaxItems();
+            if (invalid && minItems == 0 && maxItems == Integer.MAX_VALUE) {
+                generator.writeStartObject();
+                generator.writeEndObject();
+                return;
+            }
+            final long count;
+            if (invalid) {
+                count = minItems > 0 ? minItems - 1 : (long) maxItems + 1;
+            } else if (depth >= SHALLOW_DEPTH) {
+                count = minItems;
+            } else {
+                count = Math.min(minItems + random.nextInt(4), maxItems);
+            }
+            final var grow = growing && !invalid && maxItems == Integer.MAX_VALUE;
+            growing &= !grow;
+            final Set<JsonNode> unique = Boolean.TRUE.equals(schema.getUniqueItems()) && !grow ? new HashSet<>() : null;
+            generator.writeStartArray();
+            for (long index = 0; index < count || grow && written() < size; index++) {
+                if (unique == null) {
+                    value(items, depth + 1);
+                } else {
+                    uniqueItem(items, depth, unique);
+                }
+            }
+            generator.writeEndArray();
+        }
+
+        /**
+         * Generates an item into a buffer until it differs from the items written before, within a few attempts.
+         */
+        private void uniqueItem(final Schema<?> items, final int depth, final Set<JsonNode> unique) throws IOException {
+            final var target = generator;
+            JsonNode item = null;
+            for (int attempt = 0; attempt < 8 && (item == null || unique.contains(item)); attempt++) {
+                final var buffer = new TokenBuffer(JsonUtils.getMapper(), false);
+                generator = buffer;
+                value(items, depth + 1);
+                item = JsonUtils.getMapper().readTree(buffer.asParser());
+            }
+            generator = target;
+            unique.add(item);
+            generator.writeTree(item);
+        }
+
+        private void integer(final Schema<?> schema, final boolean invalid) throws IOException {
+            final var int32 = "int32".equals(schema.getFormat());
+            var lowest = schema.getMinimum() == null ? (int32 ? Integer.MIN_VALUE : Long.MIN_VALUE) : ceil(schema.getMinimum(), schema.getExclusiveMinimum());
+            var highest = schema.getMaximum() == null ? (int32 ? Integer.MAX_VALUE : Long.MAX_VALUE) : floor(schema.getMaximum(), schema.getExclusiveMaximum());
+            if (invalid) {
+                if (schema.getMinimum() != null) {
+                    generator.writeNumber(lowest - 1);
+                } else if (schema.getMaximum() != null) {
+                    generator.writeNumber(highest + 1);
+                } else {
+                    generator.writeString(String.valueOf(random.nextInt(1000)));
+                }
+                return;
+            }
+            if (schema.getMinimum() == null && schema.getMaximum() == null) {
+                lowest = 0;
+                highest = 1_000_000;
+            } else if (schema.getMinimum() == null) {
+                lowest = highest - 1_000_000;
+            } else if (schema.getMaximum() == null) {
+                highest = lowest + 1_000_000;
+            }
+            final var multipleOf = schema.getMultipleOf();
+            if (multipleOf != null && multipleOf.signum() > 0 && multipleOf.stripTrailingZeros().scale() <= 0) {
+                final var divisor = multipleOf.longValueExact();
+                final var first = Math.floorDiv(lowest + divisor - 1, divisor);
+                final var last = Math.floorDiv(highest, divisor);
+                generator.writeNumber((first + random.nextLong(Math.max(last - first + 1, 1))) * divisor);
+            } else {
+                generator.writeNumber(lowest + random.nextLong(Math.max(highest - lowest + 1, 1)));
+            }
+        }
+
+        private void number(final Schema<?> schema, final boolean invalid) throws IOException {
+            final var minimum = schema.getMinimum();
+            final var maximum = schema.getMaximum();
+            if (invalid) {
+                if (minimum != null) {
+                    generator.writeNumber(minimum.subtract(BigDecimal.ONE));
+                } else if (maximum != null) {
+                    generator.writeNumber(maximum.add(BigDecimal.ONE));
+                } else {
+                    generator.writeString(String.valueOf(random.nextInt(1000)));
+                }
+                return;
+            }
+            final var lowest = minimum != null ? minimum : maximum != null ? maximum.subtract(BigDecimal.valueOf(1_000_000)) : BigDecimal.ZERO;
+            final var highest = maximum != null ? maximum : lowest.add(BigDecimal.valueOf(1_000_000));
+            final var multipleOf = schema.getMultipleOf();
+            if (multipleOf != null && multipleOf.signum() > 0) {
+                final var first = lowest.divide(multipleOf, 0, RoundingMode.CEILING).longValue();
+                final var last = highest.divide(multipleOf, 0, RoundingMode.FLOOR).longValue();
+                var factor = first + random.nextLong(Math.max(last - first + 1, 1));
+                if (Boolean.TRUE.equals(schema.getExclusiveMinimum()) && multipleOf.multiply(BigDecimal.valueOf(factor)).compareTo(lowest) == 0) {
+                    factor++;
+                } else if (Boolean.TRUE.equals(schema.getExclusiveMaximum()) && multipleOf.multiply(BigDecimal.valueOf(factor)).compareTo(highest) == 0) {
+                    factor--;
+                }
+                generator.writeNumber(multipleOf.multiply(BigDecimal.valueOf(factor)));
+                return;
+            }
+            final var first = ceil(lowest.movePointRight(2), schema.getExclusiveMinimum());
+            final var last = floor(highest.movePointRight(2), schema.getExclusiveMaximum());
+            if (first <= last) {
+                generator.writeNumber(BigDecimal.valueOf(first + random.nextLong(last - first + 1), 2));
+            } else {
+                generator.writeNumber(lowest.add(highest).divide(BigDecimal.valueOf(2), RoundingMode.HALF_UP));
+            }
+        }
+
+        private void string(final Schema<?> schema, final boolean invalid) throws IOException {
+            final var minLength = schema.getMinLength() == null ? 0 : schema.getMinLength();
+            final var maxLength = schema.getMaxLength() == null ? Integer.MAX_VALUE : schema.getMaxLength();
+            final var format = schema.getFormat() == null ? "" : schema.getFormat();
+            if (invalid) {
+                if (schema.getMaxLength() != null) {
+                    generator.writeString(letters(maxLength + 1));
+                } else if (minLength > 0) {
+                    generator.writeString(letters(minLength - 1));
+                } else if (isCheckedFormat(format)) {
+                    generator.writeString("not-a-" + format);
+                } else {
+                    generator.writeNumber(random.nextInt(1000));
+                }
+                return;
+            }
+            if (schema.getPattern() != null && schema.getExample() != null) {
+                generator.writeTree(Examples.toNode(schema.getExample(), schema));
+                return;
+            }
+            switch (format) {
+                case "date":
+                    generator.writeString(String.format("%04d-%02d-%02d", 2000 + random.nextInt(30), 1 + random.nextInt(12), 1 + random.nextInt(28)));
+                    break;
+                case "date-time":
+                    generator.writeString(String.format("%04d-%02d-%02dT%02d:%02d:%02dZ", 2000 + random.nextInt(30), 1 + random.nextInt(12),
+                            1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60)));
+                    break;
+                case "uuid":
+                    generator.writeString(new UUID(random.nextLong(), random.nextLong()).toString());
+                    break;
+                case "email":
+                    generator.writeString(letters(8) + "@example.com");
+                    break;
+                case "hostname":
+                    generator.writeString(letters(8) + ".example.com");
+                    break;
+                case "ipv4":
+                    generator.writeString(random.nextInt(256) + "." + random.nextInt(256) + '.' + random.nextInt(256) + '.' + random.nextInt(256));
+                    break;
+                case "byte":
+                    final var bytes = new byte[1 + random.nextInt(32)];
+                    random.nextBytes(bytes);
+                    generator.writeString(Base64.getEncoder().encodeToString(bytes));
+                    break;
+                default:
+                    final var length = Math.min(maxLength, Math.max(minLength, 4) + random.nextInt(12));
+                    generator.writeString(letters(Math.max(length, minLength)));
+                    break;
+            }
+        }
+
+        /**
+         * Takes twelve letters from each random long, five bits a letter.
+         */
+        private String letters(final int length) {
+            final var value = new char[length];
+            long bits = 0;
+            for (int index = 0; index < length; index++) {
+                if (index % 12 == 0) {
+                    bits = random.nextLong();
+                }
+                value[index] = LETTERS[(int) ((bits & 0x1F) % LETTERS.length)];
+                bits >>>= 5;
+            }
+            return new String(value);
+        }
+
+        private long written() {
+            return counter.count + generator.getOutputBuffered();
+        }
+
+        /**
+         * Collects the properties of an object schema and of all its allOf branches.
+         */
+        private Merged merge(final Schema<?> schema, final Merged merged) {
+            if (schema.getProperties() != null) {
+                for (final var property : schema.getProperties().entrySet()) {
+                    merged.properties.putIfAbsent(property.getKey(), property.getValue());
+                    final var target = resolve(property.getValue());
+                    if (target != null && Boolean.TRUE.equals(response ? target.getWriteOnly() : target.getReadOnly())) {
+                        merged.excluded.add(property.getKey());
+                    }
+                }
+            }
+            if (schema.getRequired() != null) {
+                merged.required.addAll(schema.getRequired());
+            }
+            if (schema.getAdditionalProperties() != null && merged.additionalProperties == null) {
+                merged.additionalProperties = schema.getAdditionalProperties();
+            }
+            if (schema.getMinProperties() != null) {
+                merged.minProperties = schema.getMinProperties();
+            }
+            if (schema instanceof ComposedSchema && ((ComposedSchema) schema).getAllOf() != null) {
+                for (final var branch : ((ComposedSchema) schema).getAllOf()) {
+                    final var resolved = resolve(branch);
+                    if (resolved != null) {
+                        merge(resolved, merged);
+                    }
+                }
+            }
+            merged.required.removeAll(merged.excluded);
+            return merged;
+        }
+    }
+
+    private static final class Merged {
+        private final Map<String, Schema<?>> properties = new LinkedHashMap<>();
+        private final Set<String> required = new LinkedHashSet<>();
+        private final Set<String> excluded = new HashSet<>();
+        private Object additionalProperties;
+        private Integer minProperties;
+    }
+
+    private static List<JsonNode> toNodes(final Schema<?> schema) {
+        final List<JsonNode> values = new ArrayList<>(schema.getEnum().size());
+        for (final var value : schema.getEnum()) {
+            values.add(Examples.toNode(value, schema));
+        }
+        return values;
+    }
+
+    private @Nullable Schema<?> resolve(final @Nullable Schema<?> schema) {
+        return schema == null || schema.get$ref() == null ? schema : references.getSchema(schema.get$ref());
+    }
+
+    private static String getType(final Schema<?> schema) {
+        if (schema.getType() != null) {
+            return schema.getType();
+        }
+        if (schema instanceof ArraySchema) {
+            return "array";
+        }
+        return schema.getProperties() != null || schema.getAdditionalProperties() != null || schema instanceof ComposedSchema ? "object" : "string";
+    }
+
+    private static boolean isCheckedFormat(final String format) {
+        return List.of("date", "date-time", "uuid", "email", "hostname", "ipv4").contains(format);
+    }
+
+    private static long ceil(final BigDecimal value, final Boolean exclusive) {
+        final var bound = value.setScale(0, RoundingMode.CEILING);
+        return Boolean.TRUE.equals(exclusive) && bound.compareTo(value) == 0 ? bound.longValue() + 1 : bound.longValue();
+    }
+
+    private static long floor(final BigDecimal value, final Boolean exclusive) {
+        final var bound = value.setScale(0, RoundingMode.FLOOR);
+        return Boolean.TRUE.equals(exclusive) && bound.compareTo(value) == 0 ? bound.longValue() - 1 : bound.longValue();
+    }
+
+    /**
+     * Counts the bytes passed on, writing arrays through rather than byte by byte.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(final OutputStream output) {
+            super(output);
+        }
+
+        @Override
+        public void write(final int value) throws IOException {
+            out.write(value);
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            out.write(bytes, offset, length);
+            count += length;
+        }
+    }
+
+    public static class Builder {
+        private final OpenAPI contract;
+        private final String operation;
+        private final ReferenceGraph references;
+        private final Schema<?> schema;
+        private String status;
+        private long seed;
+        private long size;
+        private double invalidRate;
+
+        private Builder(final OpenAPI contract, final String operation, final ReferenceGraph references, final Schema<?> schema) {
+            this.contract = contract;
+            this.operation = operation;
+            this.references = references;
+            this.schema = schema;
+        }
+
+        /**
+         * Generates the body of the response with the status, e.g. {@code 200} or {@code default}, instead of the
+         * request body.
+         */
+        @Nonnull
+        public Builder withResponse(final @Nullable String status) {
+            this.status = status;
+            return this;
+        }
+
+        @Nonnull
+        public Builder withSeed(final long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Grows the payload to at least this many bytes, 0 leaves every array at a few items.
+         */
+        @Nonnull
+        public Builder withSize(final long size) {
+            this.size = size;
+            return this;
+        }
+
+        /**
+         * Chance from 0 to 1 of every value to break its schema.
+         */
+        @Nonnull
+        public Builder withInvalidRate(final double invalidRate) {
+            this.invalidRate = invalidRate;
+            return this;
+        }
+
+        public @Nonnull PayloadGenerator build() {
+            if (invalidRate < 0 || invalidRate > 1) {
+                throw new ValidationException("Invalid rate should be from 0 to 1");
+            }
+            if (contract == null) {
+                return new PayloadGenerator(references, schema, this);
+            }
+            final var graph = new ReferenceGraph(contract.getComponents());
+            return new PayloadGenerator(graph, findSchema(graph), this);
+        }
+
+        private Schema<?> findSchema(final ReferenceGraph graph) {
+            final var name = RequestGenerator.normalize(operation);
+            final List<String> available = new ArrayList<>();
+            if (contract.getPaths() != null) {
+                for (final var path : contract.getPaths().entrySet()) {
+                    for (final var entry : path.getValue().readOperationsMap().entrySet()) {
+                        final var candidate = entry.getValue();
+                        if (name.equals(candidate.getOperationId()) || name.equals(entry.getKey().name() + ' ' + path.getKey())) {
+                            final Content content;
+                            if (status == null) {
+                                final var requestBody = graph.resolve(candidate.getRequestBody());
+                                content = requestBody == null ? null : requestBody.getContent();
+                            } else {
+                                final var apiResponse = candidate.getResponses() == null ? null : graph.resolve(candidate.getResponses().get(status));
+                                content = apiResponse == null ? null : apiResponse.getContent();
+                            }
+                            if (content == null || content.isEmpty()) {
+                                throw new ValidationException("Operation " + operation + " has no " + (status == null ? "request body" : status + " response body"));
+                            }
+                            final var mediaType = content.containsKey(JSON) ? content.get(JSON)
+                                    : content.entrySet().stream().filter(media -> media.getKey().contains("json")).map(Map.Entry::getValue)
+                                    .findFirst().orElse(content.values().iterator().next());
+                            return requireNonNull(mediaType.getSchema(), "Body of operation " + operation + " has no schema");
+                        }
+                        available.add(entry.getKey().name() + ' ' + path.getKey());
+                    }
+                }
+            }
+            throw new ValidationException("No operation " + operation + " in the schema, operations are " + available);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.naqiran.oas.validator.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Request;
+import com.naqiran.oas.validator.ValidationException;
+import com.naqiran.oas.validator.schema.ReferenceGraph;
+import com.naqiran.oas.validator.utils.JsonUtils;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.Operation;
+import io.swagger.v3.oas.models.PathItem;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import org.apache.http.HttpHeaders;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the requests of a load run from the contract. The chosen operations take turns, and the parameters and body
+ * of each request come from the rows of a data file when one is given, or else from the examples of the contract.
+ * Values without an example are generated from their schema by a {@link PayloadGenerator} seeded by the request
+ * index.
+ * <p>
+ * A data file holds one JSON object per line. Its fields are parameter values by parameter name, the request body is
+ * the {@code body} field and a row with an {@code operation} field, an operation id or {@code METHOD /path}, only
+ * applies to that operation. Parameters missing from a row keep their example value. Rows of an operation are used in
+ * turn, so the request of an index is always the same.
+ */
+@ThreadSafe
+public final class RequestGenerator {
+
+    private static final String OPERATION_FIELD = "operation";
+    private static final String BODY_FIELD = "body";
+
+    private final String base;
+    private final List<Template> templates;
+
+    private RequestGenerator(final String base, final List<Template> templates) {
+        this.base = base;
+        this.templates = templates;
+    }
+
+    public static @Nonnull Builder builder(final @Nonnull OpenAPI contract, final @Nonnull URI target) {
+        return new Builder(contract, target);
+    }
+
+    /**
+     * @return the request of the index, the same index always gives the same request
+     */
+    public @Nonnull Request next(final long index) {
+        final var template = templates.get((int) (index % templates.size()));
+        final var row = template.rows.isEmpty() ? null : template.rows.get((int) (index / templates.size() % template.rows.size()));
+        return template.build(base, row, index);
+    }
+
+    /**
+     * @return the names of the operations requests are generated for
+     */
+    public @Nonnull List<String> getOperations() {
+        final List<String> operations = new ArrayList<>(templates.size());
+        for (final var template : templates) {
+            operations.add(template.name);
+        }
+        return operations;
+    }
+
+    /**
+     * Method of a {@code METHOD /path} operation is upper case, operation ids are kept as they are.
+     */
+    static String normalize(final String operation) {
+        final var separator = operation.indexOf(' ');
+        return separator < 0 ? operation : operation.substring(0, separator).toUpperCase(Locale.ROOT) + ' ' + operation.substring(separator + 1).trim();
+    }
+
+    private static final class Template {
+        private final String name;
+        private final String method;
+        private final String path;
+        private final List<Parameter> parameters;
+        private final Map<String, JsonNode> examples;
+        private final Map<String, PayloadGenerator> generators;
+        private final String contentType;
+        private final JsonNode body;
+        private final PayloadGenerator bodyGenerator;
+        private final List<JsonNode> rows = new ArrayList<>();
+
+        private Template(final String name, final String method, final String path, final List<Parameter> parameters,
+                         final Map<String, JsonNode> examples, final Map<String, PayloadGenerator> generators, final String contentType,
+                         final JsonNode body, final PayloadGenerator bodyGenerator) {
+            this.name = name;
+            this.method = method;
+            this.path = path;
+            this.parameters = parameters;
+            this.examples = examples;
+            this.generators = generators;
+            this.contentType = contentType;
+            this.body = body;
+            this.bodyGenerator = bodyGenerator;
+        }
+
+        private Request build(final String base, final JsonNode row, final long index) {
+            var resolvedPath = path;
+            final var query = new StringBuilder();
+            final Map<String, List<String>> headers = new HashMap<>();
+            final Map<String, List<String>> cookies = new HashMap<>();
+            for (final var parameter : parameters) {
+                final var value = row != null && row.has(parameter.getName()) ? row.get(parameter.getName()) : getExample(parameter.getName(), index);
+                if (value == null || value.isNull()) {
+                    continue;
+                }
+                switch (parameter.getIn()) {
+                    case "path":
+                        resolvedPath = resolvedPath.replace('{' + parameter.getName() + '}', encode(join(value)).replace("+", "%20"));
+                        break;
+                    case "query":
+                        appendQuery(query, parameter, value);
+                        break;
+                    case "header":
+                        headers.put(parameter.getName(), List.of(join(value)));
+                        break;
+                    case "cookie":
+                        cookies.put(parameter.getName(), List.of(join(value)));
+                        break;
+                    default:
+                        break;
+                }
+            }
+            final var payload = row != null && row.has(BODY_FIELD) ? row.get(BODY_FIELD) : getBody(index);
+            if (payload != null && contentType != null) {
+                headers.put(HttpHeaders.CONTENT_TYPE, List.of(contentType));
+            }
+            final var uri = URI.create(base + resolvedPath + (query.length() == 0 ? "" : "?" + query));
+            final var request = Request.builder(uri, method).withHeader(headers).withCookie(cookies);
+            if (payload != null) {
+                request.withBody(payload.isTextual() ? payload.textValue() : payload.toString());
+            }
+            return request;
+        }
+
+        private JsonNode getBody(final long index) {
+            return body != null || bodyGenerator == null ? body : bodyGenerator.generate(index);
+        }
+
+        private JsonNode getExample(final String name, final long index) {
+            final var example = examples.get(name);
+            if (example != null) {
+                return example;
+            }
+            final var generator = generators.get(name);
+            return generator == null ? null : generator.generate(index);
+        }
+
+        /**
+         * Arrays are repeated for every value unless the parameter disables explode, objects are sent as their
+         * properties with explode and as {@code key,value} pairs without.
+         */
+        private static void appendQuery(final StringBuilder query, final Parameter parameter, final JsonNode value) {
+            final var explode = parameter.getExplode() == null || parameter.getExplode();
+            if (value.isArray() && explode) {
+                for (final var item : value) {
+                    appendPair(query, parameter.getName(), text(item));
+                }
+            } else if (value.isObject() && explode) {
+                value.fields().forEachRemaining(field -> appendPair(query, field.getKey(), text(field.getValue())));
+            } else {
+                appendPair(query, parameter.getName(), join(value));
+            }
+        }
+
+        private static void appendPair(final StringBuilder query, final String name, final String value) {
+            if (query.length() > 0) {
+                query.append('&');
+            }
+            query.append(encode(name)).append('=').append(encode(value));
+        }
+
+        private static String join(final JsonNode value) {
+            if (!value.isContainerNode()) {
+                return text(value);
+            }
+            final var joined = new StringBuilder();
+            if (value.isArray()) {
+                for (final var item : value) {
+                    joined.append(joined.length() == 0 ? "" : ",").append(text(item));
+                }
+            } else {
+                value.fields().forEachRemaining(field ->
+                        joined.append(joined.length() == 0 ? "" : ",").append(field.getKey()).append(',').append(text(field.getValue())));
+            }
+            return joined.toString();
+        }
+
+        private static String text(final JsonNode value) {
+            return value.isTextual() ? value.textValue() : value.toString();
+        }
+
+        private static String encode(final String value) {
+            return URLEncoder.encode(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    public static class Builder {
+        private final OpenAPI contract;
+        private final URI target;
+        private final Set<String> operations = new HashSet<>();
+        private Path data;
+
+        private Builder(final OpenAPI contract, final URI target) {
+            this.contract = contract;
+            this.target = target;
+        }
+
+        /**
+         * Generates requests for the operation, an operation id or {@code METHOD /path} as written in the contract.
+         * Without any operation every operation of the contract is used.
+         */
+        @Nonnull
+        public Builder withOperation(final @Nonnull String operation) {
+            this.operations.add(normalize(operation));
+            return this;
+        }
+
+        @Nonnull
+        public Builder withData(final @Nullable Path data) {
+            this.data = data;
+            return this;
+        }
+
+        public @Nonnull RequestGenerator build() {
+            final var references = new ReferenceGraph(contract.getComponents());
+            final Map<String, Template> templates = new LinkedHashMap<>();
+            if (contract.getPaths() != null) {
+                for (final var pathEntry : contract.getPaths().entrySet()) {
+                    for (final var operationEntry : pathEntry.getValue().readOperationsMap().entrySet()) {
+                        final var operation = operationEntry.getValue();
+                        final var method = operationEntry.getKey().name();
+                        final var key = normalize(method + ' ' + pathEntry.getKey());
+                        if (operations.isEmpty() || operations.contains(key) || operation.getOperationId() != null && operations.contains(operation.getOperationId())) {
+                            final var template = compile(references, pathEntry.getValue(), operation, method, pathEntry.getKey());
+                            templates.put(key, template);
+                            if (operation.getOperationId() != null) {
+                                templates.put(operation.getOperationId(), template);
+                            }
+                        }
+                    }
+                }
+            }
+            final List<Template> distinct = new ArrayList<>(new LinkedHashSet<>(templates.values()));
+            if (distinct.isEmpty()) {
+                throw new ValidationException("No operation of the schema matches " + (operations.isEmpty() ? "the load" : operations));
+            }
+            if (data != null) {
+                readRows(templates, distinct);
+            }
+            var base = target.toString();
+            while (base.endsWith("/")) {
+                base = base.substring(0, base.length() - 1);
+            }
+            return new RequestGenerator(base, Collections.unmodifiableList(distinct));
+        }
+
+        private static Template compile(final ReferenceGraph references, final PathItem pathItem, final Operation operation, final String method,
+                                        final String path) {
+            final Map<String, Parameter> merged = new LinkedHashMap<>();
+            for (final var declared : List.of(pathItem.getParameters() == null ? List.<Parameter>of() : pathItem.getParameters(),
+                    operation.getParameters() == null ? List.<Parameter>of() : operation.getParameters())) {
+                for (final var parameter : declared) {
+                    final var resolved = references.resolve(parameter);
+                    merged.put(resolved.getIn() + ':' + resolved.getName(), resolved);
+                }
+            }
+            final Map<String, JsonNode> examples = new HashMap<>();
+            final Map<String, PayloadGenerator> generators = new HashMap<>();
+            for (final var parameter : merged.values()) {
+                final var example = Examples.of(parameter, references);
+                if (example != null) {
+                    examples.put(parameter.getName(), example);
+                } else if (parameter.getSchema() != null) {
+                    generators.put(parameter.getName(), PayloadGenerator.builder(references, parameter.getSchema()).build());
+                }
+            }
+            String contentType = null;
+            JsonNode body = null;
+            PayloadGenerator bodyGenerator = null;
+            final var requestBody = references.resolve(operation.getRequestBody());
+            if (requestBody != null && requestBody.getContent() != null && !requestBody.getContent().isEmpty()) {
+                final var content = requestBody.getContent();
+                contentType = content.containsKey("application/json") ? "application/json" : content.keySet().iterator().next();
+                final var mediaType = content.get(contentType);
+                body = Examples.of(mediaType, references);
+                if (body == null && mediaType.getSchema() != null) {
+                    bodyGenerator = PayloadGenerator.builder(references, mediaType.getSchema()).build();
+                }
+            }
+            final var name = operation.getOperationId() != null ? operation.getOperationId() : method + ' ' + path;
+            return new Template(name, method, path, List.copyOf(merged.values()), examples, generators, contentType, body, bodyGenerator);
+        }
+
+        private void readRows(final Map<String, Template> templates, final List<Template> distinct) {
+            try (var reader = Files.newBufferedReader(data, StandardCharsets.UTF_8)) {
+                String line;
+                var number = 0;
+                while ((line = reader.readLine()) != null) {
+                    number++;
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    final JsonNode row;
+                    try {
+                        row = JsonUtils.getMapper().readTree(line);
+                    } catch (final IOException ex) {
+                        throw new ValidationException("Invalid data row " + number + " of " + data + ": " + ex.getMessage());
+                    }
+                    if (!row.isObject()) {
+                        throw new ValidationException("Data row " + number + " of " + data + " is not a JSON object");
+                    }
+                    if (row.hasNonNull(OPERATION_FIELD)) {
+                        final var template = templates.get(normalize(row.get(OPERATION_FIELD).asText()));
+                        if (template != null) {
+                            template.rows.add(row);
+                        }
+                    } else {
+                        distinct.forEach(template -> template.rows.add(row));
+                    }
+                }
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+}
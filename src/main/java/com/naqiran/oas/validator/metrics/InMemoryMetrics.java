@@ -0,0 +1,153 @@
+package com.naqiran.oas.validator.metrics;
+
+import com.naqiran.oas.validator.ErrorCode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener keeping the metrics of each operation in memory: a histogram of the time spent in each stage and of the
+ * payload sizes, the number of validations and invalid ones and the errors by code. Histograms keep three significant
+ * digits and grow to the largest value recorded, recording is wait free so workers never wait for each other.
+ */
+@ThreadSafe
+public class InMemoryMetrics implements ValidationListener {
+
+    private static final String OTHER_ERROR = "OTHER";
+
+    private final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    @Override
+    public void onStage(final @Nonnull String operation, final @Nonnull Stage stage, final long nanos) {
+        getMetrics(operation).stages.get(stage).recordValue(Math.max(nanos, 0));
+    }
+
+    @Override
+    public void onPayload(final @Nonnull String operation, final @Nonnull Direction direction, final long bytes) {
+        getMetrics(operation).payloads.get(direction).recordValue(bytes);
+    }
+
+    @Override
+    public void onError(final @Nonnull String operation, final @Nullable ErrorCode code) {
+        getMetrics(operation).errors.computeIfAbsent(code == null ? OTHER_ERROR : code.name(), key -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void onComplete(final @Nonnull String operation, final int errors) {
+        final var metrics = getMetrics(operation);
+        metrics.validations.increment();
+        if (errors > 0) {
+            metrics.invalid.increment();
+        }
+    }
+
+    private OperationMetrics getMetrics(final String operation) {
+        return operations.computeIfAbsent(operation, key -> new OperationMetrics());
+    }
+
+    /**
+     * @return the names of the operations validated so far
+     */
+    public @Nonnull Set<String> getOperations() {
+        return Collections.unmodifiableSet(operations.keySet());
+    }
+
+    /**
+     * @return a copy of the stage timings of the operation in nanoseconds, empty when nothing was recorded
+     */
+    public @Nonnull Histogram getStage(final @Nonnull String operation, final @Nonnull Stage stage) {
+        final var metrics = operations.get(operation);
+        return metrics == null ? new Histogram(3) : metrics.stages.get(stage).copy();
+    }
+
+    /**
+     * @return a copy of the body sizes of the operation in bytes, empty when nothing was recorded
+     */
+    public @Nonnull Histogram getPayload(final @Nonnull String operation, final @Nonnull Direction direction) {
+        final var metrics = operations.get(operation);
+        return metrics == null ? new Histogram(3) : metrics.payloads.get(direction).copy();
+    }
+
+    public long getValidations(final @Nonnull String operation) {
+        final var metrics = operations.get(operation);
+        return metrics == null ? 0 : metrics.validations.sum();
+    }
+
+    public long getInvalid(final @Nonnull String operation) {
+        final var metrics = operations.get(operation);
+        return metrics == null ? 0 : metrics.invalid.sum();
+    }
+
+    /**
+     * @return the error counts of the operation by error code, {@code OTHER} for errors without a code
+     */
+    public @Nonnull Map<String, Long> getErrors(final @Nonnull String operation) {
+        final Map<String, Long> errors = new TreeMap<>();
+        final var metrics = operations.get(operation);
+        if (metrics != null) {
+            metrics.errors.forEach((code, count) -> errors.put(code, count.sum()));
+        }
+        return errors;
+    }
+
+    public void reset() {
+        operations.clear();
+    }
+
+    /**
+     * Prints the metrics of every operation, timings in microseconds.
+     */
+    public void print(final @Nonnull PrintStream out) {
+        out.println("Metrics:");
+        for (final var operation : new TreeMap<>(operations).entrySet()) {
+            final var metrics = operation.getValue();
+            out.printf("  %-40s validations: %8d  invalid: %8d%n", operation.getKey(), metrics.validations.sum(), metrics.invalid.sum());
+            metrics.stages.forEach((stage, histogram) -> print(out, stage.name().toLowerCase(Locale.ROOT) + " (us)", histogram.copy(), TimeUnit.MICROSECONDS.toNanos(1)));
+            metrics.payloads.forEach((direction, histogram) -> print(out, direction.name().toLowerCase(Locale.ROOT) + " (bytes)", histogram.copy(), 1));
+            if (!metrics.errors.isEmpty()) {
+                final var errors = new StringBuilder();
+                new TreeMap<>(metrics.errors).forEach((code, count) -> errors.append(errors.length() == 0 ? "" : ", ").append(code).append(": ").append(count.sum()));
+                out.printf("    %-20s %s%n", "errors", errors);
+            }
+        }
+    }
+
+    private static void print(final PrintStream out, final String name, final Histogram histogram, final double unit) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        out.printf("    %-20s count: %8d  mean: %10.1f  p50: %10.1f  p99: %10.1f  max: %10.1f%n", name, histogram.getTotalCount(),
+                histogram.getMean() / unit, histogram.getValueAtPercentile(50) / unit, histogram.getValueAtPercentile(99) / unit,
+                histogram.getMaxValue() / unit);
+    }
+
+    private static class OperationMetrics {
+        private final Map<Stage, Histogram> stages = new EnumMap<>(Stage.class);
+        private final Map<Direction, Histogram> payloads = new EnumMap<>(Direction.class);
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        private final LongAdder validations = new LongAdder();
+        private final LongAdder invalid = new LongAdder();
+
+        private OperationMetrics() {
+            for (final var stage : Stage.values()) {
+                stages.put(stage, new ConcurrentHistogram(3));
+            }
+            for (final var direction : Direction.values()) {
+                payloads.put(direction, new ConcurrentHistogram(3));
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.naqiran.oas.validator.metrics;
+
+/**
+ * Timed step of a validation.
+ */
+public enum Stage {
+    /**
+     * Matching the request path and method to an operation.
+     */
+    ROUTING,
+    /**
+     * Validating the path, query, header and cookie parameters of the request and the headers of the response.
+     */
+    PARAMETERS,
+    /**
+     * Reading a JSON body into a tree, streamed bodies are parsed while they are validated and only report
+     * {@link #SCHEMA}.
+     */
+    BODY_PARSE,
+    /**
+     * Walking a body against its compiled schema.
+     */
+    SCHEMA,
+    /**
+     * Sending the request to the API and receiving its response.
+     */
+    HTTP_CALL
+}
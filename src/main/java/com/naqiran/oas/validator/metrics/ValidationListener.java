@@ -0,0 +1,49 @@
+package com.naqiran.oas.validator.metrics;
+
+import com.naqiran.oas.validator.ErrorCode;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Receives timings, payload sizes and outcomes of validations. A listener is shared by every thread validating with the
+ * same validator, so implementations must be thread safe and should not block. Operations are named by their
+ * operation id, or by method and path template when the contract does not give one.
+ * <p>
+ * Every method does nothing by default. A validator built without a listener, or with {@link #NONE}, does not read the
+ * clock at all.
+ */
+public interface ValidationListener {
+
+    ValidationListener NONE = new ValidationListener() {
+    };
+
+    /**
+     * Called once a stage of the validation is done.
+     */
+    default void onStage(final @Nonnull String operation, final @Nonnull Stage stage, final long nanos) {
+    }
+
+    /**
+     * Called with the length of a request or response body that is validated, bodies of unknown length are not
+     * reported.
+     */
+    default void onPayload(final @Nonnull String operation, final @Nonnull Direction direction, final long bytes) {
+    }
+
+    /**
+     * Called for each error of a finished validation, the code is null for errors reported as free text.
+     */
+    default void onError(final @Nonnull String operation, final @Nullable ErrorCode code) {
+    }
+
+    /**
+     * Called once a validation is finished with the number of errors it reported.
+     */
+    default void onComplete(final @Nonnull String operation, final int errors) {
+    }
+
+    enum Direction {
+        REQUEST, RESPONSE
+    }
+}
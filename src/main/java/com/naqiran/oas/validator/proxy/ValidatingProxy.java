@@ -0,0 +1,527 @@
+package com.naqiran.oas.validator.proxy;
+
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.Request;
+import com.naqiran.oas.validator.Response;
+import com.naqiran.oas.validator.utils.HttpUtils;
+import com.naqiran.oas.validator.utils.JsonUtils;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reverse proxy on the JDK {@link HttpServer} that forwards every exchange to an upstream and validates a sample of the
+ * traffic against the contract. Bodies are buffered once and shared by the forwarded call and the validation.
+ * <p>
+ * By default validation never delays the client: the upstream is called without blocking, its response is written as
+ * soon as it arrives and the sampled exchange is validated afterwards on a bounded validation pool. When the pool is
+ * saturated the exchange is not validated and counted as dropped instead of queueing up latency. In blocking mode the
+ * request of a sampled exchange is validated before it is forwarded and rejected with a 400 when it is invalid.
+ * <p>
+ * Requests are routed on their path, so the upstream does not need the origin of a contract server. Exchanges no
+ * contract operation matches are counted as unmatched and not as invalid.
+ */
+@ThreadSafe
+public class ValidatingProxy implements Closeable {
+
+    /**
+     * Headers of the connection between two hops, never forwarded. The http client also refuses to set some of them.
+     */
+    private static final Set<String> HOP_HEADERS = Set.of("connection", "keep-alive", "proxy-connection", "transfer-encoding", "te", "trailer",
+            "upgrade", "host", "content-length", "expect", "http2-settings");
+
+    /**
+     * Not forwarded so the upstream answers with an identity body the validation can read, which every client accepts.
+     */
+    private static final String ACCEPT_ENCODING = "accept-encoding";
+
+    private final OASValidator validator;
+    private final URI upstream;
+    private final HttpServer server;
+    private final HttpClient httpClient;
+    private final ExecutorService serverExecutor;
+    private final ThreadPoolExecutor validationExecutor;
+    private final Duration requestTimeout;
+    private final double sampling;
+    private final Map<String, Double> routeSampling;
+    private final boolean blocking;
+    private final Consumer<Context> listener;
+    private final Metrics metrics = new Metrics();
+
+    private ValidatingProxy(final @Nonnull Builder builder) throws IOException {
+        this.validator = requireNonNull(builder.validator, "Validator is required");
+        this.upstream = stripTrailingSlash(requireNonNull(builder.upstream, "Upstream is required"));
+        this.requestTimeout = builder.requestTimeout;
+        this.sampling = builder.sampling;
+        this.routeSampling = Map.copyOf(builder.routeSampling);
+        this.blocking = builder.blocking;
+        this.listener = builder.listener;
+        this.serverExecutor = HttpUtils.createExecutor(builder.serverThreads);
+        this.httpClient = builder.httpClient != null ? builder.httpClient
+                : HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(builder.connectTimeout)
+                .followRedirects(HttpClient.Redirect.NEVER).executor(serverExecutor).build();
+        final var counter = new AtomicInteger();
+        this.validationExecutor = new ThreadPoolExecutor(builder.validationThreads, builder.validationThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(builder.queueSize), runnable -> {
+            final var thread = new Thread(runnable, "oas-validator-proxy-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(builder.address, builder.backlog);
+        this.server.setExecutor(serverExecutor);
+        this.server.createContext("/", this::handle);
+    }
+
+    public static Builder builder(final @Nonnull OASValidator validator, final @Nonnull URI upstream) {
+        return new Builder(validator, upstream);
+    }
+
+    /**
+     * @return the address the proxy listens on, with the port picked by the system when it was configured as 0
+     */
+    public @Nonnull InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    public @Nonnull Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Stops accepting exchanges, waits up to a second for the ones in flight and lets queued validations finish.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        validationExecutor.shutdown();
+        serverExecutor.shutdown();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        final long start = System.nanoTime();
+        metrics.exchanges.incrementAndGet();
+        final var sourceUri = exchange.getRequestURI();
+        final var target = URI.create(upstream + sourceUri.getRawPath() + (sourceUri.getRawQuery() == null ? "" : "?" + sourceUri.getRawQuery()));
+        final var method = exchange.getRequestMethod();
+        final var headers = copyHeaders(exchange.getRequestHeaders());
+        final byte[] body;
+        try (var input = exchange.getRequestBody()) {
+            body = input.readAllBytes();
+        }
+        final var sampled = isSampled(sourceUri.getPath());
+        final var request = sampled ? getRequest(target, method, headers, body) : null;
+        if (sampled && blocking) {
+            final var context = validator.validateRequest(request);
+            if (context.hasErrors()) {
+                metrics.sampled.incrementAndGet();
+                metrics.rejected.incrementAndGet();
+                (context.getOperation() == null ? metrics.unmatched : metrics.invalid).incrementAndGet();
+                reject(exchange, context);
+                listener.accept(context);
+                return;
+            }
+        }
+        final var builder = HttpRequest.newBuilder(target)
+                .method(method, body.length == 0 ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofByteArray(body));
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
+        }
+        headers.forEach((name, values) -> {
+            if (!HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT)) && !ACCEPT_ENCODING.equalsIgnoreCase(name)) {
+                values.forEach(value -> builder.header(name, value));
+            }
+        });
+        httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofByteArray()).whenComplete((upstreamResponse, error) -> {
+            try {
+                if (error != null) {
+                    metrics.upstreamFailures.incrementAndGet();
+                    respond(exchange, 502, null, new byte[0]);
+                } else {
+                    respond(exchange, upstreamResponse.statusCode(), upstreamResponse.headers().map(), upstreamResponse.body());
+                }
+            } catch (final IOException ex) {
+                // the client went away, the exchange is still validated
+            } finally {
+                metrics.forwarded(System.nanoTime() - start);
+            }
+            if (sampled) {
+                submit(request, upstreamResponse, error);
+            }
+        });
+    }
+
+    private boolean isSampled(final String path) {
+        var rate = sampling;
+        var matched = -1;
+        for (final var route : routeSampling.entrySet()) {
+            if (route.getKey().length() > matched && path.startsWith(route.getKey())) {
+                matched = route.getKey().length();
+                rate = route.getValue();
+            }
+        }
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private void submit(final Request request, final HttpResponse<byte[]> upstreamResponse, final Throwable error) {
+        metrics.sampled.incrementAndGet();
+        try {
+            validationExecutor.execute(() -> validate(request, upstreamResponse, error));
+        } catch (final RejectedExecutionException ex) {
+            metrics.dropped.incrementAndGet();
+        }
+    }
+
+    private void validate(final Request request, final HttpResponse<byte[]> upstreamResponse, final Throwable error) {
+        final long start = System.nanoTime();
+        try {
+            final Context context;
+            if (upstreamResponse != null) {
+                final var response = Response.builder(upstreamResponse.statusCode())
+                        .withHeader(copyHeaders(upstreamResponse.headers().map())).withBody(upstreamResponse.body());
+                context = blocking ? validator.validateResponse(request, response) : validator.validate(request, response);
+            } else {
+                context = validator.validateRequest(request)
+                        .withResponseError(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+            if (context.getOperation() == null) {
+                metrics.unmatched.incrementAndGet();
+            } else if (context.hasErrors()) {
+                metrics.invalid.incrementAndGet();
+            }
+            listener.accept(context);
+        } catch (final RuntimeException ex) {
+            metrics.validationFailures.incrementAndGet();
+        } finally {
+            metrics.validated(System.nanoTime() - start);
+        }
+    }
+
+    private static void reject(final HttpExchange exchange, final Context context) throws IOException {
+        final List<Map<String, Object>> errors = new ArrayList<>();
+        for (final var message : context.getMessages()) {
+            if (message.getLevel() == Context.MessageLevel.ERROR) {
+                final Map<String, Object> error = new HashMap<>();
+                error.put("code", message.getCode() == null ? null : message.getCode().name());
+                error.put("location", message.getLocation());
+                error.put("message", message.getMessage());
+                errors.add(error);
+            }
+        }
+        respond(exchange, 400, Map.of("Content-Type", List.of("application/json")),
+                JsonUtils.getMapper().writeValueAsBytes(Map.of("errors", errors)));
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final @Nullable Map<String, List<String>> headers,
+                                final byte[] body) throws IOException {
+        try {
+            if (headers != null) {
+                final var responseHeaders = exchange.getResponseHeaders();
+                headers.forEach((name, values) -> {
+                    if (!HOP_HEADERS.contains(name.toLowerCase(Locale.ROOT)) && !name.startsWith(":")) {
+                        responseHeaders.put(name, values);
+                    }
+                });
+            }
+            final var empty = body.length == 0 || "HEAD".equals(exchange.getRequestMethod()) || status == 204 || status == 304;
+            exchange.sendResponseHeaders(status, empty ? -1 : body.length);
+            if (!empty) {
+                exchange.getResponseBody().write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Request getRequest(final URI target, final String method, final Map<String, List<String>> headers, final byte[] body) {
+        final var request = Request.builder(target, method).withHeader(headers).withCookie(getCookies(headers.get("Cookie")));
+        return body.length == 0 ? request : request.withBody(body);
+    }
+
+    private static Map<String, List<String>> getCookies(final @Nullable List<String> values) {
+        if (values == null) {
+            return Map.of();
+        }
+        final Map<String, List<String>> cookies = new HashMap<>();
+        for (final var value : values) {
+            for (final var cookie : value.split(";")) {
+                final var separator = cookie.indexOf('=');
+                if (separator > 0) {
+                    cookies.computeIfAbsent(cookie.substring(0, separator).trim(), name -> new ArrayList<>()).add(cookie.substring(separator + 1).trim());
+                }
+            }
+        }
+        return cookies;
+    }
+
+    /**
+     * The JDK server and client normalize the case of header names differently, validation looks them up ignoring case.
+     */
+    private static Map<String, List<String>> copyHeaders(final Map<String, List<String>> headers) {
+        final Map<String, List<String>> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        copy.putAll(headers);
+        return copy;
+    }
+
+    private static URI stripTrailingSlash(final URI uri) {
+        final var value = uri.toString();
+        return value.endsWith("/") ? URI.create(value.substring(0, value.length() - 1)) : uri;
+    }
+
+    public static class Builder {
+        private final OASValidator validator;
+        private final URI upstream;
+        private InetSocketAddress address = new InetSocketAddress(8080);
+        private int backlog;
+        private int serverThreads = Runtime.getRuntime().availableProcessors() * 2;
+        private int validationThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        private int queueSize = 1024;
+        private double sampling = 1;
+        private final Map<String, Double> routeSampling = new HashMap<>();
+        private boolean blocking;
+        private HttpClient httpClient;
+        private Duration connectTimeout = HttpUtils.DEFAULT_CONNECT_TIMEOUT;
+        private Duration requestTimeout;
+        private Consumer<Context> listener = context -> { };
+
+        private Builder(final OASValidator validator, final URI upstream) {
+            this.validator = validator;
+            this.upstream = upstream;
+        }
+
+        @Nonnull
+        public Builder withAddress(final @Nonnull InetSocketAddress address) {
+            this.address = address;
+            return this;
+        }
+
+        /**
+         * Listens on all interfaces, port 0 lets the system pick a free port.
+         */
+        @Nonnull
+        public Builder withPort(final int port) {
+            this.address = new InetSocketAddress(port);
+            return this;
+        }
+
+        @Nonnull
+        public Builder withBacklog(final int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        /**
+         * Threads accepting exchanges and completing the forwarded calls.
+         */
+        @Nonnull
+        public Builder withServerThreads(final int serverThreads) {
+            this.serverThreads = Math.max(serverThreads, 1);
+            return this;
+        }
+
+        @Nonnull
+        public Builder withValidationThreads(final int validationThreads) {
+            this.validationThreads = Math.max(validationThreads, 1);
+            return this;
+        }
+
+        /**
+         * Number of sampled exchanges waiting for a validation thread, exchanges beyond the queue are dropped from
+         * validation.
+         */
+        @Nonnull
+        public Builder withQueueSize(final int queueSize) {
+            this.queueSize = Math.max(queueSize, 1);
+            return this;
+        }
+
+        /**
+         * Fraction of the exchanges validated, from 0 for none to 1 for every exchange.
+         */
+        @Nonnull
+        public Builder withSampling(final double sampling) {
+            this.sampling = sampling;
+            return this;
+        }
+
+        /**
+         * Fraction of the exchanges validated on request paths starting with the prefix, the longest matching prefix
+         * wins over the default sampling.
+         */
+        @Nonnull
+        public Builder withSampling(final @Nonnull String pathPrefix, final double sampling) {
+            this.routeSampling.put(pathPrefix, sampling);
+            return this;
+        }
+
+        /**
+         * Validates sampled requests before forwarding them and rejects invalid ones, the response is still validated
+         * off the critical path.
+         */
+        @Nonnull
+        public Builder withBlocking(final boolean blocking) {
+            this.blocking = blocking;
+            return this;
+        }
+
+        /**
+         * Shares an existing client for the upstream calls, the timeouts of this builder are not applied to it.
+         */
+        @Nonnull
+        public Builder withHttpClient(final HttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        @Nonnull
+        public Builder withConnectTimeout(final @Nonnull Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        @Nonnull
+        public Builder withRequestTimeout(final Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /**
+         * Receives the context of every validated exchange on a validation thread, or on a server thread for requests
+         * rejected in blocking mode.
+         */
+        @Nonnull
+        public Builder withListener(final @Nonnull Consumer<Context> listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Creates the proxy and starts listening.
+         */
+        @Nonnull
+        public ValidatingProxy start() throws IOException {
+            final var proxy = new ValidatingProxy(this);
+            proxy.server.start();
+            return proxy;
+        }
+    }
+
+    public static class Metrics {
+        private final AtomicLong exchanges = new AtomicLong();
+        private final AtomicLong sampled = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicLong invalid = new AtomicLong();
+        private final AtomicLong unmatched = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong upstreamFailures = new AtomicLong();
+        private final AtomicLong validationFailures = new AtomicLong();
+        private final AtomicLong forwardedNanos = new AtomicLong();
+        private final AtomicLong forwarded = new AtomicLong();
+        private final AtomicLong validationNanos = new AtomicLong();
+        private final AtomicLong validated = new AtomicLong();
+
+        private void forwarded(final long nanos) {
+            forwardedNanos.addAndGet(nanos);
+            forwarded.incrementAndGet();
+        }
+
+        private void validated(final long nanos) {
+            validationNanos.addAndGet(nanos);
+            validated.incrementAndGet();
+        }
+
+        public long getExchanges() {
+            return exchanges.get();
+        }
+
+        /**
+         * @return exchanges picked for validation, including dropped and rejected ones
+         */
+        public long getSampled() {
+            return sampled.get();
+        }
+
+        /**
+         * @return sampled exchanges not validated because the validation pool was saturated
+         */
+        public long getDropped() {
+            return dropped.get();
+        }
+
+        /**
+         * @return exchanges of a contract operation with contract violations
+         */
+        public long getInvalid() {
+            return invalid.get();
+        }
+
+        /**
+         * @return exchanges whose path and method match no operation of the contract
+         */
+        public long getUnmatched() {
+            return unmatched.get();
+        }
+
+        /**
+         * @return requests answered with a 400 in blocking mode instead of being forwarded
+         */
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        public long getUpstreamFailures() {
+            return upstreamFailures.get();
+        }
+
+        public long getValidationFailures() {
+            return validationFailures.get();
+        }
+
+        public long getValidated() {
+            return validated.get();
+        }
+
+        /**
+         * @return mean time from receiving an exchange to writing the upstream response, validation excluded
+         */
+        public @Nonnull Duration getMeanForwardTime() {
+            final var count = forwarded.get();
+            return Duration.ofNanos(count == 0 ? 0 : forwardedNanos.get() / count);
+        }
+
+        public @Nonnull Duration getMeanValidationTime() {
+            final var count = validated.get();
+            return Duration.ofNanos(count == 0 ? 0 : validationNanos.get() / count);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.naqiran.oas.validator.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Context;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+class AnyValidator extends CompiledSchema {
+
+    static final AnyValidator INSTANCE = new AnyValidator();
+
+    @Override
+    protected void validateNode(final @Nonnull Context context, final @Nonnull JsonNode node, final boolean ignoreMessage) {
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull JsonParser parser, final boolean ignoreMessage) throws IOException {
+        parser.skipChildren();
+    }
+}
@@ -0,0 +1,137 @@
+package com.naqiran.oas.validator.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import com.naqiran.oas.validator.utils.JsonUtils;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * uniqueItems is checked with a hash set of the items. A streamed array with unique items is read into a tree first,
+ * the items have to be compared once the array is complete.
+ */
+class ArrayValidator extends CompiledSchema {
+
+    private final CompiledSchema items;
+    private final int minItems;
+    private final int maxItems;
+    private final boolean uniqueItems;
+
+    ArrayValidator(final CompiledSchema items, final Integer minItems, final Integer maxItems, final boolean uniqueItems) {
+        this.items = items;
+        this.minItems = minItems == null ? -1 : minItems;
+        this.maxItems = maxItems == null ? Integer.MAX_VALUE : maxItems;
+        this.uniqueItems = uniqueItems;
+    }
+
+    @Override
+    protected void validateNode(final @Nonnull Context context, final @Nonnull JsonNode node, final boolean ignoreMessage) {
+        if (node.isArray()) {
+            if (context.isParallel(node.size())) {
+                ParallelValidation.validateItems(context, items, node, ignoreMessage);
+                if (!context.isHalted()) {
+                    checkSize(context, null, node.size(), ignoreMessage);
+                    checkUnique(context, node, ignoreMessage);
+                }
+                return;
+            }
+            final var pointer = context.getPointer();
+            for (int index = 0; index < node.size(); index++) {
+                pointer.push(index);
+                items.validate(context, node.get(index), ignoreMessage);
+                pointer.pop();
+                if (context.isHalted()) {
+                    return;
+                }
+            }
+            checkSize(context, null, node.size(), ignoreMessage);
+            checkUnique(context, node, ignoreMessage);
+        } else {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, "array", node.getNodeType());
+        }
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull JsonParser parser, final boolean ignoreMessage) throws IOException {
+        if (parser.currentToken() == JsonToken.START_ARRAY) {
+            if (uniqueItems) {
+                validateNode(context, JsonUtils.getMapper().readTree(parser), ignoreMessage);
+                return;
+            }
+            final var pointer = context.getPointer();
+            int size = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                pointer.push(size);
+                items.validate(context, parser, ignoreMessage);
+                pointer.pop();
+                if (context.isHalted()) {
+                    return;
+                }
+                size++;
+            }
+            checkSize(context, null, size, ignoreMessage);
+        } else {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, "array", JsonUtils.getNodeType(parser.currentToken()));
+            parser.skipChildren();
+        }
+    }
+
+    @Override
+    public void validateValues(final @Nonnull Context context, final @Nonnull String name, final List<String> values, final boolean ignoreMessage) {
+        if (values != null && !values.isEmpty()) {
+            checkSize(context, name, values.size(), ignoreMessage);
+            for (final var value : values) {
+                items.validateValue(context, name, value, ignoreMessage);
+            }
+            if (uniqueItems && values.size() > 1) {
+                final Set<String> seen = new HashSet<>();
+                for (final var value : values) {
+                    if (!seen.add(value)) {
+                        context.addError(ErrorCode.UNIQUE_ITEMS, ignoreMessage, name, null, value);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public JsonNodeType getType() {
+        return JsonNodeType.ARRAY;
+    }
+
+    /**
+     * @param name parameter name or null for a body value located by the context pointer
+     */
+    private void checkSize(final Context context, final String name, final int size, final boolean ignoreMessage) {
+        if (size < minItems) {
+            context.addError(ErrorCode.MIN_ITEMS, ignoreMessage, name, minItems, size);
+        }
+        if (size > maxItems) {
+            context.addError(ErrorCode.MAX_ITEMS, ignoreMessage, name, maxItems, size);
+        }
+    }
+
+    /**
+     * Reports the first duplicate item only.
+     */
+    private void checkUnique(final Context context, final JsonNode node, final boolean ignoreMessage) {
+        if (uniqueItems && node.size() > 1) {
+            final Set<JsonNode> seen = new HashSet<>();
+            for (final var item : node) {
+                if (!seen.add(item)) {
+                    context.addError(ErrorCode.UNIQUE_ITEMS, ignoreMessage, null, item);
+                    return;
+                }
+            }
+        }
+    }
+}
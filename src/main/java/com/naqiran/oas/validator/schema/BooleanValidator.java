@@ -0,0 +1,67 @@
+package com.naqiran.oas.validator.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import com.naqiran.oas.validator.utils.JsonUtils;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Booleans of a parameter or form field are the literals {@code true} and {@code false}, other spellings such as
+ * {@code TRUE} or {@code 1} are not booleans.
+ */
+class BooleanValidator extends CompiledSchema {
+
+    private final Set<Boolean> enumValues;
+    private final String enumText;
+
+    BooleanValidator(final Set<Boolean> enumValues, final String enumText) {
+        this.enumValues = enumValues;
+        this.enumText = enumText;
+    }
+
+    @Override
+    protected void validateNode(final @Nonnull Context context, final @Nonnull JsonNode node, final boolean ignoreMessage) {
+        if (!node.isBoolean()) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, "boolean", node.getNodeType());
+        } else {
+            validateBoolean(context, null, node.booleanValue(), ignoreMessage);
+        }
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull JsonParser parser, final boolean ignoreMessage) throws IOException {
+        final var token = parser.currentToken();
+        if (token != JsonToken.VALUE_TRUE && token != JsonToken.VALUE_FALSE) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, "boolean", JsonUtils.getNodeType(token));
+            parser.skipChildren();
+        } else {
+            validateBoolean(context, null, token == JsonToken.VALUE_TRUE, ignoreMessage);
+        }
+    }
+
+    @Override
+    public void validateValue(final @Nonnull Context context, final @Nonnull String name, final String value, final boolean ignoreMessage) {
+        if ("true".equals(value)) {
+            validateBoolean(context, name, true, ignoreMessage);
+        } else if ("false".equals(value)) {
+            validateBoolean(context, name, false, ignoreMessage);
+        } else if (value != null) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, name, "boolean", value);
+        }
+    }
+
+    /**
+     * @param name parameter name or null for a body value located by the context pointer
+     */
+    private void validateBoolean(final Context context, final String name, final boolean value, final boolean ignoreMessage) {
+        if (enumValues != null && !enumValues.contains(value)) {
+            context.addError(ErrorCode.ENUM_MISMATCH, ignoreMessage, name, enumText, value);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.naqiran.oas.validator.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.naqiran.oas.validator.Context;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable validator node compiled from an Open API schema by the {@link SchemaCompiler}. References, enums and
+ * bounds are resolved when the node is built so validating a payload only walks the compiled tree.
+ * <p>
+ * Payloads are validated either as a {@link JsonNode} tree or straight from the {@link JsonParser} tokens, both walk
+ * objects in document order and report the same messages.
+ */
+@Immutable
+public abstract class CompiledSchema {
+
+    public final void validate(final @Nonnull Context context, final JsonNode node, final boolean ignoreMessage) {
+        if (node != null) {
+            validateNode(context, node, ignoreMessage);
+        }
+    }
+
+    protected abstract void validateNode(final @Nonnull Context context, final @Nonnull JsonNode node, final boolean ignoreMessage);
+
+    /**
+     * Validates the value starting at the current token of the parser. The parser is left on the last token of the
+     * value unless the context has halted the validation.
+     */
+    public abstract void validate(final @Nonnull Context context, final @Nonnull JsonParser parser, final boolean ignoreMessage) throws IOException;
+
+    public void validateValues(final @Nonnull Context context, final @Nonnull String name, final List<String> values, final boolean ignoreMessage) {
+        if (values != null && !values.isEmpty()) {
+            validateValue(context, name, values.get(0), ignoreMessage);
+        }
+    }
+
+    public void validateValue(final @Nonnull Context context, final @Nonnull String name, final String value, final boolean ignoreMessage) {
+    }
+
+    /**
+     * Validates the properties of an object serialized into a parameter or a form body, each by the values of its
+     * name. Properties are located as {@code name.property}, or by their own name when the name is empty.
+     */
+    public void validateFields(final @Nonnull Context context, final @Nonnull String name, final @Nonnull Map<String, List<String>> fields,
+                               final boolean ignoreMessage) {
+    }
+
+    /**
+     * @return {@link JsonNodeType#ARRAY} or {@link JsonNodeType#OBJECT} for container schemas whose parameter values
+     * are deserialized by the style of the parameter, null for any other schema
+     */
+    public @Nullable JsonNodeType getType() {
+        return null;
+    }
+}
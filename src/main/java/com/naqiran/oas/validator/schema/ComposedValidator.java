@@ -0,0 +1,95 @@
+package com.naqiran.oas.validator.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import com.naqiran.oas.validator.utils.JsonUtils;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every branch has to see the whole value, so a streamed value is buffered into a tree first. Only the composed value
+ * is held in memory, not the rest of the document.
+ * <p>
+ * anyOf and oneOf branches are tried without keeping their messages: anyOf stops at the first matching branch and oneOf
+ * at the second. With a discriminator the branch is picked by the discriminator value and validated like an allOf
+ * branch, so its messages are reported.
+ */
+class ComposedValidator extends CompiledSchema {
+
+    enum Kind {
+        ALL_OF("allOf"), ANY_OF("anyOf"), ONE_OF("oneOf");
+
+        private final String keyword;
+
+        Kind(final String keyword) {
+            this.keyword = keyword;
+        }
+    }
+
+    private final Kind kind;
+    private final List<CompiledSchema> schemas;
+    private final String discriminator;
+    private final Map<String, CompiledSchema> mapping;
+
+    ComposedValidator(final Kind kind, final List<CompiledSchema> schemas) {
+        this(kind, schemas, null, Map.of());
+    }
+
+    ComposedValidator(final Kind kind, final List<CompiledSchema> schemas, final String discriminator, final Map<String, CompiledSchema> mapping) {
+        this.kind = kind;
+        this.schemas = schemas;
+        this.discriminator = discriminator;
+        this.mapping = mapping;
+    }
+
+    @Override
+    protected void validateNode(final @Nonnull Context context, final @Nonnull JsonNode node, final boolean ignoreMessage) {
+        if (kind == Kind.ALL_OF) {
+            for (final var schema : schemas) {
+                schema.validate(context, node, ignoreMessage);
+                if (context.isHalted()) {
+                    return;
+                }
+            }
+            return;
+        }
+        final var value = discriminator != null && node.isObject() ? node.get(discriminator) : null;
+        if (value != null && value.isTextual()) {
+            final var schema = mapping.get(value.textValue());
+            if (schema == null) {
+                context.addError(ErrorCode.DISCRIMINATOR_MISMATCH, ignoreMessage, mapping.keySet(), value.textValue());
+            } else {
+                schema.validate(context, node, ignoreMessage);
+            }
+            return;
+        }
+        var matches = 0;
+        for (final var schema : schemas) {
+            if (matches(context, schema, node) && (++matches > 1 || kind == Kind.ANY_OF)) {
+                break;
+            }
+        }
+        if (matches == 0) {
+            context.addError(ErrorCode.NO_MATCH, ignoreMessage, kind.keyword, null);
+        } else if (matches > 1) {
+            context.addError(ErrorCode.MULTIPLE_MATCH, ignoreMessage, kind.keyword, matches);
+        }
+    }
+
+    private static boolean matches(final Context context, final CompiledSchema schema, final JsonNode node) {
+        final var enclosing = context.startTrial();
+        schema.validate(context, node, false);
+        return context.endTrial(enclosing);
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull JsonParser parser, final boolean ignoreMessage) throws IOException {
+        final JsonNode node = JsonUtils.getMapper().readTree(parser);
+        validate(context, node, ignoreMessage);
+    }
+}
@@ -0,0 +1,249 @@
+package com.naqiran.oas.validator.schema;
+
+import javax.annotation.Nullable;
+
+/**
+ * String formats checked by hand written scanners. A check only reads the characters of the value, it neither
+ * allocates nor throws, so an invalid value costs no more than a valid one. Formats not listed are not checked.
+ */
+enum Format {
+    DATE("date") {
+        @Override
+        boolean test(final String value) {
+            return value.length() == 10 && isDate(value, 0);
+        }
+    },
+    DATE_TIME("date-time") {
+        /**
+         * RFC 3339 {@code 2021-03-04T05:06:07.890+01:00}, the separator and zone designator may be lower case.
+         */
+        @Override
+        boolean test(final String value) {
+            final var length = value.length();
+            if (length < 20 || !isDate(value, 0)) {
+                return false;
+            }
+            final var separator = value.charAt(10);
+            if (separator != 'T' && separator != 't' || !isTime(value, 11)) {
+                return false;
+            }
+            var index = 19;
+            if (value.charAt(index) == '.') {
+                index++;
+                final var start = index;
+                while (index < length && isDigit(value.charAt(index))) {
+                    index++;
+                }
+                if (index == start || index == length) {
+                    return false;
+                }
+            }
+            final var zone = value.charAt(index);
+            if (zone == 'Z' || zone == 'z') {
+                return index + 1 == length;
+            }
+            return (zone == '+' || zone == '-') && index + 6 == length && value.charAt(index + 3) == ':'
+                    && isNumber(value, index + 1, 2, 0, 23) && isNumber(value, index + 4, 2, 0, 59);
+        }
+    },
+    UUID("uuid") {
+        @Override
+        boolean test(final String value) {
+            if (value.length() != 36) {
+                return false;
+            }
+            for (int index = 0; index < 36; index++) {
+                final var character = value.charAt(index);
+                if (index == 8 || index == 13 || index == 18 || index == 23) {
+                    if (character != '-') {
+                        return false;
+                    }
+                } else if (Character.digit(character, 16) < 0 || character > 'f') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    },
+    EMAIL("email") {
+        /**
+         * A dot separated local part of RFC 5322 atom characters and a domain of letter, digit and hyphen labels,
+         * quoted local parts and address literals are not accepted.
+         */
+        @Override
+        boolean test(final String value) {
+            final var at = value.lastIndexOf('@');
+            if (at <= 0 || at > 64 || value.length() - at - 1 > 255) {
+                return false;
+            }
+            var previous = '.';
+            for (int index = 0; index < at; index++) {
+                final var character = value.charAt(index);
+                if (character == '.') {
+                    if (previous == '.') {
+                        return false;
+                    }
+                } else if (!isAtom(character)) {
+                    return false;
+                }
+                previous = character;
+            }
+            return previous != '.' && isHostname(value, at + 1);
+        }
+    },
+    HOSTNAME("hostname") {
+        @Override
+        boolean test(final String value) {
+            return value.length() <= 253 && isHostname(value, 0);
+        }
+    },
+    IPV4("ipv4") {
+        @Override
+        boolean test(final String value) {
+            final var length = value.length();
+            var index = 0;
+            for (int part = 0; part < 4; part++) {
+                if (part > 0) {
+                    if (index >= length || value.charAt(index) != '.') {
+                        return false;
+                    }
+                    index++;
+                }
+                final var start = index;
+                var number = 0;
+                while (index < length && index - start < 3 && isDigit(value.charAt(index))) {
+                    number = number * 10 + value.charAt(index) - '0';
+                    index++;
+                }
+                if (index == start || number > 255 || (value.charAt(start) == '0' && index - start > 1)) {
+                    return false;
+                }
+            }
+            return index == length;
+        }
+    },
+    BYTE("byte") {
+        /**
+         * Padded base64 of RFC 4648.
+         */
+        @Override
+        boolean test(final String value) {
+            final var length = value.length();
+            if (length % 4 != 0) {
+                return false;
+            }
+            for (int index = 0; index < length; index++) {
+                final var character = value.charAt(index);
+                if (character == '=') {
+                    return index >= length - 2 && (index == length - 1 || value.charAt(length - 1) == '=');
+                }
+                if (!(character >= 'A' && character <= 'Z' || character >= 'a' && character <= 'z' || isDigit(character)
+                        || character == '+' || character == '/')) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    };
+
+    private static final int[] DAYS = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private final String name;
+
+    Format(final String name) {
+        this.name = name;
+    }
+
+    abstract boolean test(String value);
+
+    static @Nullable Format of(final @Nullable String name) {
+        if (name != null) {
+            for (final var format : values()) {
+                if (format.name.equals(name)) {
+                    return format;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * Full date {@code yyyy-MM-dd} at the offset, the day is checked against the month and leap years.
+     */
+    private static boolean isDate(final String value, final int offset) {
+        if (value.charAt(offset + 4) != '-' || value.charAt(offset + 7) != '-' || !isNumber(value, offset, 4, 0, 9999)
+                || !isNumber(value, offset + 5, 2, 1, 12)) {
+            return false;
+        }
+        final var year = number(value, offset, 4);
+        final var month = number(value, offset + 5, 2);
+        final var leap = year % 4 == 0 && (year % 100 != 0 || year % 400 == 0);
+        return isNumber(value, offset + 8, 2, 1, month == 2 && !leap ? 28 : DAYS[month - 1]);
+    }
+
+    /**
+     * Partial time {@code HH:mm:ss} at the offset, a second of 60 is a leap second.
+     */
+    private static boolean isTime(final String value, final int offset) {
+        return value.charAt(offset + 2) == ':' && value.charAt(offset + 5) == ':' && isNumber(value, offset, 2, 0, 23)
+                && isNumber(value, offset + 3, 2, 0, 59) && isNumber(value, offset + 6, 2, 0, 60);
+    }
+
+    private static boolean isNumber(final String value, final int offset, final int digits, final int minimum, final int maximum) {
+        for (int index = offset; index < offset + digits; index++) {
+            if (!isDigit(value.charAt(index))) {
+                return false;
+            }
+        }
+        final var number = number(value, offset, digits);
+        return number >= minimum && number <= maximum;
+    }
+
+    private static int number(final String value, final int offset, final int digits) {
+        var number = 0;
+        for (int index = offset; index < offset + digits; index++) {
+            number = number * 10 + value.charAt(index) - '0';
+        }
+        return number;
+    }
+
+    /**
+     * Dot separated labels of letters, digits and hyphens from the offset to the end, labels of 1 to 63 characters
+     * that neither start nor end with a hyphen.
+     */
+    private static boolean isHostname(final String value, final int offset) {
+        final var length = value.length();
+        if (offset >= length) {
+            return false;
+        }
+        var start = offset;
+        for (int index = offset; index <= length; index++) {
+            if (index == length || value.charAt(index) == '.') {
+                if (index == start || index - start > 63 || value.charAt(start) == '-' || value.charAt(index - 1) == '-') {
+                    return false;
+                }
+                start = index + 1;
+            } else {
+                final var character = value.charAt(index);
+                if (!(character >= 'a' && character <= 'z' || character >= 'A' && character <= 'Z' || isDigit(character) || character == '-')) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAtom(final char character) {
+        return character >= 'a' && character <= 'z' || character >= 'A' && character <= 'Z' || isDigit(character)
+                || "!#$%&'*+-/=?^_`{|}~".indexOf(character) >= 0;
+    }
+
+    private static boolean isDigit(final char character) {
+        return character >= '0' && character <= '9';
+    }
+}
@@ -0,0 +1,105 @@
+package com.naqiran.oas.validator.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import com.naqiran.oas.validator.utils.JsonUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Integers are validated as longs, a number with a fraction such as {@code 2.5} is not an integer while {@code 2.0}
+ * is one.
+ */
+class IntegerValidator extends CompiledSchema {
+
+    private final boolean int64;
+    private final boolean int32;
+    private final Set<Long> enumValues;
+    private final String enumText;
+    private final NumericBounds bounds;
+
+    IntegerValidator(final String format, final Set<Long> enumValues, final String enumText, final @Nullable NumericBounds bounds) {
+        this.int64 = "int64".equals(format);
+        this.int32 = format == null || "int32".equals(format);
+        this.enumValues = enumValues;
+        this.enumText = enumText;
+        this.bounds = bounds;
+    }
+
+    @Override
+    protected void validateNode(final @Nonnull Context context, final @Nonnull JsonNode node, final boolean ignoreMessage) {
+        if (!node.isNumber() || (node.isFloatingPointNumber() && !isIntegral(node.doubleValue()))) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, getExpected(), node.getNodeType());
+        } else if (int64 && !node.canConvertToLong() || int32 && !node.canConvertToInt()) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, getExpected(), node.getNodeType());
+        } else if (node.canConvertToLong()) {
+            validateNumber(context, null, node.longValue(), ignoreMessage);
+        }
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull JsonParser parser, final boolean ignoreMessage) throws IOException {
+        final var token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            final var numberType = parser.getNumberType();
+            if (numberType == JsonParser.NumberType.BIG_INTEGER) {
+                if (int64 || int32) {
+                    context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, getExpected(), JsonUtils.getNodeType(token));
+                }
+            } else if (int32 && numberType != JsonParser.NumberType.INT) {
+                context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, getExpected(), JsonUtils.getNodeType(token));
+            } else {
+                validateNumber(context, null, parser.getLongValue(), ignoreMessage);
+            }
+        } else if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            final var value = parser.getDoubleValue();
+            if (!isIntegral(value) || (int64 || int32) && !(value >= Long.MIN_VALUE && value <= Long.MAX_VALUE)
+                    || int32 && !(value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)) {
+                context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, getExpected(), JsonUtils.getNodeType(token));
+            } else if (value >= Long.MIN_VALUE && value <= Long.MAX_VALUE) {
+                validateNumber(context, null, (long) value, ignoreMessage);
+            }
+        } else {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, getExpected(), JsonUtils.getNodeType(token));
+            parser.skipChildren();
+        }
+    }
+
+    @Override
+    public void validateValue(final @Nonnull Context context, final @Nonnull String name, final String value, final boolean ignoreMessage) {
+        final long number;
+        try {
+            number = int64 ? Long.parseLong(value) : Integer.parseInt(value);
+        } catch (final NumberFormatException ex) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, name, "integer", value);
+            return;
+        }
+        validateNumber(context, name, number, ignoreMessage);
+    }
+
+    /**
+     * @param name parameter name or null for a body value located by the context pointer
+     */
+    private void validateNumber(final Context context, final String name, final long number, final boolean ignoreMessage) {
+        if (enumValues != null && !enumValues.contains(number)) {
+            context.addError(ErrorCode.ENUM_MISMATCH, ignoreMessage, name, enumText, number);
+        }
+        if (bounds != null) {
+            bounds.check(context, name, number, ignoreMessage);
+        }
+    }
+
+    private String getExpected() {
+        return int64 ? "long" : "integer";
+    }
+
+    private static boolean isIntegral(final double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value);
+    }
+}
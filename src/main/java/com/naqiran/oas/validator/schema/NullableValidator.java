@@ -0,0 +1,59 @@
+package com.naqiran.oas.validator.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.naqiran.oas.validator.Context;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schema with {@code nullable: true}, a JSON null is accepted and any other value is validated by the wrapped schema.
+ */
+class NullableValidator extends CompiledSchema {
+
+    private final CompiledSchema schema;
+
+    NullableValidator(final CompiledSchema schema) {
+        this.schema = schema;
+    }
+
+    @Override
+    protected void validateNode(final @Nonnull Context context, final @Nonnull JsonNode node, final boolean ignoreMessage) {
+        if (!node.isNull()) {
+            schema.validateNode(context, node, ignoreMessage);
+        }
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull JsonParser parser, final boolean ignoreMessage) throws IOException {
+        if (parser.currentToken() != JsonToken.VALUE_NULL) {
+            schema.validate(context, parser, ignoreMessage);
+        }
+    }
+
+    @Override
+    public void validateValues(final @Nonnull Context context, final @Nonnull String name, final List<String> values, final boolean ignoreMessage) {
+        schema.validateValues(context, name, values, ignoreMessage);
+    }
+
+    @Override
+    public void validateValue(final @Nonnull Context context, final @Nonnull String name, final String value, final boolean ignoreMessage) {
+        schema.validateValue(context, name, value, ignoreMessage);
+    }
+
+    @Override
+    public void validateFields(final @Nonnull Context context, final @Nonnull String name, final @Nonnull Map<String, List<String>> fields,
+                               final boolean ignoreMessage) {
+        schema.validateFields(context, name, fields, ignoreMessage);
+    }
+
+    @Override
+    public JsonNodeType getType() {
+        return schema.getType();
+    }
+}
@@ -0,0 +1,74 @@
+package com.naqiran.oas.validator.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import com.naqiran.oas.validator.utils.JsonUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Set;
+
+class NumberValidator extends CompiledSchema {
+
+    private final Set<BigDecimal> enumValues;
+    private final String enumText;
+    private final NumericBounds bounds;
+
+    NumberValidator(final Set<BigDecimal> enumValues, final String enumText, final @Nullable NumericBounds bounds) {
+        this.enumValues = enumValues;
+        this.enumText = enumText;
+        this.bounds = bounds;
+    }
+
+    @Override
+    protected void validateNode(final @Nonnull Context context, final @Nonnull JsonNode node, final boolean ignoreMessage) {
+        if (!node.isNumber()) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, "number", node.getNodeType());
+            return;
+        }
+        if (enumValues != null && !enumValues.contains(node.decimalValue().stripTrailingZeros())) {
+            context.addError(ErrorCode.ENUM_MISMATCH, ignoreMessage, enumText, node.asText());
+        }
+        if (bounds != null) {
+            bounds.check(context, null, node.doubleValue(), ignoreMessage);
+        }
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull JsonParser parser, final boolean ignoreMessage) throws IOException {
+        final var token = parser.currentToken();
+        if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, "number", JsonUtils.getNodeType(token));
+            parser.skipChildren();
+            return;
+        }
+        if (enumValues != null && !enumValues.contains(parser.getDecimalValue().stripTrailingZeros())) {
+            context.addError(ErrorCode.ENUM_MISMATCH, ignoreMessage, enumText, parser.getText());
+        }
+        if (bounds != null) {
+            bounds.check(context, null, parser.getDoubleValue(), ignoreMessage);
+        }
+    }
+
+    @Override
+    public void validateValue(final @Nonnull Context context, final @Nonnull String name, final String value, final boolean ignoreMessage) {
+        final BigDecimal number;
+        try {
+            number = new BigDecimal(value.trim());
+        } catch (final NumberFormatException ex) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, name, "number", value);
+            return;
+        }
+        if (enumValues != null && !enumValues.contains(number.stripTrailingZeros())) {
+            context.addError(ErrorCode.ENUM_MISMATCH, ignoreMessage, name, enumText, value);
+        }
+        if (bounds != null) {
+            bounds.check(context, name, number.doubleValue(), ignoreMessage);
+        }
+    }
+}
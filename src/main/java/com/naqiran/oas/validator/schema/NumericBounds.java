@@ -0,0 +1,116 @@
+package com.naqiran.oas.validator.schema;
+
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import io.swagger.v3.oas.models.media.Schema;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * minimum, maximum and multipleOf of a number or integer schema. The bounds are turned into inclusive long bounds
+ * and double bounds, and an integral multipleOf into a long divisor, when the schema is compiled; only a fractional
+ * multipleOf is checked with {@link BigDecimal} arithmetic.
+ */
+final class NumericBounds {
+
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private final BigDecimal minimum;
+    private final BigDecimal maximum;
+    private final boolean exclusiveMinimum;
+    private final boolean exclusiveMaximum;
+    private final BigDecimal multipleOf;
+    private final long lowest;
+    private final long highest;
+    private final double minimumValue;
+    private final double maximumValue;
+    private final long divisor;
+
+    private NumericBounds(final BigDecimal minimum, final boolean exclusiveMinimum, final BigDecimal maximum, final boolean exclusiveMaximum,
+                          final BigDecimal multipleOf) {
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.exclusiveMinimum = exclusiveMinimum;
+        this.exclusiveMaximum = exclusiveMaximum;
+        this.multipleOf = multipleOf;
+        this.lowest = minimum == null ? Long.MIN_VALUE
+                : clamp(exclusiveMinimum ? minimum.setScale(0, RoundingMode.FLOOR).add(BigDecimal.ONE) : minimum.setScale(0, RoundingMode.CEILING));
+        this.highest = maximum == null ? Long.MAX_VALUE
+                : clamp(exclusiveMaximum ? maximum.setScale(0, RoundingMode.CEILING).subtract(BigDecimal.ONE) : maximum.setScale(0, RoundingMode.FLOOR));
+        this.minimumValue = minimum == null ? Double.NEGATIVE_INFINITY : minimum.doubleValue();
+        this.maximumValue = maximum == null ? Double.POSITIVE_INFINITY : maximum.doubleValue();
+        this.divisor = multipleOf != null && multipleOf.stripTrailingZeros().scale() <= 0 && multipleOf.compareTo(LONG_MAX) <= 0 ? multipleOf.longValue() : 0;
+    }
+
+    /**
+     * @return the bounds of the schema or null when it has none
+     */
+    static @Nullable NumericBounds of(final Schema<?> schema) {
+        final var multipleOf = schema.getMultipleOf() != null && schema.getMultipleOf().signum() > 0 ? schema.getMultipleOf() : null;
+        if (schema.getMinimum() == null && schema.getMaximum() == null && multipleOf == null) {
+            return null;
+        }
+        return new NumericBounds(schema.getMinimum(), Boolean.TRUE.equals(schema.getExclusiveMinimum()), schema.getMaximum(),
+                Boolean.TRUE.equals(schema.getExclusiveMaximum()), multipleOf);
+    }
+
+    /**
+     * @param name parameter name or null for a body value located by the context pointer
+     */
+    void check(final Context context, final String name, final long value, final boolean ignoreMessage) {
+        if (value < lowest) {
+            reportMinimum(context, name, value, ignoreMessage);
+        }
+        if (value > highest) {
+            reportMaximum(context, name, value, ignoreMessage);
+        }
+        if (multipleOf != null && (divisor > 0 ? value % divisor != 0 : BigDecimal.valueOf(value).remainder(multipleOf).signum() != 0)) {
+            context.addError(ErrorCode.MULTIPLE_OF, ignoreMessage, name, multipleOf.toPlainString(), value);
+        }
+    }
+
+    /**
+     * @param name parameter name or null for a body value located by the context pointer
+     */
+    void check(final Context context, final String name, final double value, final boolean ignoreMessage) {
+        if (value < minimumValue || (exclusiveMinimum && value == minimumValue)) {
+            reportMinimum(context, name, value, ignoreMessage);
+        }
+        if (value > maximumValue || (exclusiveMaximum && value == maximumValue)) {
+            reportMaximum(context, name, value, ignoreMessage);
+        }
+        if (multipleOf != null && !isMultiple(value)) {
+            context.addError(ErrorCode.MULTIPLE_OF, ignoreMessage, name, multipleOf.toPlainString(), value);
+        }
+    }
+
+    private boolean isMultiple(final double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return false;
+        }
+        if (divisor > 0 && value == Math.rint(value) && Math.abs(value) < 0x1p63) {
+            return (long) value % divisor == 0;
+        }
+        return BigDecimal.valueOf(value).remainder(multipleOf).signum() == 0;
+    }
+
+    private void reportMinimum(final Context context, final String name, final Object value, final boolean ignoreMessage) {
+        context.addError(exclusiveMinimum ? ErrorCode.EXCLUSIVE_MINIMUM : ErrorCode.MINIMUM, ignoreMessage, name, minimum.toPlainString(), value);
+    }
+
+    private void reportMaximum(final Context context, final String name, final Object value, final boolean ignoreMessage) {
+        context.addError(exclusiveMaximum ? ErrorCode.EXCLUSIVE_MAXIMUM : ErrorCode.MAXIMUM, ignoreMessage, name, maximum.toPlainString(), value);
+    }
+
+    private static long clamp(final BigDecimal value) {
+        if (value.compareTo(LONG_MIN) <= 0) {
+            return Long.MIN_VALUE;
+        } else if (value.compareTo(LONG_MAX) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        return value.longValueExact();
+    }
+}
@@ -0,0 +1,218 @@
+package com.naqiran.oas.validator.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import com.naqiran.oas.validator.utils.JsonUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Properties are validated in document order. A streamed object marks the required properties it has seen in a bit
+ * mask indexed by the position of the property in the required list, so no set of names is built per object.
+ * <p>
+ * Required readOnly properties are not required in a request and required writeOnly properties are not required in a
+ * response, sending a readOnly property in a request or a writeOnly one in a response is an error.
+ */
+class ObjectValidator extends CompiledSchema {
+
+    private final Map<String, CompiledSchema> properties;
+    private final String[] required;
+    private final Map<String, Integer> requiredIndex;
+    private final Set<String> readOnly;
+    private final Set<String> writeOnly;
+    private final boolean additionalAllowed;
+    private final CompiledSchema additionalProperties;
+    private final int minProperties;
+    private final int maxProperties;
+
+    /**
+     * @param readOnly             names of the readOnly properties or null when there are none
+     * @param writeOnly            names of the writeOnly properties or null when there are none
+     * @param additionalAllowed    false when properties not listed are not allowed
+     * @param additionalProperties schema of the properties not listed or null when any value is allowed
+     */
+    ObjectValidator(final Map<String, CompiledSchema> properties, final List<String> required, final @Nullable Set<String> readOnly,
+                    final @Nullable Set<String> writeOnly, final boolean additionalAllowed, final @Nullable CompiledSchema additionalProperties,
+                    final Integer minProperties, final Integer maxProperties) {
+        this.properties = properties;
+        this.required = required.toArray(new String[0]);
+        this.requiredIndex = new HashMap<>();
+        for (int index = 0; index < this.required.length; index++) {
+            requiredIndex.put(this.required[index], index);
+        }
+        this.readOnly = readOnly;
+        this.writeOnly = writeOnly;
+        this.additionalAllowed = additionalAllowed;
+        this.additionalProperties = additionalProperties;
+        this.minProperties = minProperties == null ? -1 : minProperties;
+        this.maxProperties = maxProperties == null ? Integer.MAX_VALUE : maxProperties;
+    }
+
+    @Override
+    protected void validateNode(final @Nonnull Context context, final @Nonnull JsonNode node, final boolean ignoreMessage) {
+        if (!node.isObject()) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, "object", node.getNodeType());
+            return;
+        }
+        if (context.isParallel(node.size())) {
+            ParallelValidation.validateProperties(context, this, node, ignoreMessage);
+        } else {
+            final var fields = node.fields();
+            while (fields.hasNext()) {
+                final var field = fields.next();
+                validateProperty(context, field.getKey(), field.getValue(), ignoreMessage);
+                if (context.isHalted()) {
+                    return;
+                }
+            }
+        }
+        if (context.isHalted()) {
+            return;
+        }
+        for (final var name : required) {
+            if (!node.has(name) && isRequired(context, name)) {
+                context.addError(ErrorCode.REQUIRED, ignoreMessage, name, null);
+            }
+        }
+        checkSize(context, node.size(), ignoreMessage);
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull JsonParser parser, final boolean ignoreMessage) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, "object", JsonUtils.getNodeType(parser.currentToken()));
+            parser.skipChildren();
+            return;
+        }
+        final var pointer = context.getPointer();
+        final var seenMany = required.length > Long.SIZE ? new boolean[required.length] : null;
+        long seen = 0;
+        int size = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final var name = parser.getCurrentName();
+            parser.nextToken();
+            size++;
+            if (required.length > 0) {
+                final var index = requiredIndex.get(name);
+                if (index != null) {
+                    if (seenMany != null) {
+                        seenMany[index] = true;
+                    } else {
+                        seen |= 1L << index;
+                    }
+                }
+            }
+            final var property = properties.get(name);
+            if (property != null) {
+                pointer.push(name);
+                checkAccess(context, name, ignoreMessage);
+                property.validate(context, parser, ignoreMessage);
+                pointer.pop();
+            } else if (!additionalAllowed) {
+                pointer.push(name);
+                context.addError(ErrorCode.ADDITIONAL_PROPERTY, ignoreMessage, null, null);
+                pointer.pop();
+                parser.skipChildren();
+            } else if (additionalProperties != null) {
+                pointer.push(name);
+                additionalProperties.validate(context, parser, ignoreMessage);
+                pointer.pop();
+            } else {
+                parser.skipChildren();
+            }
+            if (context.isHalted()) {
+                return;
+            }
+        }
+        for (int index = 0; index < required.length; index++) {
+            final var present = seenMany != null ? seenMany[index] : (seen & 1L << index) != 0;
+            if (!present && isRequired(context, required[index])) {
+                context.addError(ErrorCode.REQUIRED, ignoreMessage, required[index], null);
+            }
+        }
+        checkSize(context, size, ignoreMessage);
+    }
+
+    /**
+     * Validates the fields of a parameter or form body. Additional properties and the property count are not checked
+     * as an exploded form parameter shares its fields with the other query parameters.
+     */
+    @Override
+    public void validateFields(final @Nonnull Context context, final @Nonnull String name, final @Nonnull Map<String, List<String>> fields,
+                               final boolean ignoreMessage) {
+        for (final var field : fields.entrySet()) {
+            final var property = properties.get(field.getKey());
+            if (property != null) {
+                property.validateValues(context, name.isEmpty() ? field.getKey() : name + '.' + field.getKey(), field.getValue(), ignoreMessage);
+                if (context.isHalted()) {
+                    return;
+                }
+            }
+        }
+        for (final var property : required) {
+            if (!fields.containsKey(property) && isRequired(context, property)) {
+                context.addError(ErrorCode.REQUIRED, ignoreMessage, name, property, null);
+            }
+        }
+    }
+
+    @Override
+    public JsonNodeType getType() {
+        return JsonNodeType.OBJECT;
+    }
+
+    /**
+     * Validates a property of the object node at the current pointer, also used by the chunks of a parallel
+     * validation.
+     */
+    void validateProperty(final Context context, final String name, final JsonNode value, final boolean ignoreMessage) {
+        final var property = properties.get(name);
+        if (property == null && additionalAllowed && additionalProperties == null) {
+            return;
+        }
+        context.getPointer().push(name);
+        if (property != null) {
+            checkAccess(context, name, ignoreMessage);
+            property.validate(context, value, ignoreMessage);
+        } else if (!additionalAllowed) {
+            context.addError(ErrorCode.ADDITIONAL_PROPERTY, ignoreMessage, null, null);
+        } else {
+            additionalProperties.validate(context, value, ignoreMessage);
+        }
+        context.getPointer().pop();
+    }
+
+    private void checkAccess(final Context context, final String name, final boolean ignoreMessage) {
+        if (context.isValidatingResponse()) {
+            if (writeOnly != null && writeOnly.contains(name)) {
+                context.addError(ErrorCode.WRITE_ONLY, ignoreMessage, null, null);
+            }
+        } else if (readOnly != null && readOnly.contains(name)) {
+            context.addError(ErrorCode.READ_ONLY, ignoreMessage, null, null);
+        }
+    }
+
+    private boolean isRequired(final Context context, final String name) {
+        final var excluded = context.isValidatingResponse() ? writeOnly : readOnly;
+        return excluded == null || !excluded.contains(name);
+    }
+
+    private void checkSize(final Context context, final int size, final boolean ignoreMessage) {
+        if (size < minProperties) {
+            context.addError(ErrorCode.MIN_PROPERTIES, ignoreMessage, minProperties, size);
+        }
+        if (size > maxProperties) {
+            context.addError(ErrorCode.MAX_PROPERTIES, ignoreMessage, maxProperties, size);
+        }
+    }
+}
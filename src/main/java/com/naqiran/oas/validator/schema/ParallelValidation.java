@@ -0,0 +1,103 @@
+package com.naqiran.oas.validator.schema;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Splits the values of a large array or object into chunks validated as fork join tasks. Every chunk validates into a
+ * forked {@link Context} so no message list is shared between threads; the forks are merged in document order once
+ * all chunks are done.
+ */
+final class ParallelValidation {
+
+    private ParallelValidation() {
+    }
+
+    static void validateItems(final Context context, final CompiledSchema items, final JsonNode node, final boolean ignoreMessage) {
+        final var size = node.size();
+        final var chunk = getChunkSize(context, size);
+        final List<Chunk> chunks = new ArrayList<>(size / chunk + 1);
+        for (int start = 0; start < size; start += chunk) {
+            final var from = start;
+            final var to = Math.min(start + chunk, size);
+            chunks.add(new Chunk(context.fork(), fork -> {
+                final var pointer = fork.getPointer();
+                for (int index = from; index < to; index++) {
+                    pointer.push(index);
+                    items.validate(fork, node.get(index), ignoreMessage);
+                    pointer.pop();
+                    if (fork.isHalted()) {
+                        return;
+                    }
+                }
+            }));
+        }
+        invoke(context, chunks);
+    }
+
+    static void validateProperties(final Context context, final ObjectValidator object, final JsonNode node, final boolean ignoreMessage) {
+        final List<Map.Entry<String, JsonNode>> fields = new ArrayList<>(node.size());
+        node.fields().forEachRemaining(fields::add);
+        final var chunk = getChunkSize(context, fields.size());
+        final List<Chunk> chunks = new ArrayList<>(fields.size() / chunk + 1);
+        for (int start = 0; start < fields.size(); start += chunk) {
+            final var part = fields.subList(start, Math.min(start + chunk, fields.size()));
+            chunks.add(new Chunk(context.fork(), fork -> {
+                for (final var field : part) {
+                    object.validateProperty(fork, field.getKey(), field.getValue(), ignoreMessage);
+                    if (fork.isHalted()) {
+                        return;
+                    }
+                }
+            }));
+        }
+        invoke(context, chunks);
+    }
+
+    /**
+     * Chunks hold at least the threshold number of values, and there are no more than four per worker of the pool.
+     */
+    private static int getChunkSize(final Context context, final int size) {
+        final var tasks = context.getPool().getParallelism() * 4;
+        return Math.max(context.getParallelThreshold(), (size + tasks - 1) / tasks);
+    }
+
+    private static void invoke(final Context context, final List<Chunk> chunks) {
+        final var pool = context.getPool();
+        if (ForkJoinTask.getPool() == pool) {
+            ForkJoinTask.invokeAll(chunks);
+        } else {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(chunks);
+                }
+            });
+        }
+        for (final var chunk : chunks) {
+            context.merge(chunk.fork);
+        }
+    }
+
+    private static class Chunk extends RecursiveAction {
+        private final Context fork;
+        private final Consumer<Context> validation;
+
+        private Chunk(final Context fork, final Consumer<Context> validation) {
+            this.fork = fork;
+            this.validation = validation;
+        }
+
+        @Override
+        protected void compute() {
+            validation.accept(fork);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.naqiran.oas.validator.schema;
+
+import com.naqiran.oas.validator.ValidationException;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.callbacks.Callback;
+import io.swagger.v3.oas.models.examples.Example;
+import io.swagger.v3.oas.models.headers.Header;
+import io.swagger.v3.oas.models.links.Link;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.ComposedSchema;
+import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.parameters.Parameter;
+import io.swagger.v3.oas.models.parameters.RequestBody;
+import io.swagger.v3.oas.models.responses.ApiResponse;
+import io.swagger.v3.oas.models.security.SecurityScheme;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * {@code $ref} targets of the components of a contract, resolved once when the validator is built. A component that
+ * is itself a reference is followed to the end of the chain, a chain that comes back to itself is rejected.
+ * <p>
+ * Schema components are also linked by the references of their properties, items, composed branches and additional
+ * properties. A component on a cycle of that graph, such as a tree node listing its children, is recursive: payloads
+ * can nest it without end, so references to it count towards the depth limit of the {@link
+ * com.naqiran.oas.validator.Context context} while references to other components cost nothing at validation time.
+ * <p>
+ * References to other files are resolved into the components by the parser, references it could not resolve have no
+ * target.
+ */
+@Immutable
+public final class ReferenceGraph {
+
+    private static final String COMPONENTS_PREFIX = "#/components/";
+    private static final String SCHEMA_REFERENCE_PREFIX = COMPONENTS_PREFIX + "schemas/";
+
+    private final Components components;
+    private final Map<String, Object> targets = new HashMap<>();
+    private final Map<String, String> canonical = new HashMap<>();
+    private final Set<String> recursive = new HashSet<>();
+
+    public ReferenceGraph(final @Nullable Components components) {
+        this.components = components;
+        if (components == null) {
+            return;
+        }
+        addComponents("schemas", components.getSchemas(), schema -> schema.get$ref());
+        addComponents("responses", components.getResponses(), ApiResponse::get$ref);
+        addComponents("parameters", components.getParameters(), Parameter::get$ref);
+        addComponents("examples", components.getExamples(), Example::get$ref);
+        addComponents("requestBodies", components.getRequestBodies(), RequestBody::get$ref);
+        addComponents("headers", components.getHeaders(), Header::get$ref);
+        addComponents("securitySchemes", components.getSecuritySchemes(), SecurityScheme::get$ref);
+        addComponents("links", components.getLinks(), Link::get$ref);
+        addComponents("callbacks", components.getCallbacks(), Callback::get$ref);
+        if (components.getSchemas() != null) {
+            findRecursiveSchemas(components.getSchemas().keySet());
+        }
+    }
+
+    public @Nullable Components getComponents() {
+        return components;
+    }
+
+    /**
+     * @return the schema at the end of the reference chain or null when the reference has no target
+     */
+    public @Nullable Schema<?> getSchema(final @Nonnull String reference) {
+        final var target = targets.get(reference);
+        return target instanceof Schema ? (Schema<?>) target : null;
+    }
+
+    /**
+     * @return true when the reference is to a schema component that can contain itself
+     */
+    public boolean isRecursive(final @Nonnull String reference) {
+        return recursive.contains(canonical.getOrDefault(reference, reference));
+    }
+
+    /**
+     * @return the target of a parameter reference, the parameter itself when it is not a reference or has no target
+     */
+    public Parameter resolve(final @Nullable Parameter parameter) {
+        return parameter == null ? null : resolve(parameter, parameter.get$ref(), Parameter.class);
+    }
+
+    public RequestBody resolve(final @Nullable RequestBody requestBody) {
+        return requestBody == null ? null : resolve(requestBody, requestBody.get$ref(), RequestBody.class);
+    }
+
+    public ApiResponse resolve(final @Nullable ApiResponse response) {
+        return response == null ? null : resolve(response, response.get$ref(), ApiResponse.class);
+    }
+
+    public Header resolve(final @Nullable Header header) {
+        return header == null ? null : resolve(header, header.get$ref(), Header.class);
+    }
+
+    private <T> T resolve(final T component, final String reference, final Class<T> type) {
+        if (reference == null) {
+            return component;
+        }
+        final var target = targets.get(reference);
+        return type.isInstance(target) ? type.cast(target) : component;
+    }
+
+    private <T> void addComponents(final String type, final Map<String, T> components, final Function<T, String> referenceOf) {
+        if (components == null) {
+            return;
+        }
+        final var prefix = COMPONENTS_PREFIX + type + '/';
+        for (final var component : components.entrySet()) {
+            final var reference = prefix + component.getKey();
+            final Set<String> chain = new LinkedHashSet<>();
+            chain.add(reference);
+            var last = reference;
+            var target = component.getValue();
+            while (target != null && referenceOf.apply(target) != null) {
+                final var next = referenceOf.apply(target);
+                if (!chain.add(next)) {
+                    throw new ValidationException("Circular reference: " + String.join(" -> ", chain) + " -> " + next);
+                }
+                last = next;
+                target = next.startsWith(prefix) ? components.get(next.substring(prefix.length())) : null;
+            }
+            canonical.put(reference, last);
+            if (target != null) {
+                targets.put(reference, target);
+            }
+        }
+    }
+
+    /**
+     * Marks the schema components of the strongly connected components of the schema graph that contain a cycle,
+     * found with Tarjan's algorithm.
+     */
+    private void findRecursiveSchemas(final Set<String> names) {
+        final Map<String, Set<String>> edges = new HashMap<>();
+        for (final var name : names) {
+            final var reference = SCHEMA_REFERENCE_PREFIX + name;
+            if (reference.equals(canonical.get(reference))) {
+                final Set<String> referenced = new HashSet<>();
+                collectReferences(getSchema(reference), referenced, Collections.newSetFromMap(new IdentityHashMap<>()));
+                edges.put(reference, referenced);
+            }
+        }
+        final var search = new Search(edges);
+        for (final var reference : edges.keySet()) {
+            if (!search.index.containsKey(reference)) {
+                search.visit(reference);
+            }
+        }
+    }
+
+    private void collectReferences(final Schema<?> schema, final Set<String> referenced, final Set<Schema<?>> visited) {
+        if (schema == null || !visited.add(schema)) {
+            return;
+        }
+        if (schema.get$ref() != null) {
+            referenced.add(canonical.getOrDefault(schema.get$ref(), schema.get$ref()));
+            return;
+        }
+        if (schema.getProperties() != null) {
+            for (final var property : schema.getProperties().values()) {
+                collectReferences(property, referenced, visited);
+            }
+        }
+        if (schema instanceof ArraySchema) {
+            collectReferences(((ArraySchema) schema).getItems(), referenced, visited);
+        }
+        if (schema instanceof ComposedSchema) {
+            final var composed = (ComposedSchema) schema;
+            for (final var branches : List.of(nonNull(composed.getAllOf()), nonNull(composed.getAnyOf()), nonNull(composed.getOneOf()))) {
+                for (final var branch : branches) {
+                    collectReferences((Schema<?>) branch, referenced, visited);
+                }
+            }
+        }
+        collectReferences(schema.getNot(), referenced, visited);
+        if (schema.getAdditionalProperties() instanceof Schema) {
+            collectReferences((Schema<?>) schema.getAdditionalProperties(), referenced, visited);
+        }
+    }
+
+    private static List<?> nonNull(final List<?> schemas) {
+        return schemas == null ? List.of() : schemas;
+    }
+
+    private final class Search {
+        private final Map<String, Set<String>> edges;
+        private final Map<String, Integer> index = new HashMap<>();
+        private final Map<String, Integer> lowLink = new HashMap<>();
+        private final Deque<String> stack = new ArrayDeque<>();
+        private final Set<String> onStack = new HashSet<>();
+
+        private Search(final Map<String, Set<String>> edges) {
+            this.edges = edges;
+        }
+
+        private void visit(final String reference) {
+            index.put(reference, index.size());
+            lowLink.put(reference, index.get(reference));
+            stack.push(reference);
+            onStack.add(reference);
+            final var referenced = edges.getOrDefault(reference, Set.of());
+            for (final var next : referenced) {
+                if (!edges.containsKey(next)) {
+                    continue;
+                }
+                if (!index.containsKey(next)) {
+                    visit(next);
+                    lowLink.put(reference, Math.min(lowLink.get(reference), lowLink.get(next)));
+                } else if (onStack.contains(next)) {
+                    lowLink.put(reference, Math.min(lowLink.get(reference), index.get(next)));
+                }
+            }
+            if (lowLink.get(reference).equals(index.get(reference))) {
+                final List<String> component = new ArrayList<>();
+                String member;
+                do {
+                    member = stack.pop();
+                    onStack.remove(member);
+                    component.add(member);
+                } while (!member.equals(reference));
+                if (component.size() > 1 || referenced.contains(reference)) {
+                    recursive.addAll(component);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.naqiran.oas.validator.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiled {@code $ref}. The target is attached once the referenced schema is compiled which lets recursive schemas
+ * point back to themselves; it is never changed after the compiler returns.
+ * <p>
+ * A reference to a recursive schema counts the nesting of the payload against the depth limit of the context, a value
+ * nested deeper is reported and skipped.
+ */
+class ReferenceValidator extends CompiledSchema {
+
+    private final String reference;
+    private final boolean recursive;
+    private CompiledSchema target;
+
+    ReferenceValidator(final String reference, final boolean recursive) {
+        this.reference = reference;
+        this.recursive = recursive;
+    }
+
+    void setTarget(final CompiledSchema target) {
+        this.target = target;
+    }
+
+    @Override
+    protected void validateNode(final @Nonnull Context context, final @Nonnull JsonNode node, final boolean ignoreMessage) {
+        if (target == null) {
+            context.addError(ErrorCode.REFERENCE_MISSING, ignoreMessage, reference, null);
+        } else if (!recursive) {
+            target.validateNode(context, node, ignoreMessage);
+        } else {
+            try {
+                if (context.enterRecursion()) {
+                    target.validateNode(context, node, ignoreMessage);
+                } else {
+                    context.addError(ErrorCode.MAX_DEPTH, ignoreMessage, context.getMaxDepth(), reference);
+                }
+            } finally {
+                context.exitRecursion();
+            }
+        }
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull JsonParser parser, final boolean ignoreMessage) throws IOException {
+        if (target == null) {
+            context.addError(ErrorCode.REFERENCE_MISSING, ignoreMessage, reference, null);
+            parser.skipChildren();
+        } else if (!recursive) {
+            target.validate(context, parser, ignoreMessage);
+        } else {
+            try {
+                if (context.enterRecursion()) {
+                    target.validate(context, parser, ignoreMessage);
+                } else {
+                    context.addError(ErrorCode.MAX_DEPTH, ignoreMessage, context.getMaxDepth(), reference);
+                    parser.skipChildren();
+                }
+            } finally {
+                context.exitRecursion();
+            }
+        }
+    }
+
+    @Override
+    public void validateValues(final @Nonnull Context context, final @Nonnull String name, final List<String> values, final boolean ignoreMessage) {
+        if (target != null) {
+            target.validateValues(context, name, values, ignoreMessage);
+        }
+    }
+
+    @Override
+    public void validateValue(final @Nonnull Context context, final @Nonnull String name, final String value, final boolean ignoreMessage) {
+        if (target != null) {
+            target.validateValue(context, name, value, ignoreMessage);
+        }
+    }
+
+    @Override
+    public void validateFields(final @Nonnull Context context, final @Nonnull String name, final @Nonnull Map<String, List<String>> fields,
+                               final boolean ignoreMessage) {
+        if (target != null) {
+            target.validateFields(context, name, fields, ignoreMessage);
+        }
+    }
+
+    @Override
+    public JsonNodeType getType() {
+        return target == null ? null : target.getType();
+    }
+}
@@ -0,0 +1,231 @@
+package com.naqiran.oas.validator.schema;
+
+import com.naqiran.oas.validator.ValidationException;
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.media.ArraySchema;
+import io.swagger.v3.oas.models.media.ComposedSchema;
+import io.swagger.v3.oas.models.media.Schema;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles swagger {@link Schema} models into {@link CompiledSchema} trees. Component references are compiled once
+ * per compiler so every operation compiled with the same instance shares the referenced validators. References are
+ * looked up in the {@link ReferenceGraph} of the contract, which already followed reference chains.
+ */
+public class SchemaCompiler {
+
+    private static final String SCHEMA_REFERENCE_PREFIX = "#/components/schemas/";
+
+    /**
+     * Compiled patterns by regular expression, shared by all compilers as contracts tend to repeat the same patterns.
+     */
+    private static final Map<String, Pattern> PATTERNS = new ConcurrentHashMap<>();
+
+    private final ReferenceGraph graph;
+    private final Map<String, ReferenceValidator> references = new HashMap<>();
+
+    public SchemaCompiler(final @Nullable Components components) {
+        this(new ReferenceGraph(components));
+    }
+
+    public SchemaCompiler(final @Nonnull ReferenceGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * @return the components references are resolved against
+     */
+    public @Nullable Components getComponents() {
+        return graph.getComponents();
+    }
+
+    public @Nonnull ReferenceGraph getReferenceGraph() {
+        return graph;
+    }
+
+    public @Nonnull CompiledSchema compile(final @Nullable Schema<?> schema) {
+        if (schema == null) {
+            return AnyValidator.INSTANCE;
+        }
+        if (schema.get$ref() != null) {
+            return compileReference(schema.get$ref());
+        }
+        final var validator = compileSchema(schema);
+        return Boolean.TRUE.equals(schema.getNullable()) ? new NullableValidator(validator) : validator;
+    }
+
+    private CompiledSchema compileSchema(final Schema<?> schema) {
+        if (schema instanceof ComposedSchema) {
+            final var composedSchema = (ComposedSchema) schema;
+            if (composedSchema.getAllOf() != null) {
+                return new ComposedValidator(ComposedValidator.Kind.ALL_OF, compileAll(composedSchema.getAllOf()));
+            } else if (composedSchema.getAnyOf() != null) {
+                return compileAlternatives(ComposedValidator.Kind.ANY_OF, composedSchema, composedSchema.getAnyOf());
+            } else if (composedSchema.getOneOf() != null) {
+                return compileAlternatives(ComposedValidator.Kind.ONE_OF, composedSchema, composedSchema.getOneOf());
+            }
+        }
+        switch (getType(schema)) {
+            case "array":
+                final var items = schema instanceof ArraySchema ? ((ArraySchema) schema).getItems() : null;
+                return new ArrayValidator(compile(items), schema.getMinItems(), schema.getMaxItems(), Boolean.TRUE.equals(schema.getUniqueItems()));
+            case "object":
+                return compileObject(schema);
+            case "integer":
+                return new IntegerValidator(schema.getFormat(), getEnumValues(schema, value -> new BigDecimal(value.toString()).longValue()), getEnumText(schema),
+                        NumericBounds.of(schema));
+            case "number":
+                return new NumberValidator(getEnumValues(schema, value -> new BigDecimal(value.toString()).stripTrailingZeros()), getEnumText(schema),
+                        NumericBounds.of(schema));
+            case "boolean":
+                return new BooleanValidator(getEnumValues(schema, value -> Boolean.valueOf(value.toString())), getEnumText(schema));
+            case "string":
+                return new StringValidator(schema.getMinLength(), schema.getMaxLength(), getEnumValues(schema, String::valueOf), getEnumText(schema),
+                        getPattern(schema.getPattern()), Format.of(schema.getFormat()));
+            default:
+                return AnyValidator.INSTANCE;
+        }
+    }
+
+    /**
+     * additionalProperties is either false, which rejects properties not listed, or a schema for them. readOnly and
+     * writeOnly are read from the property schema or from the component it references.
+     */
+    private CompiledSchema compileObject(final Schema<?> schema) {
+        final Map<String, ?> properties = schema.getProperties() == null ? Map.of() : schema.getProperties();
+        final Set<String> readOnly = new HashSet<>();
+        final Set<String> writeOnly = new HashSet<>();
+        for (final var property : properties.entrySet()) {
+            final var target = resolve((Schema<?>) property.getValue());
+            if (target != null && Boolean.TRUE.equals(target.getReadOnly())) {
+                readOnly.add(property.getKey());
+            }
+            if (target != null && Boolean.TRUE.equals(target.getWriteOnly())) {
+                writeOnly.add(property.getKey());
+            }
+        }
+        final var additionalProperties = schema.getAdditionalProperties();
+        return new ObjectValidator(compileProperties(properties), schema.getRequired() == null ? List.of() : schema.getRequired(),
+                readOnly.isEmpty() ? null : Set.copyOf(readOnly), writeOnly.isEmpty() ? null : Set.copyOf(writeOnly),
+                !Boolean.FALSE.equals(additionalProperties),
+                additionalProperties instanceof Schema ? compile((Schema<?>) additionalProperties) : null,
+                schema.getMinProperties(), schema.getMaxProperties());
+    }
+
+    /**
+     * @return the schema or the component schema it references, null when the reference is missing
+     */
+    private @Nullable Schema<?> resolve(final Schema<?> schema) {
+        return schema.get$ref() == null ? schema : graph.getSchema(schema.get$ref());
+    }
+
+    private CompiledSchema compileReference(final String reference) {
+        var validator = references.get(reference);
+        if (validator == null) {
+            validator = new ReferenceValidator(reference, graph.isRecursive(reference));
+            references.put(reference, validator);
+            final var target = graph.getSchema(reference);
+            if (target != null) {
+                validator.setTarget(compile(target));
+            }
+        }
+        return validator;
+    }
+
+    /**
+     * Compiles anyOf and oneOf branches. With a discriminator the branches are also indexed by discriminator value,
+     * the explicit mapping first and then the component name of every referenced branch.
+     */
+    private CompiledSchema compileAlternatives(final ComposedValidator.Kind kind, final ComposedSchema schema, final List<?> branches) {
+        final var compiled = compileAll(branches);
+        final var discriminator = schema.getDiscriminator();
+        if (discriminator == null || discriminator.getPropertyName() == null) {
+            return new ComposedValidator(kind, compiled);
+        }
+        final Map<String, CompiledSchema> mapping = new LinkedHashMap<>();
+        if (discriminator.getMapping() != null) {
+            discriminator.getMapping().forEach((value, reference) ->
+                    mapping.put(value, compileReference(reference.startsWith("#") ? reference : SCHEMA_REFERENCE_PREFIX + reference)));
+        }
+        for (int index = 0; index < branches.size(); index++) {
+            final var reference = ((Schema<?>) branches.get(index)).get$ref();
+            if (reference != null && reference.startsWith(SCHEMA_REFERENCE_PREFIX)) {
+                mapping.putIfAbsent(reference.substring(SCHEMA_REFERENCE_PREFIX.length()), compiled.get(index));
+            }
+        }
+        return new ComposedValidator(kind, compiled, discriminator.getPropertyName(), Collections.unmodifiableMap(mapping));
+    }
+
+    private List<CompiledSchema> compileAll(final List<?> schemas) {
+        final List<CompiledSchema> validators = new ArrayList<>(schemas.size());
+        for (final var schema : schemas) {
+            validators.add(compile((Schema<?>) schema));
+        }
+        return Collections.unmodifiableList(validators);
+    }
+
+    private Map<String, CompiledSchema> compileProperties(final Map<String, ?> properties) {
+        if (properties.isEmpty()) {
+            return Map.of();
+        }
+        final Map<String, CompiledSchema> validators = new LinkedHashMap<>();
+        for (final var property : properties.entrySet()) {
+            validators.put(property.getKey(), compile((Schema<?>) property.getValue()));
+        }
+        return Collections.unmodifiableMap(validators);
+    }
+
+    private static String getType(final Schema<?> schema) {
+        if (schema.getType() != null) {
+            return schema.getType();
+        } else if (schema instanceof ArraySchema) {
+            return "array";
+        } else if (schema.getProperties() != null || schema.getAdditionalProperties() != null) {
+            return "object";
+        }
+        return "";
+    }
+
+    private static Pattern getPattern(final String regex) {
+        if (regex == null) {
+            return null;
+        }
+        try {
+            return PATTERNS.computeIfAbsent(regex, Pattern::compile);
+        } catch (final PatternSyntaxException ex) {
+            throw new ValidationException("Invalid schema pattern " + regex + ": " + ex.getDescription());
+        }
+    }
+
+    private static <T> Set<T> getEnumValues(final Schema<?> schema, final Function<Object, T> converter) {
+        if (schema.getEnum() == null) {
+            return null;
+        }
+        final Set<T> values = new HashSet<>();
+        for (final var value : schema.getEnum()) {
+            if (value != null) {
+                values.add(converter.apply(value));
+            }
+        }
+        return Collections.unmodifiableSet(values);
+    }
+
+    private static String getEnumText(final Schema<?> schema) {
+        return schema.getEnum() == null ? null : schema.getEnum().toString();
+    }
+}
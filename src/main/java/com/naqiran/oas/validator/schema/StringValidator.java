@@ -0,0 +1,86 @@
+package com.naqiran.oas.validator.schema;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import com.naqiran.oas.validator.utils.JsonUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * The pattern is compiled once by the compiler and matched anywhere in the value as JSON Schema patterns are not
+ * anchored, formats are checked by their {@link Format} scanner.
+ */
+class StringValidator extends CompiledSchema {
+
+    private final int minLength;
+    private final int maxLength;
+    private final Set<String> enumValues;
+    private final String enumText;
+    private final Pattern pattern;
+    private final Format format;
+
+    StringValidator(final Integer minLength, final Integer maxLength, final Set<String> enumValues, final String enumText,
+                    final @Nullable Pattern pattern, final @Nullable Format format) {
+        this.minLength = minLength == null ? -1 : minLength;
+        this.maxLength = maxLength == null ? Integer.MAX_VALUE : maxLength;
+        this.enumValues = enumValues;
+        this.enumText = enumText;
+        this.pattern = pattern;
+        this.format = format;
+    }
+
+    @Override
+    protected void validateNode(final @Nonnull Context context, final @Nonnull JsonNode node, final boolean ignoreMessage) {
+        if (!node.isTextual()) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, "string", node.getNodeType());
+        } else {
+            validateString(context, null, node.textValue(), ignoreMessage);
+        }
+    }
+
+    @Override
+    public void validate(final @Nonnull Context context, final @Nonnull JsonParser parser, final boolean ignoreMessage) throws IOException {
+        final var token = parser.currentToken();
+        if (token != JsonToken.VALUE_STRING) {
+            context.addError(ErrorCode.TYPE_MISMATCH, ignoreMessage, "string", JsonUtils.getNodeType(token));
+            parser.skipChildren();
+        } else {
+            validateString(context, null, parser.getText(), ignoreMessage);
+        }
+    }
+
+    @Override
+    public void validateValue(final @Nonnull Context context, final @Nonnull String name, final String value, final boolean ignoreMessage) {
+        if (value != null) {
+            validateString(context, name, value, ignoreMessage);
+        }
+    }
+
+    /**
+     * @param name parameter name or null for a body value located by the context pointer
+     */
+    private void validateString(final Context context, final String name, final String value, final boolean ignoreMessage) {
+        if (enumValues != null && !enumValues.contains(value)) {
+            context.addError(ErrorCode.ENUM_MISMATCH, ignoreMessage, name, enumText, value);
+        }
+        if (value.length() < minLength) {
+            context.addError(ErrorCode.MIN_LENGTH, ignoreMessage, name, minLength, value.length());
+        }
+        if (value.length() > maxLength) {
+            context.addError(ErrorCode.MAX_LENGTH, ignoreMessage, name, maxLength, value.length());
+        }
+        if (pattern != null && !pattern.matcher(value).find()) {
+            context.addError(ErrorCode.PATTERN_MISMATCH, ignoreMessage, name, pattern.pattern(), value);
+        }
+        if (format != null && !format.test(value)) {
+            context.addError(ErrorCode.FORMAT_MISMATCH, ignoreMessage, name, format, value);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.naqiran.oas.validator.traffic;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.ValidationException;
+import com.naqiran.oas.validator.utils.JsonUtils;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams the {@code log.entries} of a HAR file, only the entry being read is held as a tree.
+ */
+class HarReader extends TrafficReader {
+
+    private final JsonParser parser;
+    private boolean inEntries;
+
+    HarReader(final @Nonnull Path file) throws IOException {
+        this.parser = JsonUtils.getMapper().createParser(Files.newInputStream(file));
+    }
+
+    @Override
+    public TrafficRecord next() throws IOException {
+        if (!inEntries && !seekEntries()) {
+            return null;
+        }
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return null;
+        }
+        final JsonNode entry = JsonUtils.getMapper().readTree(parser);
+        try {
+            final var request = entry.path("request");
+            final var requestBody = request.path("postData").get("text");
+            final var trafficRequest = getRequest(getText(request, "method"), getText(request, "url"), getHeaders(request.get("headers")), getBody(requestBody, null));
+            final var response = entry.get("response");
+            if (response == null || response.path("status").asInt() <= 0) {
+                return new TrafficRecord(trafficRequest, null);
+            }
+            final var content = response.path("content");
+            return new TrafficRecord(trafficRequest, getResponse(response.path("status").asInt(), getHeaders(response.get("headers")),
+                    getBody(content.get("text"), content.path("encoding").asText(null))));
+        } catch (final IllegalArgumentException ex) {
+            throw new ValidationException("Unable to read HAR entry: " + ex.getMessage());
+        }
+    }
+
+    private boolean seekEntries() throws IOException {
+        int depth = 0;
+        boolean inLog = false;
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token == JsonToken.FIELD_NAME) {
+                final var name = parser.getCurrentName();
+                if (depth == 1 && "log".equals(name)) {
+                    inLog = true;
+                } else if (depth == 2 && inLog && "entries".equals(name)) {
+                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                        return false;
+                    }
+                    inEntries = true;
+                    return true;
+                } else {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            } else if (token == JsonToken.START_OBJECT) {
+                depth++;
+            } else if (token == JsonToken.END_OBJECT) {
+                depth--;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, List<String>> getHeaders(final JsonNode node) {
+        final var headers = newHeaders();
+        if (node != null && node.isArray()) {
+            for (final var header : node) {
+                final var name = header.path("name").asText();
+                if (!name.isEmpty() && !name.startsWith(":")) {
+                    headers.computeIfAbsent(name, key -> new ArrayList<>()).add(header.path("value").asText());
+                }
+            }
+        }
+        return headers;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
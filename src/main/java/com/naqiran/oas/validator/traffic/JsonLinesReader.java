@@ -0,0 +1,80 @@
+package com.naqiran.oas.validator.traffic;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.ValidationException;
+import com.naqiran.oas.validator.utils.JsonUtils;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads one JSON record per line:
+ * <pre>
+ * {"method": "POST", "url": "https://host/path", "headers": {"Accept": "application/json"}, "body": {...},
+ *  "response": {"status": 200, "headers": {...}, "body": {...}}}
+ * </pre>
+ * Header values may be a string or an array of strings, bodies may be JSON or a string. The response is optional.
+ */
+class JsonLinesReader extends TrafficReader {
+
+    private final BufferedReader reader;
+    private long line;
+
+    JsonLinesReader(final @Nonnull Path file) throws IOException {
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public TrafficRecord next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+        try {
+            final var record = JsonUtils.getMapper().readTree(text);
+            final var request = getRequest(getText(record, "method"), getText(record, "url"), getHeaders(record.get("headers")), getBody(record.get("body"), null));
+            final var response = record.get("response");
+            if (response == null || response.isNull()) {
+                return new TrafficRecord(request, null);
+            }
+            return new TrafficRecord(request, getResponse(response.path("status").asInt(), getHeaders(response.get("headers")), getBody(response.get("body"), null)));
+        } catch (final JsonProcessingException | IllegalArgumentException ex) {
+            throw new ValidationException("Unable to read line " + line + ": " + ex.getMessage());
+        }
+    }
+
+    private static Map<String, List<String>> getHeaders(final JsonNode node) {
+        final var headers = newHeaders();
+        if (node != null && node.isObject()) {
+            final var fields = node.fields();
+            while (fields.hasNext()) {
+                final var field = fields.next();
+                final List<String> values = new ArrayList<>();
+                if (field.getValue().isArray()) {
+                    field.getValue().forEach(value -> values.add(value.asText()));
+                } else {
+                    values.add(field.getValue().asText());
+                }
+                headers.put(field.getKey(), values);
+            }
+        }
+        return headers;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
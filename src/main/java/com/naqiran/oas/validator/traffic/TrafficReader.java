@@ -0,0 +1,73 @@
+package com.naqiran.oas.validator.traffic;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.naqiran.oas.validator.Request;
+import com.naqiran.oas.validator.Response;
+import com.naqiran.oas.validator.ValidationException;
+import com.naqiran.oas.validator.utils.JsonUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads captured traffic one record at a time so the capture never has to fit in memory.
+ */
+public abstract class TrafficReader implements Closeable {
+
+    /**
+     * Opens a HAR reader for {@code .har} files and a newline delimited JSON reader for any other file.
+     */
+    public static @Nonnull TrafficReader open(final @Nonnull Path file) throws IOException {
+        if (file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".har")) {
+            return new HarReader(file);
+        }
+        return new JsonLinesReader(file);
+    }
+
+    /**
+     * @return the next record or null once the capture is exhausted
+     * @throws ValidationException when a single record cannot be read, the reader can continue with the next record
+     */
+    public abstract @Nullable TrafficRecord next() throws IOException;
+
+    static Request getRequest(final String method, final String url, final Map<String, List<String>> headers, final byte[] body) {
+        final var request = Request.builder(URI.create(url), method.toUpperCase(Locale.ROOT)).withHeader(headers);
+        return body == null ? request : request.withBody(body);
+    }
+
+    static Response getResponse(final int status, final Map<String, List<String>> headers, final byte[] body) {
+        final var response = Response.builder(status).withHeader(headers);
+        return body == null ? response : response.withBody(body);
+    }
+
+    static byte[] getBody(final JsonNode body, final String encoding) throws IOException {
+        if (body == null || body.isNull() || body.isMissingNode()) {
+            return null;
+        } else if (body.isTextual()) {
+            return "base64".equalsIgnoreCase(encoding) ? Base64.getDecoder().decode(body.textValue()) : body.textValue().getBytes(StandardCharsets.UTF_8);
+        }
+        return JsonUtils.getMapper().writeValueAsBytes(body);
+    }
+
+    static Map<String, List<String>> newHeaders() {
+        return new LinkedHashMap<>();
+    }
+
+    static String getText(final JsonNode node, final String field) {
+        final var value = node.get(field);
+        if (value == null || !value.isValueNode()) {
+            throw new ValidationException("Traffic record is missing " + field);
+        }
+        return value.asText();
+    }
+}
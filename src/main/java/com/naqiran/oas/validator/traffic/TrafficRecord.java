@@ -0,0 +1,28 @@
+package com.naqiran.oas.validator.traffic;
+
+import com.naqiran.oas.validator.Request;
+import com.naqiran.oas.validator.Response;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Captured request along with the response recorded for it, if any.
+ */
+public class TrafficRecord {
+    private final Request request;
+    private final Response response;
+
+    public TrafficRecord(final @Nonnull Request request, final @Nullable Response response) {
+        this.request = request;
+        this.response = response;
+    }
+
+    public Request getRequest() {
+        return request;
+    }
+
+    public @Nullable Response getResponse() {
+        return response;
+    }
+}
@@ -0,0 +1,83 @@
+package com.naqiran.oas.validator.utils;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+
+/**
+ * Parser that fails as soon as objects and arrays nest deeper than a limit. Reading a tree and walking a recursive
+ * schema both recurse once per level, so the limit is enforced while the tokens are read, before a hostile payload can
+ * exhaust the stack.
+ */
+public class DepthLimitedParser extends JsonParserDelegate {
+
+    private final int maxDepth;
+    private int depth;
+
+    private DepthLimitedParser(final JsonParser parser, final int maxDepth) {
+        super(parser);
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * @return the parser limited to the depth, or the parser itself when the depth is zero
+     */
+    public static @Nonnull JsonParser of(final @Nonnull JsonParser parser, final int maxDepth) {
+        return maxDepth > 0 ? new DepthLimitedParser(parser, maxDepth) : parser;
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+        final var token = delegate.nextToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            if (++depth > maxDepth) {
+                throw new DepthException(this, maxDepth);
+            }
+        } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+            depth--;
+        }
+        return token;
+    }
+
+    @Override
+    public JsonToken nextValue() throws IOException {
+        final var token = nextToken();
+        return token == JsonToken.FIELD_NAME ? nextToken() : token;
+    }
+
+    /**
+     * Skips the children with the delegate, which does not recurse, and leaves the container it ends on.
+     */
+    @Override
+    public JsonParser skipChildren() throws IOException {
+        final var token = delegate.currentToken();
+        if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+            delegate.skipChildren();
+            depth--;
+        }
+        return this;
+    }
+
+    /**
+     * Thrown when a value nests deeper than the limit of the parser.
+     */
+    public static class DepthException extends JsonParseException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int maxDepth;
+
+        DepthException(final JsonParser parser, final int maxDepth) {
+            super(parser, "Value nests deeper than " + maxDepth + " levels");
+            this.maxDepth = maxDepth;
+        }
+
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.naqiran.oas.validator.utils;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+public class HashUtils {
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+    private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+
+    /**
+     * 64 bit xxHash (XXH64) of the remaining bytes of the buffer, the position of the buffer is not changed. It reads
+     * eight bytes at a time and hashes gigabytes per second, fast enough to key caches by payload.
+     */
+    public static long xxHash64(final @Nonnull ByteBuffer content, final long seed) {
+        final var buffer = content.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        final long length = buffer.remaining();
+        long hash;
+        if (length >= 32) {
+            long v1 = seed + PRIME_1 + PRIME_2;
+            long v2 = seed + PRIME_2;
+            long v3 = seed;
+            long v4 = seed - PRIME_1;
+            while (buffer.remaining() >= 32) {
+                v1 = round(v1, buffer.getLong());
+                v2 = round(v2, buffer.getLong());
+                v3 = round(v3, buffer.getLong());
+                v4 = round(v4, buffer.getLong());
+            }
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = seed + PRIME_5;
+        }
+        hash += length;
+        while (buffer.remaining() >= 8) {
+            hash ^= round(0, buffer.getLong());
+            hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_4;
+        }
+        if (buffer.remaining() >= 4) {
+            hash ^= (buffer.getInt() & 0xFFFFFFFFL) * PRIME_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME_2 + PRIME_3;
+        }
+        while (buffer.hasRemaining()) {
+            hash ^= (buffer.get() & 0xFFL) * PRIME_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME_1;
+        }
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private static long round(final long accumulator, final long input) {
+        return Long.rotateLeft(accumulator + input * PRIME_2, 31) * PRIME_1;
+    }
+
+    private static long mergeRound(final long accumulator, final long value) {
+        return (accumulator ^ round(0, value)) * PRIME_1 + PRIME_4;
+    }
+}
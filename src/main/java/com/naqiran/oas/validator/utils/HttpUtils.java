@@ -2,70 +2,132 @@ package com.naqiran.oas.validator.utils;
 
 import com.naqiran.oas.validator.Context;
 import com.naqiran.oas.validator.Request;
+import com.naqiran.oas.validator.Response;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.IOException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Optional;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpUtils {
 
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(60);
+
     public static @Nonnull String getUrl(final @Nonnull Request request) {
         return Optional.ofNullable(request.getUri().getQuery())
                 .or(() -> Optional.of(StringUtils.EMPTY))
                 .map(s -> request.getUri().toString().replace("?" + s, StringUtils.EMPTY)).get();
     }
 
+    /**
+     * @return the query parameters by name, values are percent decoded when they are read
+     */
     public static @Nonnull Map<String, List<String>> getQueryParameters(final @Nonnull Request request) {
-        var queries = request.getUri().getQuery();
-        if (StringUtils.isNotBlank(queries)) {
-            final Map<String, List<String>> parameters = new HashMap<>();
-            for (final var queryArray : queries.split("&")) {
-                var kv = queryArray.split("=");
-                final List<String> values = parameters.getOrDefault(kv[0], new ArrayList<>());
-                if (kv.length < 2) {
-                    values.add(StringUtils.EMPTY);
-                } else {
-                    values.add(kv[1]);
+        return ParameterParser.parseQuery(request.getUri().getRawQuery());
+    }
+
+    /**
+     * @return the first value of the header, the name is matched ignoring case, or null when the header is missing
+     */
+    public static @Nullable String getHeader(final @Nullable Map<String, List<String>> headers, final @Nonnull String name) {
+        final var values = getHeaderValues(headers, name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * @return the values of the header, the name is matched ignoring case, or null when the header is missing
+     */
+    public static @Nullable List<String> getHeaderValues(final @Nullable Map<String, List<String>> headers, final @Nonnull String name) {
+        if (headers == null || headers.isEmpty()) {
+            return null;
+        }
+        final var values = headers.get(name);
+        if (values == null) {
+            for (final var entry : headers.entrySet()) {
+                if (name.equalsIgnoreCase(entry.getKey())) {
+                    return entry.getValue();
                 }
-                parameters.put(kv[0], values);
             }
-            return parameters;
-        } else {
-            return Map.of();
         }
+        return values;
     }
 
     public static @Nonnull Map<String, List<String>> getPathParameters(final @Nonnull Context context) {
-        final var pattern = context.getRegexPath();
-        if (pattern != null) {
-            final var pathName = Pattern.compile("\\(\\?<([a-zA-Z][a-zA-Z0-9]*)>").matcher(pattern.pattern()).results().map(m -> m.group(1)).collect(Collectors.toList());
-            final Map<String, List<String>> pathMap = new HashMap<>();
-            int index = 0;
-            for (var result: pattern.matcher(context.getPath()).results().collect(Collectors.toList())) {
-                pathMap.put(pathName.get(index++), List.of(result.group(1)));
-            }
-            return pathMap;
-        }
-        return Map.of();
+        return context.getPathParameters();
+    }
+
+    /**
+     * Creates a HTTP/2 capable client, the client pools its connections so it should be created once and shared.
+     */
+    public static @Nonnull HttpClient createClient(final @Nonnull Duration connectTimeout, final @Nonnull Executor executor) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(connectTimeout)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * @return a fixed size pool of daemon threads so an idle client never keeps the JVM running
+     */
+    public static @Nonnull ExecutorService createExecutor(final int threads) {
+        final var counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            final var thread = new Thread(runnable, "oas-validator-http-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
-    public static @Nonnull HttpResponse<String> getResponse(final @Nonnull Request request) throws IOException, InterruptedException {
+    public static @Nonnull HttpRequest getHttpRequest(final @Nonnull Request request, final Duration requestTimeout) {
+        final var body = request.getPayload();
         var builder = HttpRequest.newBuilder()
                 .uri(request.getUri())
-                .method(request.getMethod(), HttpRequest.BodyPublishers.ofString(request.getBody()));
-        for (var entry : request.getHeaders().entrySet()) {
-            builder.headers(entry.getKey(), entry.getValue().get(0));
+                .method(request.getMethod(), body == null ? HttpRequest.BodyPublishers.noBody() : body.getPublisher());
+        if (requestTimeout != null) {
+            builder.timeout(requestTimeout);
         }
-        return HttpClient.newBuilder().build().send(builder.build(), HttpResponse.BodyHandlers.ofString());
+        var cookieHeader = false;
+        if (request.getHeaders() != null) {
+            for (var entry : request.getHeaders().entrySet()) {
+                builder.headers(entry.getKey(), entry.getValue().get(0));
+                cookieHeader |= "Cookie".equalsIgnoreCase(entry.getKey());
+            }
+        }
+        if (!cookieHeader && request.getCookies() != null && !request.getCookies().isEmpty()) {
+            final var cookies = new StringBuilder();
+            request.getCookies().forEach((name, values) -> values.forEach(value ->
+                    cookies.append(cookies.length() == 0 ? "" : "; ").append(name).append('=').append(value)));
+            builder.header("Cookie", cookies.toString());
+        }
+        return builder.build();
+    }
+
+    public static @Nonnull Response getResponse(final @Nonnull HttpClient client, final @Nonnull Request request, final Duration requestTimeout) throws IOException, InterruptedException {
+        return Response.of(client.send(getHttpRequest(request, requestTimeout), HttpResponse.BodyHandlers.ofByteArray()));
+    }
+
+    public static @Nonnull CompletableFuture<Response> getResponseAsync(final @Nonnull HttpClient client, final @Nonnull Request request, final Duration requestTimeout) {
+        return client.sendAsync(getHttpRequest(request, requestTimeout), HttpResponse.BodyHandlers.ofByteArray()).thenApply(Response::of);
+    }
+
+    public static @Nonnull Response getResponse(final @Nonnull Request request) throws IOException, InterruptedException {
+        return getResponse(DefaultClient.INSTANCE, request, null);
+    }
+
+    private static class DefaultClient {
+        private static final HttpClient INSTANCE = createClient(DEFAULT_CONNECT_TIMEOUT, createExecutor(Runtime.getRuntime().availableProcessors()));
     }
 }
@@ -0,0 +1,49 @@
+package com.naqiran.oas.validator.utils;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+
+import javax.annotation.Nonnull;
+
+public class JsonUtils {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * @return the shared mapper, it is configured once and safe to use from multiple threads
+     */
+    public static @Nonnull ObjectMapper getMapper() {
+        return MAPPER;
+    }
+
+    /**
+     * @return the {@link JsonNodeType} of the value starting at the token so streamed and tree validation report the
+     * same type
+     */
+    public static @Nonnull JsonNodeType getNodeType(final JsonToken token) {
+        if (token == null) {
+            return JsonNodeType.MISSING;
+        }
+        switch (token) {
+            case START_OBJECT:
+                return JsonNodeType.OBJECT;
+            case START_ARRAY:
+                return JsonNodeType.ARRAY;
+            case VALUE_STRING:
+                return JsonNodeType.STRING;
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return JsonNodeType.NUMBER;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return JsonNodeType.BOOLEAN;
+            case VALUE_NULL:
+                return JsonNodeType.NULL;
+            case VALUE_EMBEDDED_OBJECT:
+                return JsonNodeType.POJO;
+            default:
+                return JsonNodeType.MISSING;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.naqiran.oas.validator.utils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Media type of a {@code Content-Type} header or media type range of a contract. Type, subtype and parameter names are
+ * lower case. A range may use {@code *} for the type or the subtype, and {@code *+suffix} for any subtype with the
+ * structured syntax suffix, such as {@code application/*+json}.
+ */
+@Immutable
+public final class MediaType {
+
+    private final String type;
+    private final String subtype;
+    private final String suffix;
+    private final Map<String, String> parameters;
+
+    private MediaType(final String type, final String subtype, final Map<String, String> parameters) {
+        this.type = type;
+        this.subtype = subtype;
+        final var plus = subtype.lastIndexOf('+');
+        this.suffix = plus < 0 ? null : subtype.substring(plus + 1);
+        this.parameters = parameters;
+    }
+
+    /**
+     * @return the media type or null when the value is not a {@code type/subtype} pair, a bare {@code *} is read as
+     * {@code *}{@code /*}
+     */
+    public static @Nullable MediaType parse(final @Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+        final var end = value.indexOf(';');
+        final var essence = (end < 0 ? value : value.substring(0, end)).trim().toLowerCase(Locale.ROOT);
+        final var slash = essence.indexOf('/');
+        final String type;
+        final String subtype;
+        if ("*".equals(essence)) {
+            type = "*";
+            subtype = "*";
+        } else if (slash <= 0 || slash == essence.length() - 1 || essence.indexOf('/', slash + 1) >= 0) {
+            return null;
+        } else {
+            type = essence.substring(0, slash).trim();
+            subtype = essence.substring(slash + 1).trim();
+        }
+        if (end < 0) {
+            return new MediaType(type, subtype, Map.of());
+        }
+        final Map<String, String> parameters = new HashMap<>();
+        for (final var parameter : value.substring(end + 1).split(";")) {
+            final var separator = parameter.indexOf('=');
+            if (separator > 0) {
+                var parameterValue = parameter.substring(separator + 1).trim();
+                if (parameterValue.length() >= 2 && parameterValue.startsWith("\"") && parameterValue.endsWith("\"")) {
+                    parameterValue = parameterValue.substring(1, parameterValue.length() - 1);
+                }
+                parameters.put(parameter.substring(0, separator).trim().toLowerCase(Locale.ROOT), parameterValue);
+            }
+        }
+        return new MediaType(type, subtype, Collections.unmodifiableMap(parameters));
+    }
+
+    /**
+     * @return true when this range includes the media type, parameters are not compared
+     */
+    public boolean includes(final @Nonnull MediaType other) {
+        if (!"*".equals(type) && !type.equals(other.type)) {
+            return false;
+        }
+        if ("*".equals(subtype) || subtype.equals(other.subtype)) {
+            return true;
+        }
+        return subtype.startsWith("*+") && suffix.equals(other.suffix);
+    }
+
+    /**
+     * @return 3 for a media type, 2 for a suffix range, 1 for a subtype range and 0 for {@code *}{@code /*}, the most
+     * specific range including a media type is the one that applies to it
+     */
+    public int getSpecificity() {
+        if ("*".equals(type)) {
+            return 0;
+        } else if ("*".equals(subtype)) {
+            return 1;
+        } else if (subtype.startsWith("*+")) {
+            return 2;
+        }
+        return 3;
+    }
+
+    public @Nonnull String getType() {
+        return type;
+    }
+
+    public @Nonnull String getSubtype() {
+        return subtype;
+    }
+
+    /**
+     * @return the structured syntax suffix, {@code json} for {@code application/problem+json}, or null
+     */
+    public @Nullable String getSuffix() {
+        return suffix;
+    }
+
+    public @Nullable String getParameter(final @Nonnull String name) {
+        return parameters.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof MediaType)) {
+            return false;
+        }
+        final var mediaType = (MediaType) other;
+        return type.equals(mediaType.type) && subtype.equals(mediaType.subtype) && parameters.equals(mediaType.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * type.hashCode() + subtype.hashCode()) + parameters.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return type + '/' + subtype;
+    }
+}
@@ -0,0 +1,249 @@
+package com.naqiran.oas.validator.utils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Single pass parsers for the raw query string and the {@code Cookie} header. Names are decoded while parsing, values
+ * are kept as ranges of the raw text and only percent decoded when a validator reads them.
+ */
+public class ParameterParser {
+
+    /**
+     * Parses {@code name=value} pairs separated by {@code &}, a {@code +} in a name or value is a space.
+     */
+    public static @Nonnull Map<String, List<String>> parseQuery(final @Nullable String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return Map.of();
+        }
+        final Map<String, List<String>> parameters = new HashMap<>();
+        var start = 0;
+        while (start <= rawQuery.length()) {
+            var end = rawQuery.indexOf('&', start);
+            if (end < 0) {
+                end = rawQuery.length();
+            }
+            addPair(parameters, rawQuery, start, end, true);
+            start = end + 1;
+        }
+        return parameters;
+    }
+
+    /**
+     * Parses the {@code name=value} pairs of {@code Cookie} header values separated by {@code ;}, quotes around a
+     * value are removed.
+     */
+    public static @Nonnull Map<String, List<String>> parseCookies(final @Nullable List<String> headers) {
+        if (headers == null || headers.isEmpty()) {
+            return Map.of();
+        }
+        final Map<String, List<String>> cookies = new HashMap<>();
+        for (final var header : headers) {
+            var start = 0;
+            while (start <= header.length()) {
+                var end = header.indexOf(';', start);
+                if (end < 0) {
+                    end = header.length();
+                }
+                addPair(cookies, header, start, end, false);
+                start = end + 1;
+            }
+        }
+        return cookies;
+    }
+
+    /**
+     * @return a single value view decoded when it is read, {@code +} is kept as it is
+     */
+    public static @Nonnull Values of(final @Nonnull String raw) {
+        final var values = new Values(raw, false);
+        values.add(0, raw.length());
+        return values;
+    }
+
+    private static void addPair(final Map<String, List<String>> parameters, final String source, int start, int end, final boolean plusAsSpace) {
+        if (!plusAsSpace) {
+            while (start < end && source.charAt(start) == ' ') {
+                start++;
+            }
+            while (end > start && source.charAt(end - 1) == ' ') {
+                end--;
+            }
+        }
+        if (start == end) {
+            return;
+        }
+        var separator = source.indexOf('=', start);
+        if (separator < 0 || separator > end) {
+            separator = end;
+        }
+        if (separator == start) {
+            return;
+        }
+        final var name = decode(source, start, separator, plusAsSpace);
+        var valueStart = Math.min(separator + 1, end);
+        var valueEnd = end;
+        if (!plusAsSpace && valueEnd - valueStart >= 2 && source.charAt(valueStart) == '"' && source.charAt(valueEnd - 1) == '"') {
+            valueStart++;
+            valueEnd--;
+        }
+        ((Values) parameters.computeIfAbsent(name, key -> new Values(source, plusAsSpace))).add(valueStart, valueEnd);
+    }
+
+    /**
+     * Percent decodes the range as UTF-8, malformed escapes are kept as they are. Ranges without escapes are returned
+     * as a substring without decoding.
+     */
+    public static @Nonnull String decode(final @Nonnull String source, final int start, final int end, final boolean plusAsSpace) {
+        var index = start;
+        while (index < end) {
+            final var value = source.charAt(index);
+            if (value == '%' || (plusAsSpace && value == '+')) {
+                break;
+            }
+            index++;
+        }
+        if (index == end) {
+            return source.substring(start, end);
+        }
+        final var bytes = new byte[end - start];
+        var length = 0;
+        for (int offset = start; offset < end; offset++) {
+            final var value = source.charAt(offset);
+            if (value > 0x7F) {
+                return decodeText(source, start, end, plusAsSpace);
+            }
+            if (value == '%' && offset + 2 < end && Character.digit(source.charAt(offset + 1), 16) >= 0
+                    && Character.digit(source.charAt(offset + 2), 16) >= 0) {
+                bytes[length++] = (byte) (Character.digit(source.charAt(offset + 1), 16) << 4 | Character.digit(source.charAt(offset + 2), 16));
+                offset += 2;
+            } else {
+                bytes[length++] = (byte) (plusAsSpace && value == '+' ? ' ' : value);
+            }
+        }
+        return new String(bytes, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Slow path for raw text that already holds characters beyond ASCII, runs of escapes are decoded as UTF-8 between
+     * them.
+     */
+    private static String decodeText(final String source, final int start, final int end, final boolean plusAsSpace) {
+        final var builder = new StringBuilder(end - start);
+        final var bytes = new ByteArrayOutputStream();
+        var index = start;
+        while (index < end) {
+            final var value = source.charAt(index);
+            if (value == '%' && index + 2 < end
+                    && Character.digit(source.charAt(index + 1), 16) >= 0 && Character.digit(source.charAt(index + 2), 16) >= 0) {
+                bytes.write(Character.digit(source.charAt(index + 1), 16) << 4 | Character.digit(source.charAt(index + 2), 16));
+                index += 3;
+                continue;
+            }
+            if (bytes.size() > 0) {
+                builder.append(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+                bytes.reset();
+            }
+            builder.append(plusAsSpace && value == '+' ? ' ' : value);
+            index++;
+        }
+        if (bytes.size() > 0) {
+            builder.append(new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Values of one parameter as ranges of the raw text. A value is decoded the first time it is read and kept, the
+     * raw text stays available to split serialized arrays and objects on their delimiters before decoding.
+     */
+    public static final class Values extends AbstractList<String> implements RandomAccess {
+        private final String source;
+        private final boolean plusAsSpace;
+        private int[] ranges = new int[2];
+        private String[] decoded;
+        private int size;
+
+        private Values(final String source, final boolean plusAsSpace) {
+            this.source = source;
+            this.plusAsSpace = plusAsSpace;
+        }
+
+        private void add(final int start, final int end) {
+            if (size * 2 == ranges.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+            }
+            ranges[size * 2] = start;
+            ranges[size * 2 + 1] = end;
+            size++;
+            decoded = null;
+        }
+
+        @Override
+        public String get(final int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            if (decoded == null) {
+                decoded = new String[size];
+            }
+            if (decoded[index] == null) {
+                decoded[index] = decode(source, ranges[index * 2], ranges[index * 2 + 1], plusAsSpace);
+            }
+            return decoded[index];
+        }
+
+        public @Nonnull String getRaw(final int index) {
+            return source.substring(ranges[index * 2], ranges[index * 2 + 1]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * @return the values split on the delimiter in the raw text, an encoded delimiter stays part of its value
+         */
+        public @Nonnull Values split(final char delimiter) {
+            final var split = new Values(source, plusAsSpace);
+            for (int index = 0; index < size; index++) {
+                var start = ranges[index * 2];
+                final var end = ranges[index * 2 + 1];
+                while (true) {
+                    var next = source.indexOf(delimiter, start);
+                    if (next < 0 || next > end) {
+                        next = end;
+                    }
+                    split.add(start, next);
+                    if (next == end) {
+                        break;
+                    }
+                    start = next + 1;
+                }
+            }
+            return split;
+        }
+
+        /**
+         * @return the values without the prefix, values that do not start with it are kept whole
+         */
+        public @Nonnull Values strip(final @Nonnull String prefix) {
+            final var stripped = new Values(source, plusAsSpace);
+            for (int index = 0; index < size; index++) {
+                final var start = ranges[index * 2];
+                stripped.add(source.startsWith(prefix, start) && start + prefix.length() <= ranges[index * 2 + 1] ? start + prefix.length() : start,
+                        ranges[index * 2 + 1]);
+            }
+            return stripped;
+        }
+    }
+}
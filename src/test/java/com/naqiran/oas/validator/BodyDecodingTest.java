@@ -0,0 +1,107 @@
+package com.naqiran.oas.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.naqiran.oas.validator.OASValidatorTest.hasError;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bodies matched to the media type ranges of the contract by their Content-Type and read by the decoder of the type.
+ */
+class BodyDecodingTest {
+
+    private static final String SCHEMA = "src/test/resources/petstore.yaml";
+    private static final List<OASValidator> VALIDATORS = List.of(
+            OASValidator.builder().withSchema(SCHEMA).build(),
+            OASValidator.builder().withSchema(SCHEMA).withStreaming(true).build());
+
+    @Test
+    void matchesSuffixRangeWithCharset() {
+        for (final var validator : VALIDATORS) {
+            final var noted = order(validator, "application/vnd.order+json; charset=utf-8", "{\"item\":\"kibble\",\"quantity\":2,\"note\":\"gift wrap\"}");
+            assertFalse(noted.hasErrors(), noted.getMessages().toString());
+            final var unnoted = order(validator, "application/vnd.order+json; charset=utf-8", "{\"item\":\"kibble\",\"quantity\":2}");
+            assertTrue(hasError(unnoted, ErrorCode.REQUIRED), unnoted.getMessages().toString());
+            final var exact = order(validator, "application/json; charset=UTF-8", "{\"item\":\"kibble\",\"quantity\":2}");
+            assertFalse(exact.hasErrors(), exact.getMessages().toString());
+        }
+    }
+
+    @Test
+    void locatesErrorsOfJsonLinesByLine() {
+        for (final var validator : VALIDATORS) {
+            final var context = order(validator, "application/x-ndjson",
+                    "{\"item\":\"kibble\",\"quantity\":2}\n\n{\"item\":\"\",\"quantity\":1}\nnot json\n{\"item\":\"toy\",\"quantity\":0}\n");
+            assertEquals(List.of("MIN_LENGTH /1/item", "INVALID_JSON /2", "MINIMUM /3/quantity"), errors(context));
+        }
+    }
+
+    @Test
+    void validatesFormFields() {
+        for (final var validator : VALIDATORS) {
+            final var valid = order(validator, "application/x-www-form-urlencoded", "item=dry+food&quantity=3&gift=true");
+            assertFalse(valid.hasErrors(), valid.getMessages().toString());
+            final var invalid = order(validator, "application/x-www-form-urlencoded", "item=dry%20food&quantity=zero&gift=yes");
+            assertTrue(hasError(invalid, ErrorCode.TYPE_MISMATCH), invalid.getMessages().toString());
+            assertEquals(2, invalid.getErrorCount(), invalid.getMessages().toString());
+            final var missing = order(validator, "application/x-www-form-urlencoded", "item=dry+food");
+            assertTrue(hasError(missing, ErrorCode.REQUIRED), missing.getMessages().toString());
+        }
+    }
+
+    @Test
+    void validatesMultipartFields() {
+        final var body = "--b0undary\r\n"
+                + "Content-Disposition: form-data; name=\"item\"\r\n\r\n"
+                + "kibble\r\n"
+                + "--b0undary\r\n"
+                + "Content-Disposition: form-data; name=\"quantity\"\r\n\r\n"
+                + "%s\r\n"
+                + "--b0undary\r\n"
+                + "Content-Disposition: form-data; name=\"label\"; filename=\"label.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n"
+                + "\u0089PNG\r\n"
+                + "--b0undary--\r\n";
+        for (final var validator : VALIDATORS) {
+            final var valid = order(validator, "multipart/form-data; boundary=b0undary", String.format(body, "4"));
+            assertFalse(valid.hasErrors(), valid.getMessages().toString());
+            final var invalid = order(validator, "multipart/form-data; boundary=b0undary", String.format(body, "0"));
+            assertTrue(hasError(invalid, ErrorCode.MINIMUM), invalid.getMessages().toString());
+            final var unbounded = order(validator, "multipart/form-data", String.format(body, "4"));
+            assertTrue(hasError(unbounded, ErrorCode.MALFORMED_BODY), unbounded.getMessages().toString());
+        }
+    }
+
+    @Test
+    void rejectsUnsupportedMediaTypes() {
+        for (final var validator : VALIDATORS) {
+            for (final var contentType : List.of("text/plain", "application/xml", "application/vnd.order+xml")) {
+                final var context = order(validator, contentType, "{\"item\":\"kibble\",\"quantity\":2}");
+                assertTrue(hasError(context, ErrorCode.UNSUPPORTED_MEDIA_TYPE), contentType + " " + context.getMessages());
+                assertEquals(1, context.getErrorCount(), context.getMessages().toString());
+            }
+        }
+    }
+
+    private static Context order(final OASValidator validator, final String contentType, final String body) {
+        return validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/orders"), "POST")
+                .withHeader(Map.of("Content-Type", List.of(contentType))).withBody(body));
+    }
+
+    private static List<String> errors(final Context context) {
+        final List<String> errors = new ArrayList<>();
+        for (final var message : context.getMessages()) {
+            if (message.getLevel() == Context.MessageLevel.ERROR) {
+                errors.add(message.getCode() + " " + message.getLocation());
+            }
+        }
+        return errors;
+    }
+}
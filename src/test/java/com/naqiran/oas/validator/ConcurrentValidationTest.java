@@ -0,0 +1,82 @@
+package com.naqiran.oas.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentValidationTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 200;
+    private static final Map<String, List<String>> JSON = Map.of("Content-Type", List.of("application/json"));
+
+    @Test
+    void sharedValidatorGivesSingleThreadedResults() throws Exception {
+        for (final var streaming : List.of(false, true)) {
+            final var validator = OASValidator.builder().withSchema("src/test/resources/petstore.yaml").withStreaming(streaming).build();
+            final List<Callable<List<String>>> exchanges = exchanges(validator);
+            final List<List<String>> expected = new ArrayList<>();
+            for (final var exchange : exchanges) {
+                expected.add(exchange.call());
+            }
+            assertTrue(expected.stream().anyMatch(List::isEmpty));
+            assertTrue(expected.stream().anyMatch(messages -> !messages.isEmpty()));
+
+            final var pool = Executors.newFixedThreadPool(THREADS);
+            try {
+                final List<Future<List<String>>> results = new ArrayList<>();
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (final var exchange : exchanges) {
+                        results.add(pool.submit(exchange));
+                    }
+                }
+                for (int index = 0; index < results.size(); index++) {
+                    assertEquals(expected.get(index % exchanges.size()), results.get(index).get(30, TimeUnit.SECONDS),
+                            "exchange " + index % exchanges.size() + (streaming ? " streaming" : " tree"));
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Exchanges that pass and fail in different stages, the request and response are built anew for every validation.
+     */
+    private static List<Callable<List<String>>> exchanges(final OASValidator validator) {
+        return List.of(
+                () -> errors(validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/pets?limit=10"), "GET"))),
+                () -> errors(validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/pets?limit=500"), "GET"))),
+                () -> errors(validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/pets/0"), "GET"))),
+                () -> errors(validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/owners"), "GET"))),
+                () -> errors(validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/pets"), "POST").withHeader(JSON)
+                        .withBody("{\"name\":\"Rex the dog\",\"kind\":\"dog\",\"born\":\"2019-04-01\",\"tags\":[\"good\"],\"owner\":{\"name\":\"Sam\"}}"))),
+                () -> errors(validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/pets"), "POST").withHeader(JSON)
+                        .withBody("{\"id\":3,\"name\":\"Rex\",\"kind\":\"fish\",\"born\":\"April\",\"tags\":[1,2,3,4,5,6],\"owner\":{\"email\":\"none\"}}"))),
+                () -> errors(validator.validate(Request.builder(URI.create("http://localhost:8080/v1/pets/7"), "GET"),
+                        Response.builder(200).withHeader(JSON).withBody("{\"id\":7,\"name\":\"Whiskers\",\"kind\":\"cat\"}"))),
+                () -> errors(validator.validate(Request.builder(URI.create("http://localhost:8080/v1/pets"), "GET"),
+                        Response.builder(200).withHeader(Map.of("Content-Type", List.of("application/json"), "X-Rate-Limit", List.of("many")))
+                                .withBody("[{\"id\":\"seven\",\"name\":\"Tom\"},{\"name\":\"Whiskers\",\"kind\":\"lion\"}]"))));
+    }
+
+    private static List<String> errors(final Context context) {
+        final List<String> errors = new ArrayList<>();
+        for (final var message : context.getMessages()) {
+            if (message.getLevel() == Context.MessageLevel.ERROR) {
+                errors.add(message.getCode() + " " + message.getMessage());
+            }
+        }
+        return errors;
+    }
+}
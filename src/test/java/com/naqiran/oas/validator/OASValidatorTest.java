@@ -0,0 +1,178 @@
+package com.naqiran.oas.validator;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OASValidatorTest {
+
+    private static final Map<String, List<String>> JSON = Map.of("Content-Type", List.of("application/json"));
+
+    private static OASValidator validator;
+
+    @BeforeAll
+    static void setUp() {
+        validator = OASValidator.builder().withSchema("src/test/resources/petstore.yaml").build();
+    }
+
+    @Test
+    void routesKnownOperation() {
+        final var context = validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/pets/7"), "GET"));
+        assertFalse(context.hasErrors(), context.getMessages().toString());
+        assertEquals("getPet", context.getOperationName());
+    }
+
+    @Test
+    void routesRequestOfAnotherOriginOnItsPath() {
+        for (final var uri : List.of("https://staging.example.com/v1/pets/7", "http://127.0.0.1:9999/v1/pets/7", "/v1/pets/7")) {
+            final var context = validator.validateRequest(Request.builder(URI.create(uri), "GET"));
+            assertFalse(context.hasErrors(), uri + " " + context.getMessages());
+            assertEquals("getPet", context.getOperationName());
+        }
+        final var context = validator.validateRequest(Request.builder(URI.create("https://staging.example.com/pets/7"), "GET"));
+        assertTrue(hasError(context, ErrorCode.OPERATION_NOT_FOUND), context.getMessages().toString());
+    }
+
+    @Test
+    void reportsUnknownPath() {
+        final var context = validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/owners"), "GET"));
+        assertTrue(hasError(context, ErrorCode.OPERATION_NOT_FOUND), context.getMessages().toString());
+        assertEquals(1, context.getErrorCount());
+    }
+
+    @Test
+    void reportsUnknownMethod() {
+        final var context = validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/pets/7"), "DELETE"));
+        assertTrue(hasError(context, ErrorCode.OPERATION_NOT_FOUND), context.getMessages().toString());
+    }
+
+    @Test
+    void reportsUnknownPathOffline() {
+        final var request = Request.builder(URI.create("http://localhost:8080/v1/owners"), "GET");
+        final var context = validator.validate(request, Response.builder(200).withHeader(JSON).withBody("[]"));
+        assertTrue(hasError(context, ErrorCode.OPERATION_NOT_FOUND), context.getMessages().toString());
+    }
+
+    @Test
+    void validatesResponseWithoutHeaders() {
+        final var request = Request.builder(URI.create("http://localhost:8080/v1/pets"), "GET");
+        final var context = validator.validate(request, Response.builder(200).withHeader(null).withBody("[]"));
+        assertFalse(context.hasErrors(), context.getMessages().toString());
+    }
+
+    @Test
+    void matchesResponseHeadersIgnoringCase() {
+        final var cached = OASValidator.builder().withSchema("src/test/resources/petstore.yaml").withResultCache(16, Duration.ofMinutes(1)).build();
+        for (final var target : List.of(validator, cached, cached)) {
+            final var request = Request.builder(URI.create("http://localhost:8080/v1/pets"), "GET");
+            final var response = Response.builder(200).withHeader(Map.of("x-rate-limit", List.of("many"))).withBody("[]");
+            final var context = target.validate(request, response);
+            assertTrue(hasError(context, ErrorCode.TYPE_MISMATCH), context.getMessages().toString());
+        }
+    }
+
+    @Test
+    void validatesBooleanParameters() {
+        for (final var query : List.of("vaccinated=true", "vaccinated=false")) {
+            final var context = validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/pets?" + query), "GET")
+                    .withHeader(Map.of("X-Include-Adopted", List.of("true"))));
+            assertFalse(context.hasErrors(), query + " " + context.getMessages());
+        }
+        for (final var query : List.of("vaccinated=yes", "vaccinated=TRUE", "vaccinated=1")) {
+            final var context = validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/pets?" + query), "GET"));
+            assertTrue(hasError(context, ErrorCode.TYPE_MISMATCH), query + " " + context.getMessages());
+            assertEquals(1, context.getErrorCount(), context.getMessages().toString());
+        }
+        final var context = validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/pets"), "GET")
+                .withHeader(Map.of("X-Include-Adopted", List.of("false"))));
+        assertTrue(hasError(context, ErrorCode.ENUM_MISMATCH), context.getMessages().toString());
+    }
+
+    @Test
+    void matchesExactlyOneOfBranch() {
+        for (final var streaming : List.of(false, true)) {
+            final var target = OASValidator.builder().withSchema("src/test/resources/petstore.yaml").withStreaming(streaming).build();
+            for (final var contact : List.of("sam@example.com", "sam")) {
+                final var context = putResidence(target, "{\"contact\":\"" + contact + "\",\"home\":{\"type\":\"house\",\"rooms\":2}}");
+                assertFalse(context.hasErrors(), contact + " " + context.getMessages());
+            }
+            final var both = putResidence(target, "{\"contact\":\"s@ex.io\",\"home\":{\"type\":\"house\",\"rooms\":2}}");
+            assertTrue(hasError(both, ErrorCode.MULTIPLE_MATCH), both.getMessages().toString());
+            assertEquals(1, both.getErrorCount(), both.getMessages().toString());
+            final var none = putResidence(target, "{\"contact\":\"not an email address\",\"home\":{\"type\":\"house\",\"rooms\":2}}");
+            assertTrue(hasError(none, ErrorCode.NO_MATCH), none.getMessages().toString());
+            assertEquals(1, none.getErrorCount(), none.getMessages().toString());
+        }
+    }
+
+    @Test
+    void dispatchesOneOfByDiscriminator() {
+        for (final var streaming : List.of(false, true)) {
+            final var target = OASValidator.builder().withSchema("src/test/resources/petstore.yaml").withStreaming(streaming).build();
+            final var apartment = putResidence(target, "{\"home\":{\"type\":\"apartment\",\"floor\":3}}");
+            assertFalse(apartment.hasErrors(), apartment.getMessages().toString());
+            final var branch = putResidence(target, "{\"home\":{\"type\":\"apartment\",\"rooms\":2}}");
+            assertTrue(hasError(branch, ErrorCode.REQUIRED), branch.getMessages().toString());
+            assertEquals(1, branch.getErrorCount(), branch.getMessages().toString());
+            final var unknown = putResidence(target, "{\"home\":{\"type\":\"castle\",\"rooms\":20}}");
+            assertTrue(hasError(unknown, ErrorCode.DISCRIMINATOR_MISMATCH), unknown.getMessages().toString());
+            assertEquals(1, unknown.getErrorCount(), unknown.getMessages().toString());
+            final var missing = putResidence(target, "{\"home\":{\"rooms\":2}}");
+            assertTrue(hasError(missing, ErrorCode.NO_MATCH), missing.getMessages().toString());
+        }
+    }
+
+    @Test
+    void keepsErrorBudgetAroundOneOf() {
+        for (final var streaming : List.of(false, true)) {
+            for (final var maxErrors : List.of(1, 2)) {
+                final var target = OASValidator.builder().withSchema("src/test/resources/petstore.yaml").withStreaming(streaming)
+                        .withMaxErrors(maxErrors).build();
+                final var matched = putResidence(target, "{\"contact\":\"sam@example.com\",\"home\":{\"type\":\"house\",\"rooms\":0}}");
+                assertTrue(hasError(matched, ErrorCode.MINIMUM), matched.getMessages().toString());
+                assertEquals(1, matched.getErrorCount(), matched.getMessages().toString());
+                final var failed = putResidence(target, "{\"contact\":\"not an email address\",\"home\":{\"type\":\"house\",\"rooms\":0}}");
+                assertTrue(hasError(failed, ErrorCode.NO_MATCH), failed.getMessages().toString());
+                assertEquals(maxErrors, failed.getErrorCount(), failed.getMessages().toString());
+                assertEquals(maxErrors == 2, hasError(failed, ErrorCode.MINIMUM), failed.getMessages().toString());
+            }
+        }
+    }
+
+    @Test
+    void reportsBodyNestedDeeperThanMaxDepth() {
+        for (final var streaming : List.of(false, true)) {
+            final var catalog = OASValidator.builder().withSchema("src/test/resources/catalog.yaml").withStreaming(streaming).build();
+            final var shallow = catalog.validateRequest(Request.builder(URI.create("http://localhost:8080/api/nodes/1"), "PUT").withHeader(JSON)
+                    .withBody(tree(100)));
+            assertFalse(shallow.hasErrors(), shallow.getMessages().toString());
+            final var deep = catalog.validateRequest(Request.builder(URI.create("http://localhost:8080/api/nodes/1"), "PUT").withHeader(JSON)
+                    .withBody(tree(5000)));
+            assertTrue(hasError(deep, ErrorCode.MAX_DEPTH), deep.getMessages().toString());
+            assertEquals(1, deep.getErrorCount(), deep.getMessages().toString());
+        }
+    }
+
+    /**
+     * @return a node with a single child nested to the depth, two JSON levels per node
+     */
+    private static String tree(final int depth) {
+        return "{\"name\":\"n\",\"children\":[".repeat(depth) + "{\"name\":\"leaf\"}" + "]}".repeat(depth);
+    }
+
+    private static Context putResidence(final OASValidator target, final String body) {
+        return target.validateRequest(Request.builder(URI.create("http://localhost:8080/v1/pets/7/residence"), "PUT").withHeader(JSON).withBody(body));
+    }
+
+    static boolean hasError(final Context context, final ErrorCode code) {
+        return context.getMessages().stream().anyMatch(message -> message.getLevel() == Context.MessageLevel.ERROR && message.getCode() == code);
+    }
+}
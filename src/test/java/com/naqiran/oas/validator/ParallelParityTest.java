@@ -0,0 +1,73 @@
+package com.naqiran.oas.validator;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Large bodies validated in parallel chunks give the messages of a sequential validation, in document order and cut
+ * at the same error budget.
+ */
+class ParallelParityTest {
+
+    private static final String SCHEMA = "src/test/resources/catalog.yaml";
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterAll
+    static void tearDown() {
+        POOL.shutdownNow();
+    }
+
+    @Test
+    void parallelReportsSequentialMessages() {
+        final var body = items(600);
+        for (final var maxErrors : List.of(0, 1, 5)) {
+            final var sequential = OASValidator.builder().withSchema(SCHEMA).withMaxErrors(maxErrors).build();
+            final var parallel = OASValidator.builder().withSchema(SCHEMA).withMaxErrors(maxErrors).withParallel(16, POOL).build();
+            final var expected = messages(sequential, body);
+            assertFalse(expected.isEmpty());
+            if (maxErrors > 0) {
+                assertEquals((long) maxErrors, expected.stream().filter(message -> message.startsWith("ERROR")).count(), expected.toString());
+            }
+            for (int round = 0; round < 20; round++) {
+                assertEquals(expected, messages(parallel, body), "max errors " + maxErrors);
+            }
+        }
+    }
+
+    /**
+     * Items that are valid but for every 37th, which breaks a pattern, a bound and additionalProperties.
+     */
+    private static String items(final int count) {
+        final var body = new StringBuilder("[");
+        for (int index = 0; index < count; index++) {
+            body.append(index == 0 ? "" : ",");
+            if (index % 37 == 5) {
+                body.append("{\"name\":\"Item").append(index).append("\",\"secret\":\"s\",\"count\":100,\"extra\":true}");
+            } else {
+                body.append("{\"name\":\"item\",\"secret\":\"s\",\"count\":").append(index % 100).append(",\"meta\":{\"a\":1,\"b\":2}}");
+            }
+        }
+        return body.append(']').toString();
+    }
+
+    private static List<String> messages(final OASValidator validator, final String body) {
+        final var context = validator.validateRequest(Request.builder(URI.create("http://localhost:8080/api/items"), "POST")
+                .withHeader(Map.of("Content-Type", List.of("application/json"))).withBody(body));
+        final List<String> messages = new ArrayList<>();
+        for (final var message : context.getMessages()) {
+            if (message.getLevel() != Context.MessageLevel.INFO) {
+                messages.add(message.getLevel() + " " + message.getCode() + " " + message.getLocation() + " " + message.getMessage());
+            }
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,76 @@
+package com.naqiran.oas.validator;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import static com.naqiran.oas.validator.OASValidatorTest.hasError;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query strings and cookies as they arrive on the wire: percent-encoded, form-encoded, delimited and in headers.
+ */
+class ParameterParsingTest {
+
+    private static OASValidator validator;
+
+    @BeforeAll
+    static void setUp() {
+        validator = OASValidator.builder().withSchema("src/test/resources/petstore.yaml").build();
+    }
+
+    @Test
+    void decodesPercentEncodedQueryValues() {
+        for (final var query : List.of("name=cat%20food", "name=cat+food", "name=salt%20%26%20pepper", "name=salt+%26+pepper")) {
+            final var context = search(query);
+            assertFalse(context.hasErrors(), query + " " + context.getMessages());
+        }
+        for (final var query : List.of("name=cat%2Bfood", "name=salt+&+pepper")) {
+            final var context = search(query);
+            assertTrue(hasError(context, ErrorCode.ENUM_MISMATCH), query + " " + context.getMessages());
+        }
+    }
+
+    @Test
+    void splitsArraysWithoutExplode() {
+        final var valid = search("ids=1,2,3");
+        assertFalse(valid.hasErrors(), valid.getMessages().toString());
+        final var encoded = search("ids=1%2C2");
+        assertTrue(hasError(encoded, ErrorCode.TYPE_MISMATCH), "an encoded comma is part of the value " + encoded.getMessages());
+        final var mismatch = search("ids=1,x");
+        assertTrue(hasError(mismatch, ErrorCode.TYPE_MISMATCH), mismatch.getMessages().toString());
+        assertEquals(1, mismatch.getErrorCount(), mismatch.getMessages().toString());
+        final var tooMany = search("ids=1,2,3,4");
+        assertTrue(hasError(tooMany, ErrorCode.MAX_ITEMS), tooMany.getMessages().toString());
+    }
+
+    @Test
+    void readsCookiesFromHeaderAndBuilder() {
+        final var header = request("").withHeader(Map.of("Cookie", List.of("session=abcdefgh; theme=dark")));
+        final var valid = validator.validateRequest(header);
+        assertFalse(valid.hasErrors(), valid.getMessages().toString());
+
+        final var invalidHeader = validator.validateRequest(request("").withHeader(Map.of("Cookie", List.of("session=abc; theme=blue"))));
+        assertTrue(hasError(invalidHeader, ErrorCode.MIN_LENGTH), invalidHeader.getMessages().toString());
+        assertTrue(hasError(invalidHeader, ErrorCode.ENUM_MISMATCH), invalidHeader.getMessages().toString());
+
+        final var builder = validator.validateRequest(request("").withCookie(Map.of("session", List.of("abcdefgh"), "theme", List.of("light"))));
+        assertFalse(builder.hasErrors(), builder.getMessages().toString());
+        final var invalidBuilder = validator.validateRequest(request("").withCookie(Map.of("theme", List.of("blue"))));
+        assertTrue(hasError(invalidBuilder, ErrorCode.ENUM_MISMATCH), invalidBuilder.getMessages().toString());
+        assertEquals(1, invalidBuilder.getErrorCount(), invalidBuilder.getMessages().toString());
+    }
+
+    private static Context search(final String query) {
+        return validator.validateRequest(request(query));
+    }
+
+    private static Request request(final String query) {
+        return Request.builder(URI.create("http://localhost:8080/v1/search" + (query.isEmpty() ? "" : "?" + query)), "GET");
+    }
+}
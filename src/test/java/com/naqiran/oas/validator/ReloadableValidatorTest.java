@@ -0,0 +1,54 @@
+package com.naqiran.oas.validator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReloadableValidatorTest {
+
+    private static final String ROOT = "openapi: 3.0.1\n"
+            + "info:\n  title: Split\n  version: '1'\n"
+            + "servers:\n  - url: http://localhost:8080\n"
+            + "paths:\n  /things:\n    post:\n      operationId: createThing\n      requestBody:\n        content:\n"
+            + "          application/json:\n            schema:\n              $ref: 'schemas/thing.yaml#/Thing'\n"
+            + "      responses:\n        '200':\n          description: Created\n";
+
+    @Test
+    void reloadsWhenReferencedFileChanges(@TempDir final Path directory) throws IOException, InterruptedException {
+        final var root = directory.resolve("openapi.yaml");
+        final var thing = directory.resolve("schemas/thing.yaml");
+        Files.createDirectories(thing.getParent());
+        Files.writeString(root, ROOT);
+        Files.writeString(thing, "Thing:\n  type: object\n  required: [id]\n");
+        try (var validator = OASValidator.builder().withSchema(root.toString()).buildReloadable()) {
+            assertFalse(create(validator).hasErrors());
+
+            Files.writeString(directory.resolve("schemas/other.yaml"), "Other:\n  type: string\n");
+            Thread.sleep(500);
+            assertEquals(0, validator.getMetrics().getReloads());
+
+            Files.writeString(thing, "Thing:\n  type: object\n  required: [id, name]\n");
+            for (int attempt = 0; attempt < 100 && validator.getMetrics().getReloads() == 0; attempt++) {
+                Thread.sleep(100);
+            }
+            assertEquals(1, validator.getMetrics().getReloads(), String.valueOf(validator.getMetrics().getLastError()));
+            final var context = create(validator);
+            assertTrue(OASValidatorTest.hasError(context, ErrorCode.REQUIRED), context.getMessages().toString());
+        }
+    }
+
+    private static Context create(final ReloadableValidator validator) {
+        return validator.validateRequest(Request.builder(URI.create("http://localhost:8080/things"), "POST")
+                .withHeader(Map.of("Content-Type", List.of("application/json"))).withBody("{\"id\":1}"));
+    }
+}
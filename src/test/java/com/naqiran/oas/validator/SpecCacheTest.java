@@ -0,0 +1,100 @@
+package com.naqiran.oas.validator;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SpecCacheTest {
+
+    private static final String ROOT = "openapi: 3.0.1\n"
+            + "info:\n  title: Split\n  version: '1'\n"
+            + "paths:\n  /things:\n    get:\n      operationId: getThings\n      responses:\n        '200':\n"
+            + "          description: Things\n          content:\n            application/json:\n              schema:\n"
+            + "                $ref: 'schemas/thing.yaml#/Thing'\n";
+
+    @Test
+    void reloadsContractWhenReferencedFileChanges(@TempDir final Path directory) throws IOException {
+        final var root = directory.resolve("openapi.yaml");
+        final var thing = directory.resolve("schemas/thing.yaml");
+        Files.createDirectories(thing.getParent());
+        Files.writeString(root, ROOT);
+        Files.writeString(thing, "Thing:\n  type: object\n  required: [id]\n");
+        final var location = root.toString();
+
+        final var first = SpecCache.load(location, null);
+        assertEquals(List.of(root.toAbsolutePath(), thing.toAbsolutePath()), SpecCache.getFiles(location));
+        assertSame(first, SpecCache.load(location, null));
+
+        Files.writeString(thing, "Thing:\n  type: object\n  required: [id, name]\n");
+        Files.setLastModifiedTime(thing, FileTime.fromMillis(Files.getLastModifiedTime(thing).toMillis() + 2000));
+        final var second = SpecCache.load(location, null);
+        assertNotSame(first, second);
+        assertEquals(List.of("id", "name"), second.getComponents().getSchemas().get("Thing").getRequired());
+    }
+
+    @Test
+    void keysSnapshotByEveryFile(@TempDir final Path directory) throws IOException {
+        final var root = directory.resolve("openapi.yaml");
+        final var thing = directory.resolve("schemas/thing.yaml");
+        final var cache = directory.resolve("cache");
+        Files.createDirectories(thing.getParent());
+        Files.writeString(root, ROOT);
+        Files.writeString(thing, "Thing:\n  type: object\n  required: [id]\n");
+        SpecCache.load(root.toString(), cache);
+
+        Files.writeString(thing, "Thing:\n  type: object\n  required: [id, name]\n");
+        Files.setLastModifiedTime(thing, FileTime.fromMillis(Files.getLastModifiedTime(thing).toMillis() + 2000));
+        SpecCache.clear();
+        final var openAPI = SpecCache.load(root.toString(), cache);
+        assertEquals(List.of("id", "name"), openAPI.getComponents().getSchemas().get("Thing").getRequired());
+        try (var snapshots = Files.list(cache)) {
+            assertEquals(2, snapshots.count());
+        }
+    }
+
+    @Test
+    void downloadsUrlContractOncePerLoad() throws IOException {
+        final var downloads = new AtomicInteger();
+        final var content = Files.readAllBytes(Path.of("src/test/resources/petstore.yaml"));
+        final var server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/openapi.yaml", exchange -> {
+            downloads.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "application/yaml");
+            exchange.sendResponseHeaders(200, content.length);
+            exchange.getResponseBody().write(content);
+            exchange.close();
+        });
+        server.start();
+        try {
+            final var location = "http://127.0.0.1:" + server.getAddress().getPort() + "/openapi.yaml";
+            final var first = SpecCache.load(location, null);
+            assertEquals(1, downloads.get());
+            assertEquals("getPet", first.getPaths().get("/pets/{id}").getGet().getOperationId());
+            assertSame(first, SpecCache.load(location, null));
+            assertEquals(2, downloads.get());
+            assertEquals(List.of(), SpecCache.getFiles(location));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void readsSingleFileContractAsItsOnlyFile() {
+        final var location = "src/test/resources/catalog.yaml";
+        SpecCache.load(location, null);
+        assertEquals(List.of(Path.of(location).toAbsolutePath()), SpecCache.getFiles(location));
+    }
+}
@@ -0,0 +1,58 @@
+package com.naqiran.oas.validator;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Invalid bodies give the same messages, in the same order, whether they are read into a tree or streamed.
+ */
+class StreamingParityTest {
+
+    private static final String SCHEMA = "src/test/resources/petstore.yaml";
+
+    /**
+     * Path and body pairs, every body breaks its schema in one or more places.
+     */
+    private static final List<List<String>> BODIES = List.of(
+            List.of("/pets", "{\"id\":3,\"name\":\"Rex\",\"kind\":\"fish\",\"born\":\"April\",\"tags\":[1,2,3,4,5,6],\"owner\":{\"email\":\"none\"}}"),
+            List.of("/pets", "{\"name\":12,\"tags\":\"good\",\"owner\":[]}"),
+            List.of("/pets", "[{\"name\":\"Whiskers\"}]"),
+            List.of("/pets", "{\"name\":\"Whiskers\",\"owner\":{\"name\":null,\"email\":\"sam@example.com\"},\"born\":\"2021-02-30\"}"),
+            List.of("/pets", "{\"name\":\"Whiskers\",\"tags\":[\"a\",\"b\"],\"kind\":\"dog\""),
+            List.of("/pets", "\"Whiskers\""),
+            List.of("/pets/7/residence", "{\"contact\":\"not an email address\",\"home\":{\"type\":\"house\",\"rooms\":0}}"),
+            List.of("/pets/7/residence", "{\"contact\":\"s@ex.io\",\"home\":{\"type\":\"castle\"}}"),
+            List.of("/pets/7/residence", "{\"home\":{\"rooms\":\"two\"}}"),
+            List.of("/orders", "{\"item\":\"\",\"quantity\":1.5,\"gift\":\"yes\"}"));
+
+    @Test
+    void streamingReportsTreeMessages() {
+        final var tree = OASValidator.builder().withSchema(SCHEMA).build();
+        final var streaming = OASValidator.builder().withSchema(SCHEMA).withStreaming(true).build();
+        for (final var body : BODIES) {
+            final var expected = messages(tree, body);
+            assertFalse(expected.isEmpty(), body.toString());
+            assertEquals(expected, messages(streaming, body), body.toString());
+        }
+    }
+
+    static List<String> messages(final OASValidator validator, final List<String> body) {
+        final var method = body.get(0).endsWith("residence") ? "PUT" : "POST";
+        final var context = validator.validateRequest(Request.builder(URI.create("http://localhost:8080/v1" + body.get(0)), method)
+                .withHeader(Map.of("Content-Type", List.of("application/json"))).withBody(body.get(1)));
+        final List<String> messages = new ArrayList<>();
+        for (final var message : context.getMessages()) {
+            if (message.getLevel() != Context.MessageLevel.INFO) {
+                messages.add(message.getLevel() + " " + message.getCode() + " " + message.getLocation() + " " + message.getMessage());
+            }
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,163 @@
+package com.naqiran.oas.validator.load;
+
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.SpecCache;
+import com.naqiran.oas.validator.cli.OASValidatorCommand;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.swagger.v3.oas.models.OpenAPI;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import picocli.CommandLine;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs loads against a stub of the contract that answers every pet lookup with a valid pet after a short delay.
+ */
+class LoadRunnerTest {
+
+    private static final String SCHEMA = "src/test/resources/petstore.yaml";
+
+    private final OpenAPI contract = SpecCache.load(SCHEMA, null);
+    private final OASValidator validator = OASValidator.builder().withSchema(SCHEMA).build();
+    private final ConcurrentLinkedQueue<Long> arrivals = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<String> ids = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile long delayMillis;
+    private ExecutorService executor;
+    private HttpServer stub;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        stub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        stub.setExecutor(executor);
+        stub.createContext("/", this::answer);
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        stub.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void sendsAtFixedRate() throws InterruptedException {
+        final var start = System.nanoTime();
+        final var report = runner(20).withRate(50).build().run();
+        final var elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(20, report.getRequests());
+        assertEquals(0, report.getFailed());
+        assertEquals(0, report.getInvalid());
+        assertEquals(20, report.getLatency().getTotalCount());
+        assertEquals(20, arrivals.size());
+        assertTrue(elapsed >= 380, "20 requests at 50/s were sent within " + elapsed + " ms");
+    }
+
+    @Test
+    void keepsFixedConcurrency() throws InterruptedException {
+        delayMillis = 50;
+        final var report = runner(15).withConcurrency(3).build().run();
+        assertEquals(15, report.getRequests());
+        assertEquals(0, report.getFailed());
+        assertEquals(0, report.getInvalid());
+        assertEquals(3, maxInFlight.get());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(report.getLatency().getMinValue()) >= 50);
+    }
+
+    @Test
+    void countsUnreachableTargetAsFailed() throws IOException, InterruptedException {
+        final int port;
+        try (var socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            port = socket.getLocalPort();
+        }
+        final var generator = RequestGenerator.builder(contract, URI.create("http://127.0.0.1:" + port + "/v1")).withOperation("getPet").build();
+        final var report = LoadRunner.builder(validator, generator).withRequests(5).withConcurrency(2).build().run();
+        assertEquals(5, report.getRequests());
+        assertEquals(5, report.getFailed());
+        assertEquals(0, report.getInvalid());
+        assertTrue(report.encode().contains("REQUEST_FAILED"), report.encode());
+    }
+
+    @Test
+    void mergesPartitionsOfWorkerProcesses(@TempDir final Path directory) throws IOException {
+        final var data = directory.resolve("pets.jsonl");
+        Files.write(data, LongStream.rangeClosed(1, 20).mapToObj(id -> "{\"id\":" + id + "}").collect(Collectors.toList()), StandardCharsets.UTF_8);
+        final var exitCode = new CommandLine(new OASValidatorCommand()).execute("-s", SCHEMA, "load", target().toString(), "-o", "getPet",
+                "--data", data.toString(), "-n", "20", "-c", "4", "--processes", "2");
+        assertEquals(0, exitCode);
+        final Set<String> expected = LongStream.rangeClosed(1, 20).mapToObj(Long::toString).collect(Collectors.toCollection(TreeSet::new));
+        assertEquals(20, ids.size());
+        assertEquals(expected, new TreeSet<>(ids));
+    }
+
+    @Test
+    void mergesEncodedReports() throws InterruptedException {
+        final var first = runner(6).withPartition(0, 2).build().run();
+        final var second = runner(6).withPartition(1, 2).build().run();
+        final var merged = LoadReport.decode(first.encode());
+        merged.merge(LoadReport.decode(second.encode()));
+        assertEquals(12, merged.getRequests());
+        assertEquals(12, merged.getLatency().getTotalCount());
+        assertEquals(Math.max(first.getLatency().getMaxValue(), second.getLatency().getMaxValue()), merged.getLatency().getMaxValue());
+    }
+
+    private LoadRunner.Builder runner(final long requests) {
+        final var generator = RequestGenerator.builder(contract, target()).withOperation("getPet").build();
+        return LoadRunner.builder(validator, generator).withRequests(requests);
+    }
+
+    private URI target() {
+        return URI.create("http://127.0.0.1:" + stub.getAddress().getPort() + "/v1");
+    }
+
+    /**
+     * The request leaves the in-flight count before its response is written, as the client may send the next one as
+     * soon as it reads the response.
+     */
+    private void answer(final HttpExchange exchange) throws IOException {
+        arrivals.add(System.nanoTime());
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        try {
+            if (delayMillis > 0) {
+                Thread.sleep(delayMillis);
+            }
+            inFlight.decrementAndGet();
+            final var path = exchange.getRequestURI().getPath();
+            final var id = path.substring(path.lastIndexOf('/') + 1);
+            ids.add(id);
+            final var body = ("{\"id\":" + id + ",\"name\":\"Whiskers\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+}
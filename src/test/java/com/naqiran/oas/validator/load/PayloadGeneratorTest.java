@@ -0,0 +1,124 @@
+package com.naqiran.oas.validator.load;
+
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.Request;
+import com.naqiran.oas.validator.Response;
+import com.naqiran.oas.validator.SpecCache;
+import io.swagger.v3.oas.models.OpenAPI;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Validates generated payloads of a contract with allOf chains, oneOf and anyOf leaves, recursive references, formats
+ * and readOnly and writeOnly properties, in both tree and streaming mode.
+ */
+class PayloadGeneratorTest {
+
+    private static final String SCHEMA = "src/test/resources/catalog.yaml";
+    private static final Map<String, List<String>> JSON = Map.of("Content-Type", List.of("application/json"));
+    private static final int SEEDS = 50;
+
+    private final OpenAPI contract = SpecCache.load(SCHEMA, null);
+    private final List<OASValidator> validators = List.of(
+            OASValidator.builder().withSchema(SCHEMA).build(),
+            OASValidator.builder().withSchema(SCHEMA).withStreaming(true).build());
+
+    @Test
+    void generatesValidRequests() throws IOException {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            for (final var size : List.of(0L, 16_384L)) {
+                assertValidRequest("createItems", "POST", "/items", seed, size);
+            }
+            assertValidRequest("putNode", "PUT", "/nodes/1", seed, 0);
+        }
+    }
+
+    @Test
+    void generatesValidResponses() throws IOException {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            for (final var size : List.of(0L, 16_384L)) {
+                assertValidResponse("createItems", "POST", "/items", seed, size);
+            }
+            assertValidResponse("PUT /nodes/{id}", "PUT", "/nodes/1", seed, 0);
+        }
+    }
+
+    @Test
+    void sameSeedWritesSamePayload() throws IOException {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            final var first = generate("createItems", null, seed, 4096, 0.05);
+            final var second = generate("createItems", null, seed, 4096, 0.05);
+            assertArrayEquals(first.payload, second.payload);
+            assertEquals(first.violations, second.violations);
+        }
+        final var first = generate("createItems", null, 1, 4096, 0).payload;
+        assertTrue(first.length >= 4096);
+        assertFalse(Arrays.equals(first, generate("createItems", null, 2, 4096, 0).payload));
+    }
+
+    @Test
+    void reportsInvalidValues() throws IOException {
+        for (int seed = 0; seed < SEEDS; seed++) {
+            final var generated = generate("PUT /nodes/{id}", null, seed, 0, 1);
+            assertTrue(generated.violations > 0);
+            for (final var validator : validators) {
+                assertTrue(validate(validator, "PUT", "/nodes/1", generated.payload, null).hasErrors(), new String(generated.payload));
+            }
+        }
+    }
+
+    private void assertValidRequest(final String operation, final String method, final String path, final long seed, final long size) throws IOException {
+        final var generated = generate(operation, null, seed, size, 0);
+        assertEquals(0, generated.violations);
+        for (final var validator : validators) {
+            final var context = validate(validator, method, path, generated.payload, null);
+            assertFalse(context.hasErrors(), () -> operation + " seed " + seed + ": " + context.getMessages() + " " + new String(generated.payload));
+        }
+    }
+
+    private void assertValidResponse(final String operation, final String method, final String path, final long seed, final long size) throws IOException {
+        final var generated = generate(operation, "200", seed, size, 0);
+        assertEquals(0, generated.violations);
+        for (final var validator : validators) {
+            final var context = validate(validator, method, path, null, generated.payload);
+            assertFalse(context.hasErrors(), () -> operation + " response seed " + seed + ": " + context.getMessages() + " " + new String(generated.payload));
+        }
+    }
+
+    private static Context validate(final OASValidator validator, final String method, final String path, final byte[] request, final byte[] response) {
+        final var built = Request.builder(URI.create("http://localhost:8080/api" + path), method).withHeader(JSON);
+        if (response == null) {
+            return validator.validateRequest(built.withBody(request));
+        }
+        return validator.validateResponse(built, Response.builder(200).withHeader(JSON).withBody(response));
+    }
+
+    private Generated generate(final String operation, final String status, final long seed, final long size, final double invalidRate) throws IOException {
+        final var payload = new ByteArrayOutputStream();
+        final var violations = PayloadGenerator.builder(contract, operation).withResponse(status).withSeed(seed).withSize(size)
+                .withInvalidRate(invalidRate).build().write(payload);
+        return new Generated(payload.toByteArray(), violations);
+    }
+
+    private static final class Generated {
+        private final byte[] payload;
+        private final long violations;
+
+        private Generated(final byte[] payload, final long violations) {
+            this.payload = payload;
+            this.violations = violations;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.naqiran.oas.validator.load;
+
+import com.naqiran.oas.validator.OASValidator;
+import com.naqiran.oas.validator.SpecCache;
+import io.swagger.v3.oas.models.OpenAPI;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Generates requests for operations of a contract without examples, so every value comes from the payload generator.
+ */
+class RequestGeneratorTest {
+
+    private static final String SCHEMA = "src/test/resources/catalog.yaml";
+    private static final int REQUESTS = 100;
+
+    private final OpenAPI contract = SpecCache.load(SCHEMA, null);
+    private final OASValidator validator = OASValidator.builder().withSchema(SCHEMA).build();
+
+    @Test
+    void generatesValidRequestsFromSchemas() {
+        final var generator = RequestGenerator.builder(contract, URI.create("http://localhost:8080/api"))
+                .withOperation("listItems").withOperation("createItems").withOperation("putNode").build();
+        final Set<String> pageSizes = new HashSet<>();
+        for (int index = 0; index < REQUESTS; index++) {
+            final var request = generator.next(index);
+            final var context = validator.validateRequest(request);
+            assertFalse(context.hasErrors(), request.getMethod() + " " + request.getUri() + " " + request.getBody() + " " + context.getMessages());
+            final var query = request.getUri().getRawQuery();
+            if ("GET".equals(request.getMethod()) && query != null && query.contains("page-size=")) {
+                pageSizes.add(query.replaceAll(".*page-size=([0-9]+).*", "$1"));
+            }
+        }
+        assertFalse(pageSizes.isEmpty());
+        assertTrue(pageSizes.stream().mapToInt(Integer::parseInt).allMatch(size -> size % 5 == 0 && size >= 5 && size < 50), pageSizes.toString());
+    }
+
+    @Test
+    void sameIndexGivesSameRequest() {
+        final var generator = RequestGenerator.builder(contract, URI.create("http://localhost:8080/api")).build();
+        final var other = RequestGenerator.builder(contract, URI.create("http://localhost:8080/api")).build();
+        for (int index = 0; index < REQUESTS; index++) {
+            final var request = generator.next(index);
+            final var again = other.next(index);
+            assertEquals(request.getUri(), again.getUri());
+            assertEquals(request.getBody(), again.getBody());
+        }
+    }
+}
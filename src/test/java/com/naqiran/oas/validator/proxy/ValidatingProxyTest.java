@@ -0,0 +1,160 @@
+package com.naqiran.oas.validator.proxy;
+
+import com.naqiran.oas.validator.Context;
+import com.naqiran.oas.validator.ErrorCode;
+import com.naqiran.oas.validator.OASValidator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the proxy in front of a stub upstream on another origin than the servers of the contract.
+ */
+class ValidatingProxyTest {
+
+    private static final Map<String, String> BODIES = Map.of(
+            "/v1/pets/7", "{\"id\":7,\"name\":\"Whiskers\",\"kind\":\"cat\"}",
+            "/v1/pets/8", "{\"id\":\"eight\",\"name\":\"Tom\",\"kind\":\"lion\"}");
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<Context> contexts = new CopyOnWriteArrayList<>();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final OASValidator validator = OASValidator.builder().withSchema("src/test/resources/petstore.yaml").build();
+    private HttpServer upstream;
+    private ValidatingProxy proxy;
+
+    @BeforeEach
+    void startUpstream() throws IOException {
+        upstream = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        upstream.createContext("/", this::answer);
+        upstream.start();
+    }
+
+    @AfterEach
+    void stop() {
+        if (proxy != null) {
+            proxy.close();
+        }
+        upstream.stop(0);
+    }
+
+    @Test
+    void flagsInvalidTraffic() throws Exception {
+        proxy = start(false);
+        final var valid = send("/v1/pets/7", "gzip");
+        assertEquals(200, valid.statusCode());
+        assertEquals(BODIES.get("/v1/pets/7"), new String(valid.body(), StandardCharsets.UTF_8));
+        assertEquals(200, send("/v1/pets/8", null).statusCode());
+        assertEquals(404, send("/v1/owners", null).statusCode());
+        awaitValidated(3);
+
+        final var metrics = proxy.getMetrics();
+        assertEquals(3, metrics.getExchanges());
+        assertEquals(1, metrics.getInvalid());
+        assertEquals(1, metrics.getUnmatched());
+        assertEquals(0, metrics.getDropped());
+        assertFalse(context("getPet", "/v1/pets/7").hasErrors(), context("getPet", "/v1/pets/7").getMessages().toString());
+        assertTrue(hasError(context("getPet", "/v1/pets/8"), ErrorCode.TYPE_MISMATCH));
+        assertTrue(hasError(context("unmatched", "/v1/owners"), ErrorCode.OPERATION_NOT_FOUND));
+    }
+
+    @Test
+    void rejectsInvalidRequestsWhenBlocking() throws Exception {
+        proxy = start(true);
+        final var rejected = send("/v1/pets/0", null);
+        assertEquals(400, rejected.statusCode());
+        assertTrue(new String(rejected.body(), StandardCharsets.UTF_8).contains(ErrorCode.MINIMUM.name()));
+        assertEquals(200, send("/v1/pets/7", null).statusCode());
+        awaitValidated(1);
+
+        final var metrics = proxy.getMetrics();
+        assertEquals(1, metrics.getRejected());
+        assertEquals(1, metrics.getInvalid());
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    private ValidatingProxy start(final boolean blocking) throws IOException {
+        return ValidatingProxy.builder(validator, URI.create("http://127.0.0.1:" + upstream.getAddress().getPort()))
+                .withAddress(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                .withServerThreads(2)
+                .withValidationThreads(1)
+                .withBlocking(blocking)
+                .withListener(contexts::add)
+                .start();
+    }
+
+    private HttpResponse<byte[]> send(final String path, final String acceptEncoding) throws IOException, InterruptedException {
+        final var request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + proxy.getAddress().getPort() + path));
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    /**
+     * Answers with the body of the path, gzip encoded when the request accepts it, and with a 404 for other paths.
+     */
+    private void answer(final HttpExchange exchange) throws IOException {
+        upstreamCalls.incrementAndGet();
+        try {
+            final var body = BODIES.get(exchange.getRequestURI().getPath());
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            var bytes = body.getBytes(StandardCharsets.UTF_8);
+            final var encoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (encoding != null && encoding.contains("gzip")) {
+                final var compressed = new ByteArrayOutputStream();
+                try (var gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(bytes);
+                }
+                bytes = compressed.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void awaitValidated(final long count) throws InterruptedException {
+        for (int attempt = 0; attempt < 500 && proxy.getMetrics().getValidated() < count; attempt++) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, proxy.getMetrics().getValidated());
+    }
+
+    private Context context(final String operation, final String path) {
+        return contexts.stream()
+                .filter(context -> operation.equals(context.getOperationName()) && context.getRequest().getUri().getPath().equals(path))
+                .findFirst().orElseThrow();
+    }
+
+    private static boolean hasError(final Context context, final ErrorCode code) {
+        return context.getMessages().stream().anyMatch(message -> message.getLevel() == Context.MessageLevel.ERROR && message.getCode() == code);
+    }
+}